@@ -0,0 +1,115 @@
+package edu.kit.informatik.benchmark;
+
+import java.io.IOException;
+
+import edu.kit.informatik.car.Car;
+import edu.kit.informatik.main.Simulation;
+
+/**
+ * Check, that the cars of {@link Simulation#getCar(int)} show the state of the current tick.
+ * 
+ * Every scenario is simulated in short steps. After each step, in which a street is in free flow, 
+ * the street, speed and position of the view of every car are compared with the position record 
+ * of {@link Simulation#readPosition(int, int[])}. The check prints the amount of differing cars 
+ * of each scenario and exits with status 1, if any view differs.
+ * Scenarios are given as arguments, otherwise the bundled and a synthetic one are used.
+ * 
+ * @author ubvaa
+ * @version 1.0
+ */
+public final class CarViewCheck {
+    /**
+     * Scenarios, that are checked without arguments
+     */
+    private static final String[] DEFAULT_SCENARIOS = {"basic", "advanced", "advanced2", "trafficjam", "dense",
+        "synthetic-1000"};
+    /**
+     * Amount of steps of each scenario
+     */
+    private static final int STEPS = 400;
+    /**
+     * Amount of ticks of a step
+     */
+    private static final int STEP_TICKS = 5;
+    /**
+     * Amount of fields of a position record
+     */
+    private static final int POSITION_FIELDS = 4;
+    
+    /**
+     * Private CarViewCheck constructor
+     */
+    private CarViewCheck() { }
+    
+    /**
+     * Entry point of the check
+     * 
+     * @param args - names of the scenarios
+     * @throws IOException if a scenario can't be resolved
+     */
+    public static void main(String[] args) throws IOException {
+        boolean allCurrent = true;
+        for (String scenario : args.length > 0 ? args : DEFAULT_SCENARIOS) {
+            Simulation simulation = new Simulation();
+            if (!simulation.load(Scenarios.resolve(scenario))) {
+                throw new IllegalStateException("scenario " + scenario + " is not correct");
+            }
+            int[] ids = readIDs(simulation);
+            int differing = 0;
+            int compared = 0;
+            for (int step = 0; step < STEPS; step++) {
+                simulation.simulate(STEP_TICKS);
+                if (simulation.isAnyInFreeFlow()) {
+                    differing += countDiffering(simulation, ids);
+                    compared += ids.length;
+                }
+            }
+            System.out.printf("%s: %d of %d cars differ%n", scenario, differing, compared);
+            allCurrent &= differing == 0;
+        }
+        if (!allCurrent) {
+            System.out.println("FAILED: a car doesn't show the current tick");
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Method, that reads the IDs of all cars
+     * 
+     * @param simulation - simulation
+     * @return - IDs of the cars by their slots
+     */
+    private static int[] readIDs(Simulation simulation) {
+        int[] record = new int[POSITION_FIELDS];
+        int[] ids = new int[simulation.getCarsAmount()];
+        for (int slot = 0; slot < ids.length; slot++) {
+            simulation.readPosition(slot, record);
+            ids[slot] = record[0];
+        }
+        return ids;
+    }
+    
+    /**
+     * Method, that compares the view of every car with its position record.
+     * The view is read first, so the record can't settle the street of the car before.
+     * 
+     * @param simulation - simulation
+     * @param ids - IDs of the cars
+     * @return - amount of cars, whose view differs from the record
+     */
+    private static int countDiffering(Simulation simulation, int[] ids) {
+        int[] record = new int[POSITION_FIELDS];
+        int differing = 0;
+        for (int id : ids) {
+            Car car = simulation.getCar(id);
+            int streetID = car.getStreetID();
+            int speed = car.getCurrentSpeed();
+            int position = car.getPosition();
+            simulation.readPosition(car.getSlot(), record);
+            if (streetID != record[1] || speed != record[2] || position != record[3]) {
+                differing++;
+            }
+        }
+        return differing;
+    }
+}
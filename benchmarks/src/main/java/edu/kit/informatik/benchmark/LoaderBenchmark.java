@@ -0,0 +1,75 @@
+package edu.kit.informatik.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.kit.informatik.car.Car;
+import edu.kit.informatik.car.CarStore;
+import edu.kit.informatik.crossing.CrossingNetwork;
+import edu.kit.informatik.street.StreetNetwork;
+import edu.kit.kastel.trafficsimulation.io.SimulationFileLoader;
+
+/**
+ * Benchmark of reading the simulation files and checking them with the checkInput-chain of the "load"-command.
+ * 
+ * @author ubvaa
+ * @version 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LoaderBenchmark {
+    /**
+     * Scenario to be loaded
+     */
+    @Param({"basic", "advanced", "advanced2", "trafficjam", "dense", 
+        "synthetic-1000", "synthetic-10000", "synthetic-100000", "synthetic-1000000"})
+    private String scenario;
+    /**
+     * Folder of the scenario
+     */
+    private String folder;
+    
+    /**
+     * Method, that resolves the folder of the scenario
+     * 
+     * @throws IOException if the synthetic scenario can't be written
+     */
+    @Setup
+    public void resolve() throws IOException {
+        this.folder = Scenarios.resolve(this.scenario);
+    }
+    
+    /**
+     * Benchmark of loading and checking the simulation files
+     * 
+     * @return - true, if the files are correct
+     * @throws IOException if the files can't be read
+     */
+    @Benchmark
+    public boolean load() throws IOException {
+        SimulationFileLoader fileLoader = new SimulationFileLoader(this.folder);
+        fileLoader.checkFiles();
+        CrossingNetwork crossings = new CrossingNetwork();
+        CarStore carStore = new CarStore(0);
+        StreetNetwork streets = new StreetNetwork(crossings, carStore);
+        
+        return crossings.checkInput(fileLoader) && streets.checkInput(fileLoader) 
+                && Car.checkInput(fileLoader, carStore, streets) && crossings.checkStreets() && streets.checkCars();
+    }
+}
@@ -0,0 +1,77 @@
+package edu.kit.informatik.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import edu.kit.informatik.generator.ScenarioGenerator;
+import edu.kit.kastel.trafficsimulation.io.SimulationFileLoader;
+
+/**
+ * Class, that resolves the scenarios of the benchmarks to folders with simulation files.
+ * 
+ * Bundled scenarios are looked up in the folder of the system property {@value #SCENARIOS_PROPERTY} 
+ * (default: {@value #DEFAULT_SCENARIOS_DIR}). Scenarios named "synthetic-[amount]" are generated 
+ * into a temporary folder by the {@link ScenarioGenerator} as a grid with long streets and the given amount of cars.
+ * 
+ * @author ubvaa
+ * @version 1.0
+ */
+final class Scenarios {
+    /**
+     * System property with the folder of the bundled scenarios
+     */
+    static final String SCENARIOS_PROPERTY = "scenarios.dir";
+    /**
+     * Default folder of the bundled scenarios
+     */
+    static final String DEFAULT_SCENARIOS_DIR = "files";
+    /**
+     * Prefix of the synthetic scenarios
+     */
+    private static final String SYNTHETIC = "synthetic-";
+    /**
+     * Length of the synthetic streets
+     */
+    private static final int STREET_LENGTH = 10000;
+    /**
+     * Amount of cars per synthetic crossing, a grid crossing has about four streets with a capacity of 1001 cars
+     */
+    private static final int CARS_PER_CROSSING = 1000;
+    /**
+     * Minimal amount of crossings of the synthetic grid
+     */
+    private static final int MIN_CROSSINGS = 4;
+    /**
+     * Seed of the synthetic networks
+     */
+    private static final long SEED = 42;
+    
+    /**
+     * Private Scenarios constructor
+     */
+    private Scenarios() { }
+    
+    /**
+     * Method, that resolves the scenario to the folder with its simulation files
+     * 
+     * @param scenario - name of the bundled scenario or "synthetic-[amount]"
+     * @return - path to the folder
+     * @throws IOException if the synthetic scenario can't be written
+     */
+    static String resolve(String scenario) throws IOException {
+        if (!scenario.startsWith(SYNTHETIC)) {
+            return Path.of(System.getProperty(SCENARIOS_PROPERTY, DEFAULT_SCENARIOS_DIR), scenario).toString();
+        }
+        int carsAmount = Integer.parseInt(scenario.substring(SYNTHETIC.length()));
+        Path folder = Path.of(System.getProperty("java.io.tmpdir"), "traffic-simulation-" + scenario);
+        if (!Files.exists(folder.resolve(SimulationFileLoader.FILENAME_CARS))) {
+            ScenarioGenerator generator = new ScenarioGenerator(ScenarioGenerator.Topology.GRID, 
+                    Math.max(MIN_CROSSINGS, carsAmount / CARS_PER_CROSSING), SEED);
+            generator.setLengths(STREET_LENGTH, STREET_LENGTH);
+            generator.setCarsAmount(carsAmount);
+            generator.generate(folder);
+        }
+        return folder.toString();
+    }
+}
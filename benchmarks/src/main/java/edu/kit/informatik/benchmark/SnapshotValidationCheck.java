@@ -0,0 +1,389 @@
+package edu.kit.informatik.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import edu.kit.informatik.main.Simulation;
+
+/**
+ * Check, that malformed snapshots are rejected and keep the simulated network.
+ * 
+ * Every scenario is simulated for some ticks and saved. The snapshot is then damaged in one way at a time:
+ * a car on a street, that doesn't exist, a repeated car ID, positions before and behind the street
+ * and a car, whose street doesn't hold it. The crossings are damaged by an invalid green time, 
+ * a repeated crossing ID, an invalid green street, a crossing without outgoing streets and streets, 
+ * that are missing at their crossing, listed twice or listed at another crossing. 
+ * Each damaged snapshot must fail to load, and the positions
+ * of the simulation must stay the same. The check prints the result of each case and exits with status 1,
+ * if a damaged snapshot has been loaded. Scenarios are given as arguments, otherwise the bundled ones are used.
+ * 
+ * @author ubvaa
+ * @version 1.2
+ */
+public final class SnapshotValidationCheck {
+    /**
+     * Scenarios, that are checked without arguments
+     */
+    private static final String[] DEFAULT_SCENARIOS = {"basic", "advanced", "advanced2", "trafficjam", "dense"};
+    /**
+     * Amount of ticks before the snapshot is saved
+     */
+    private static final int TICKS = 50;
+    /**
+     * Bytes of the magic number, the format version and the tick at the begin of the snapshot
+     */
+    private static final int HEADER = 2 * Integer.BYTES + Long.BYTES;
+    /**
+     * Street ID, that no scenario has
+     */
+    private static final int UNKNOWN_STREET = 1 << 30;
+    /**
+     * Position behind the end of every street
+     */
+    private static final int FAR_POSITION = 1 << 30;
+    /**
+     * Amount of fields of a position record
+     */
+    private static final int POSITION_FIELDS = 4;
+    /**
+     * Amount of integer attributes of a car in the snapshot, followed by one byte for the moved flag
+     */
+    private static final int CAR_INTS = 8;
+    /**
+     * Amount of fields of a street in the snapshot before its cars
+     */
+    private static final int STREET_FIELDS = 5;
+    /**
+     * Amount of fields of a crossing in the snapshot before its streets: ID, green time, current time, green street
+     */
+    private static final int CROSSING_FIELDS = 4;
+    /**
+     * Green time, that no crossing may have
+     */
+    private static final int INVALID_GREEN_TIME = 100;
+    /**
+     * Maximal amount of incoming or outgoing streets of a crossing
+     */
+    private static final int MAX_STREETS = 4;
+    
+    /**
+     * Private SnapshotValidationCheck constructor
+     */
+    private SnapshotValidationCheck() { }
+    
+    /**
+     * Entry point of the check
+     * 
+     * @param args - names of the scenarios
+     * @throws IOException if a scenario or the snapshot can't be used
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("snapshot-check", ".tsim");
+        boolean allRejected = true;
+        try {
+            for (String scenario : args.length > 0 ? args : DEFAULT_SCENARIOS) {
+                Simulation simulation = new Simulation();
+                if (!simulation.load(Scenarios.resolve(scenario))) {
+                    throw new IllegalStateException("scenario " + scenario + " is not correct");
+                }
+                simulation.simulate(TICKS);
+                simulation.save(file);
+                byte[] snapshot = Files.readAllBytes(file);
+                int carsAmount = ByteBuffer.wrap(snapshot).getInt(HEADER);
+                if (carsAmount < 2) {
+                    throw new IllegalStateException("scenario " + scenario + " needs at least two cars");
+                }
+                int[] positions = readPositions(simulation);
+                
+                Files.write(file, snapshot);
+                simulation.loadSnapshot(file);
+                if (!Arrays.equals(positions, readPositions(simulation))) {
+                    throw new IllegalStateException("scenario " + scenario + " isn't restored by its snapshot");
+                }
+                
+                ByteBuffer damaged = ByteBuffer.wrap(snapshot.clone());
+                damaged.putInt(getField(carsAmount, 1, 0), UNKNOWN_STREET);
+                allRejected &= checkRejected(scenario, "unknown street", simulation, file, damaged, positions);
+                
+                damaged = ByteBuffer.wrap(snapshot.clone());
+                damaged.putInt(getField(carsAmount, 0, 1), damaged.getInt(getField(carsAmount, 0, 0)));
+                allRejected &= checkRejected(scenario, "repeated car ID", simulation, file, damaged, positions);
+                
+                damaged = ByteBuffer.wrap(snapshot.clone());
+                damaged.putInt(getField(carsAmount, 2, 0), -1);
+                allRejected &= checkRejected(scenario, "position before the street", simulation, file, damaged,
+                        positions);
+                
+                damaged = ByteBuffer.wrap(snapshot.clone());
+                damaged.putInt(getField(carsAmount, 2, 0), FAR_POSITION);
+                allRejected &= checkRejected(scenario, "position behind the street", simulation, file, damaged,
+                        positions);
+                
+                damaged = ByteBuffer.wrap(snapshot.clone());
+                int otherSlot = findCarOnOtherStreet(damaged, carsAmount);
+                if (otherSlot >= 0) {
+                    damaged.putInt(getField(carsAmount, 1, 0), damaged.getInt(getField(carsAmount, 1, otherSlot)));
+                    allRejected &= checkRejected(scenario, "car missing on its street", simulation, file, damaged,
+                            positions);
+                }
+                
+                allRejected &= checkCrossingsRejected(scenario, simulation, file, snapshot, carsAmount, positions);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        if (!allRejected) {
+            System.out.println("FAILED: a malformed snapshot has been loaded");
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Method, that writes the damaged snapshot and checks, that it is rejected and the simulation stays unchanged
+     * 
+     * @param scenario - name of the scenario
+     * @param damage - description of the damage
+     * @param simulation - simulation of the scenario
+     * @param file - file of the snapshot
+     * @param damaged - damaged snapshot
+     * @param positions - positions of the simulation before
+     * @return true - if the snapshot is rejected; else - false
+     * @throws IOException if the snapshot can't be written
+     */
+    private static boolean checkRejected(String scenario, String damage, Simulation simulation, Path file,
+            ByteBuffer damaged, int[] positions) throws IOException {
+        Files.write(file, damaged.array());
+        boolean rejected;
+        try {
+            simulation.loadSnapshot(file);
+            rejected = false;
+        } catch (IOException e) {
+            rejected = Arrays.equals(positions, readPositions(simulation));
+        }
+        System.out.printf("%s, %s: %s%n", scenario, damage, rejected ? "rejected" : "LOADED");
+        return rejected;
+    }
+    
+    /**
+     * Method, that damages the crossings of the snapshot in one way at a time 
+     * and checks, that every damaged snapshot is rejected
+     * 
+     * @param scenario - name of the scenario
+     * @param simulation - simulation of the scenario
+     * @param file - file of the snapshot
+     * @param snapshot - correct snapshot
+     * @param carsAmount - amount of cars of the snapshot
+     * @param positions - positions of the simulation before
+     * @return true - if all damaged snapshots are rejected; else - false
+     * @throws IOException if a snapshot can't be written
+     */
+    private static boolean checkCrossingsRejected(String scenario, Simulation simulation, Path file, 
+            byte[] snapshot, int carsAmount, int[] positions) throws IOException {
+        int offset = getCrossingsOffset(ByteBuffer.wrap(snapshot), carsAmount);
+        int[][][] crossings = readCrossings(ByteBuffer.wrap(snapshot), offset);
+        if (crossings.length < 2) {
+            throw new IllegalStateException("scenario " + scenario + " needs at least two crossings");
+        }
+        boolean allRejected = true;
+        
+        int[][][] damaged = copyCrossings(crossings);
+        damaged[0][0][1] = INVALID_GREEN_TIME;
+        allRejected &= checkRejected(scenario, "invalid green time", simulation, file, 
+                writeCrossings(snapshot, offset, damaged), positions);
+        
+        damaged = copyCrossings(crossings);
+        damaged[1][0][0] = damaged[0][0][0];
+        allRejected &= checkRejected(scenario, "repeated crossing ID", simulation, file, 
+                writeCrossings(snapshot, offset, damaged), positions);
+        
+        damaged = copyCrossings(crossings);
+        damaged[0][2] = new int[0];
+        allRejected &= checkRejected(scenario, "crossing without outgoing streets", simulation, file, 
+                writeCrossings(snapshot, offset, damaged), positions);
+        
+        for (int index = 0; index < crossings.length; index++) {
+            if (crossings[index][0][1] > 0) {
+                damaged = copyCrossings(crossings);
+                damaged[index][0][3] = damaged[index][1].length;
+                allRejected &= checkRejected(scenario, "invalid green street", simulation, file, 
+                        writeCrossings(snapshot, offset, damaged), positions);
+                break;
+            }
+        }
+        
+        int crowded = -1;
+        int sparse = -1;
+        for (int index = 0; index < crossings.length; index++) {
+            if (crowded < 0 && crossings[index][1].length > 1) {
+                crowded = index;
+            } else if (sparse < 0 && crossings[index][1].length < MAX_STREETS) {
+                sparse = index;
+            }
+        }
+        if (crowded >= 0) {
+            damaged = copyCrossings(crossings);
+            damaged[crowded][1] = Arrays.copyOf(damaged[crowded][1], damaged[crowded][1].length - 1);
+            allRejected &= checkRejected(scenario, "street missing at its crossing", simulation, file, 
+                    writeCrossings(snapshot, offset, damaged), positions);
+        }
+        if (crowded >= 0 && sparse >= 0) {
+            damaged = copyCrossings(crossings);
+            int[] incoming = damaged[crowded][1];
+            damaged[sparse][1] = Arrays.copyOf(damaged[sparse][1], damaged[sparse][1].length + 1);
+            damaged[sparse][1][damaged[sparse][1].length - 1] = incoming[incoming.length - 1];
+            damaged[crowded][1] = Arrays.copyOf(incoming, incoming.length - 1);
+            allRejected &= checkRejected(scenario, "street at another crossing", simulation, file, 
+                    writeCrossings(snapshot, offset, damaged), positions);
+        }
+        for (int index = 0; index < crossings.length; index++) {
+            if (crossings[index][1].length < MAX_STREETS) {
+                damaged = copyCrossings(crossings);
+                damaged[index][1] = Arrays.copyOf(damaged[index][1], damaged[index][1].length + 1);
+                damaged[index][1][damaged[index][1].length - 1] = damaged[index][1][0];
+                allRejected &= checkRejected(scenario, "street listed twice", simulation, file, 
+                        writeCrossings(snapshot, offset, damaged), positions);
+                break;
+            }
+        }
+        return allRejected;
+    }
+    
+    /**
+     * Method, that gets the offset of the crossings in the snapshot, which follow the cars and the streets
+     * 
+     * @param snapshot - snapshot
+     * @param carsAmount - amount of cars of the snapshot
+     * @return - offset in bytes
+     */
+    private static int getCrossingsOffset(ByteBuffer snapshot, int carsAmount) {
+        int offset = HEADER + Integer.BYTES + carsAmount * (CAR_INTS * Integer.BYTES + 1);
+        int streetsAmount = snapshot.getInt(offset);
+        offset += Integer.BYTES;
+        for (int street = 0; street < streetsAmount; street++) {
+            int streetCarsAmount = snapshot.getInt(offset + (STREET_FIELDS - 1) * Integer.BYTES);
+            offset += (STREET_FIELDS + streetCarsAmount) * Integer.BYTES;
+        }
+        return offset;
+    }
+    
+    /**
+     * Method, that reads the crossings of the snapshot
+     * 
+     * @param snapshot - snapshot
+     * @param offset - offset of the crossings
+     * @return - for each crossing: its fields, its incoming and its outgoing street IDs
+     */
+    private static int[][][] readCrossings(ByteBuffer snapshot, int offset) {
+        snapshot.position(offset);
+        int[][][] crossings = new int[snapshot.getInt()][][];
+        for (int index = 0; index < crossings.length; index++) {
+            int[] fields = new int[CROSSING_FIELDS];
+            for (int field = 0; field < fields.length; field++) {
+                fields[field] = snapshot.getInt();
+            }
+            int[] incoming = new int[snapshot.getInt()];
+            for (int street = 0; street < incoming.length; street++) {
+                incoming[street] = snapshot.getInt();
+            }
+            int[] outgoing = new int[snapshot.getInt()];
+            for (int street = 0; street < outgoing.length; street++) {
+                outgoing[street] = snapshot.getInt();
+            }
+            crossings[index] = new int[][] {fields, incoming, outgoing};
+        }
+        return crossings;
+    }
+    
+    /**
+     * Method, that copies the crossings, so they can be damaged
+     * 
+     * @param crossings - crossings of the snapshot
+     * @return - deep copy of the crossings
+     */
+    private static int[][][] copyCrossings(int[][][] crossings) {
+        int[][][] copy = new int[crossings.length][][];
+        for (int index = 0; index < crossings.length; index++) {
+            copy[index] = new int[][] {crossings[index][0].clone(), crossings[index][1].clone(), 
+                crossings[index][2].clone()};
+        }
+        return copy;
+    }
+    
+    /**
+     * Method, that builds a snapshot with the cars and streets of the given one and the crossings
+     * 
+     * @param snapshot - snapshot
+     * @param offset - offset of the crossings
+     * @param crossings - crossings, that replace the ones of the snapshot
+     * @return - new snapshot
+     */
+    private static ByteBuffer writeCrossings(byte[] snapshot, int offset, int[][][] crossings) {
+        int length = offset + Integer.BYTES;
+        for (int[][] crossing : crossings) {
+            length += (CROSSING_FIELDS + 2 + crossing[1].length + crossing[2].length) * Integer.BYTES;
+        }
+        ByteBuffer written = ByteBuffer.allocate(length);
+        written.put(snapshot, 0, offset);
+        written.putInt(crossings.length);
+        for (int[][] crossing : crossings) {
+            for (int field : crossing[0]) {
+                written.putInt(field);
+            }
+            for (int streets = 1; streets < crossing.length; streets++) {
+                written.putInt(crossing[streets].length);
+                for (int street : crossing[streets]) {
+                    written.putInt(street);
+                }
+            }
+        }
+        return written;
+    }
+    
+    /**
+     * Method, that reads the position records of all cars
+     * 
+     * @param simulation - simulation
+     * @return - records "carID,streetID,speed,position" of all cars one after another
+     */
+    private static int[] readPositions(Simulation simulation) {
+        int[] record = new int[POSITION_FIELDS];
+        int[] positions = new int[simulation.getCarsAmount() * record.length];
+        for (int slot = 0; slot < simulation.getCarsAmount(); slot++) {
+            simulation.readPosition(slot, record);
+            System.arraycopy(record, 0, positions, slot * record.length, record.length);
+        }
+        return positions;
+    }
+    
+    /**
+     * Method, that finds a car, that is on another street than the first car
+     * 
+     * @param snapshot - snapshot
+     * @param carsAmount - amount of cars of the snapshot
+     * @return - slot of the car; -1 - if all cars are on the same street
+     */
+    private static int findCarOnOtherStreet(ByteBuffer snapshot, int carsAmount) {
+        for (int slot = 1; slot < carsAmount; slot++) {
+            if (snapshot.getInt(getField(carsAmount, 1, slot)) != snapshot.getInt(getField(carsAmount, 1, 0))) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Method, that gets the offset of an attribute of a car in the snapshot.
+     * The cars are saved as their amount followed by one block for each attribute.
+     * 
+     * @param carsAmount - amount of cars of the snapshot
+     * @param attribute - index of the attribute: 0 - ID, 1 - street ID, 2 - position
+     * @param slot - slot of the car
+     * @return - offset in bytes
+     */
+    private static int getField(int carsAmount, int attribute, int slot) {
+        return HEADER + Integer.BYTES + (attribute * carsAmount + slot) * Integer.BYTES;
+    }
+}
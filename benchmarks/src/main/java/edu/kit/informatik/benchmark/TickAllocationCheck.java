@@ -0,0 +1,97 @@
+package edu.kit.informatik.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+
+import edu.kit.informatik.main.Simulation;
+
+/**
+ * Check, that the simulation tick doesn't allocate in steady state.
+ * 
+ * Every scenario is loaded and warmed up for a fixed amount of rounds, so the JIT compiler has compiled the tick 
+ * and the lanes and queues have reached their working size. Then the bytes, that the ticks allocate 
+ * on the current thread, are measured with the allocation counter of the {@link ThreadMXBean} 
+ * in a fixed amount of rounds, and every one of them must allocate nothing. 
+ * The check prints the bytes per tick of the largest round of each scenario and exits with status 1, 
+ * if any round of any scenario allocates. 
+ * Scenarios are given as arguments, otherwise the bundled and synthetic ones are used.
+ * 
+ * @author ubvaa
+ * @version 1.3
+ */
+public final class TickAllocationCheck {
+    /**
+     * Scenarios, that are checked without arguments
+     */
+    private static final String[] DEFAULT_SCENARIOS = {"basic", "advanced", "advanced2", "trafficjam", "dense",
+        "synthetic-1000", "synthetic-10000", "synthetic-100000"};
+    /**
+     * Amount of ticks of a round
+     */
+    private static final int ROUND_TICKS = 1000;
+    /**
+     * Amount of rounds before the measurement, the JIT compiler still allocates in single rounds up to about the 60th
+     */
+    private static final int WARMUP_ROUNDS = 100;
+    /**
+     * Amount of measured rounds, that must all allocate nothing
+     */
+    private static final int MEASURED_ROUNDS = 20;
+    
+    /**
+     * Private TickAllocationCheck constructor
+     */
+    private TickAllocationCheck() { }
+    
+    /**
+     * Entry point of the check
+     * 
+     * @param args - names of the scenarios
+     * @throws IOException if a scenario can't be resolved
+     */
+    public static void main(String[] args) throws IOException {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("allocation counters aren't supported by this JVM");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        
+        boolean allocationFree = true;
+        for (String scenario : args.length > 0 ? args : DEFAULT_SCENARIOS) {
+            Simulation simulation = new Simulation();
+            if (!simulation.load(Scenarios.resolve(scenario))) {
+                throw new IllegalStateException("scenario " + scenario + " is not correct");
+            }
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                measureRound(threads, simulation);
+            }
+            long allocated = 0;
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                allocated = Math.max(allocated, measureRound(threads, simulation));
+            }
+            System.out.printf("%s: %.2f bytes/tick%n", scenario, (double) allocated / ROUND_TICKS);
+            allocationFree &= allocated == 0;
+        }
+        if (!allocationFree) {
+            System.out.println("FAILED: the tick allocates");
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Method, that measures the bytes, that one round of ticks allocates on the current thread
+     * 
+     * @param threads - bean with the allocation counters
+     * @param simulation - warmed up simulation
+     * @return - allocated bytes of the round
+     */
+    private static long measureRound(ThreadMXBean threads, Simulation simulation) {
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int tick = 0; tick < ROUND_TICKS; tick++) {
+            simulation.tick();
+        }
+        return threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+    }
+}
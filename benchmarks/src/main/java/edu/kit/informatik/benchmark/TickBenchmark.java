@@ -0,0 +1,65 @@
+package edu.kit.informatik.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.kit.informatik.main.Simulation;
+
+/**
+ * Benchmark of the simulation tick, as it is executed by the "simulate"-command.
+ * Every iteration starts from a freshly loaded network, so ticks/second are reproducible.
+ * 
+ * @author ubvaa
+ * @version 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TickBenchmark {
+    /**
+     * Scenario to be simulated
+     */
+    @Param({"basic", "advanced", "advanced2", "trafficjam", "dense", 
+        "synthetic-1000", "synthetic-10000", "synthetic-100000", "synthetic-1000000"})
+    private String scenario;
+    /**
+     * Simulation of the scenario
+     */
+    private final Simulation simulation = new Simulation();
+    
+    /**
+     * Method, that loads the scenario before each iteration
+     * 
+     * @throws IOException if the scenario can't be loaded
+     */
+    @Setup(Level.Iteration)
+    public void load() throws IOException {
+        if (!this.simulation.load(Scenarios.resolve(this.scenario))) {
+            throw new IllegalStateException("scenario " + this.scenario + " is not correct");
+        }
+    }
+    
+    /**
+     * Benchmark of one tick
+     */
+    @Benchmark
+    public void tick() {
+        this.simulation.tick();
+    }
+}
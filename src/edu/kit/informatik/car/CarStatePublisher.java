@@ -0,0 +1,88 @@
+package edu.kit.informatik.car;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class, that publishes the state of all cars after every tick, so other threads can read the state
+ * of the latest completed tick, while the simulating thread goes on without waiting for them.
+ * 
+ * The state is copied into a copy, that is neither published nor read at the moment, and then published
+ * by one volatile write. A reader pins the published copy with its readers' counter and checks,
+ * that it is still the published one; a pinned copy isn't filled again, until it is released.
+ * Usually two copies are used in turn, another one is only created, while readers hold both of them.
+ * 
+ * @author ubvaa
+ * @version 1.0
+ */
+public final class CarStatePublisher {
+    /**
+     * All copies of the publisher, only used by the simulating thread
+     */
+    private final List<CarStates> copies = new ArrayList<>();
+    /**
+     * Latest published copy, null - if nothing has been published
+     */
+    private volatile CarStates published;
+    
+    /**
+     * Method, that publishes the current state of the cars. It is called by the simulating thread.
+     * 
+     * @param carStore - store with the cars
+     * @param tick - tick, after which the cars are in this state
+     * @return - filled copy, which can be corrected before it is published with {@link #publish(CarStates)}
+     */
+    public CarStates fill(CarStore carStore, long tick) {
+        CarStates free = null;
+        for (CarStates copy : this.copies) {
+            if (copy != this.published && copy.getReaders().get() == 0) {
+                free = copy;
+                break;
+            }
+        }
+        if (free == null) {
+            free = new CarStates();
+            this.copies.add(free);
+        }
+        free.copy(carStore, tick);
+        return free;
+    }
+    
+    /**
+     * Method, that publishes the filled copy
+     * 
+     * @param states - copy from {@link #fill(CarStore, long)}
+     */
+    public void publish(CarStates states) {
+        this.published = states;
+    }
+    
+    /**
+     * Method, that pins the latest published copy for reading, until it is released
+     * 
+     * @return - latest published copy; null - if nothing has been published
+     */
+    public CarStates acquire() {
+        while (true) {
+            CarStates states = this.published;
+            if (states == null) {
+                return null;
+            }
+            states.getReaders().incrementAndGet();
+            //A copy, that has been replaced meanwhile, may be filled again already
+            if (states == this.published) {
+                return states;
+            }
+            states.getReaders().decrementAndGet();
+        }
+    }
+    
+    /**
+     * Method, that releases the pinned copy
+     * 
+     * @param states - copy from {@link #acquire()}
+     */
+    public static void release(CarStates states) {
+        states.getReaders().decrementAndGet();
+    }
+}
@@ -0,0 +1,137 @@
+package edu.kit.informatik.car;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class, that holds a copy of the state of all cars after one tick, which is published by a
+ * {@link CarStatePublisher}. The copy is filled by the simulating thread and only read after it has been published.
+ * 
+ * @author ubvaa
+ * @version 1.0
+ */
+public final class CarStates {
+    /**
+     * Tick, after which the cars are in this state
+     */
+    private long tick;
+    /**
+     * Amount of cars
+     */
+    private int size;
+    /**
+     * IDs of the cars (by slot)
+     */
+    private int[] ids = new int[0];
+    /**
+     * Street IDs of the cars (by slot)
+     */
+    private int[] streetIDs = new int[0];
+    /**
+     * Speeds of the cars (by slot)
+     */
+    private int[] speeds = new int[0];
+    /**
+     * Positions of the cars (by slot)
+     */
+    private int[] positions = new int[0];
+    /**
+     * Amount of threads, that read the copy at the moment
+     */
+    private final AtomicInteger readers = new AtomicInteger();
+    
+    /**
+     * Method, that copies the state of all cars of the store
+     * 
+     * @param carStore - store with the cars
+     * @param currentTick - tick, after which the cars are in the state
+     */
+    void copy(CarStore carStore, long currentTick) {
+        this.size = carStore.size();
+        if (this.ids.length < this.size) {
+            this.ids = new int[this.size];
+            this.streetIDs = new int[this.size];
+            this.speeds = new int[this.size];
+            this.positions = new int[this.size];
+        }
+        carStore.copyStates(this.ids, this.streetIDs, this.speeds, this.positions);
+        this.tick = currentTick;
+    }
+    
+    /**
+     * Method, that moves the car in the copy, e.g. by the rides of a street in free flow,
+     * whose cars haven't been moved in the store yet. It may only be called before the copy is published.
+     * 
+     * @param slot - slot of the car
+     * @param distance - distance, by which the car is moved
+     */
+    public void move(int slot, int distance) {
+        this.positions[slot] += distance;
+    }
+    
+    /**
+     * Getter for the readers' counter of the copy
+     * 
+     * @return - amount of threads, that read the copy at the moment
+     */
+    AtomicInteger getReaders() {
+        return this.readers;
+    }
+    
+    /**
+     * Getter for the tick of the copy
+     * 
+     * @return - tick, after which the cars are in this state
+     */
+    public long getTick() {
+        return this.tick;
+    }
+    
+    /**
+     * Getter for the amount of cars
+     * 
+     * @return - amount of cars
+     */
+    public int size() {
+        return this.size;
+    }
+    
+    /**
+     * Getter for the ID of the car
+     * 
+     * @param slot - slot of the car
+     * @return - ID of the car
+     */
+    public int getID(int slot) {
+        return this.ids[slot];
+    }
+    
+    /**
+     * Getter for the street ID of the car
+     * 
+     * @param slot - slot of the car
+     * @return - ID of the street of the car
+     */
+    public int getStreetID(int slot) {
+        return this.streetIDs[slot];
+    }
+    
+    /**
+     * Getter for the speed of the car
+     * 
+     * @param slot - slot of the car
+     * @return - speed of the car
+     */
+    public int getSpeed(int slot) {
+        return this.speeds[slot];
+    }
+    
+    /**
+     * Getter for the position of the car
+     * 
+     * @param slot - slot of the car
+     * @return - position of the car
+     */
+    public int getPosition(int slot) {
+        return this.positions[slot];
+    }
+}
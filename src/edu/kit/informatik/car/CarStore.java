@@ -0,0 +1,556 @@
+package edu.kit.informatik.car;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import edu.kit.informatik.crossing.Crossing;
+import edu.kit.informatik.snapshot.SnapshotReader;
+import edu.kit.informatik.snapshot.SnapshotWriter;
+import edu.kit.informatik.street.Street;
+import edu.kit.informatik.util.IntMap;
+
+/**
+ * Class, that holds the state of all cars of one load in parallel primitive arrays.
+ * Each car is identified by its dense slot, the tick loop works on the slots only, 
+ * and {@link Car} objects are thin views over them.
+ * 
+ * The cars of a street in free flow aren't moved in the store until the street leaves the free flow, 
+ * so outside of the ticks the store only holds the current state of a car after 
+ * {@link edu.kit.informatik.street.StreetNetwork#settleCar(int)} or 
+ * {@link edu.kit.informatik.street.StreetNetwork#leaveFreeFlowAll()}.
+ * 
+ * @author ubvaa
+ * @version 1.5
+ */
+public final class CarStore {
+    /**
+     * Amount of the fields of the state of a car, that changes during the ticks
+     */
+    public static final int STATE_FIELDS = 4;
+    /**
+     * Minimal capacity of the store
+     */
+    private static final int MIN_CAPACITY = 16;
+    /**
+     * Maximal possible desired direction
+     */
+    private static final int MAX_DESIRED_DIRECTION = 3;
+    /**
+     * IDs of the cars
+     */
+    private int[] ids;
+    /**
+     * Current street IDs of the cars
+     */
+    private int[] streetIDs;
+    /**
+     * Current positions of the cars
+     */
+    private int[] positions;
+    /**
+     * Current speeds of the cars
+     */
+    private int[] currentSpeeds;
+    /**
+     * Desired speeds of the cars
+     */
+    private int[] desiredSpeeds;
+    /**
+     * Accelerations of the cars
+     */
+    private int[] accelerations;
+    /**
+     * Desired directions of the cars
+     */
+    private int[] desiredDirections;
+    /**
+     * Traveled distances of the cars during the current tick
+     */
+    private int[] traveledDistances;
+    /**
+     * Attributes, that indicate, if the cars are already moved during the tick
+     */
+    private boolean[] alreadyMoved;
+    /**
+     * Amount of cars in the store
+     */
+    private int size;
+    /**
+     * Fingerprint of the state of all cars: XOR of the keys of all cars, while hashing is on
+     */
+    private long stateHash;
+    /**
+     * Attribute, that shows, if the fingerprint is kept up to date
+     */
+    private boolean hashing;
+    /**
+     * Index of the views of all cars (by ID)
+     */
+    private final IntMap<Car> carsIndex = new IntMap<>();
+    
+    /**
+     * Constructor of a new empty store
+     * 
+     * @param expectedSize - expected amount of cars
+     */
+    public CarStore(int expectedSize) {
+        int capacity = Math.max(expectedSize, MIN_CAPACITY);
+        this.ids = new int[capacity];
+        this.streetIDs = new int[capacity];
+        this.positions = new int[capacity];
+        this.currentSpeeds = new int[capacity];
+        this.desiredSpeeds = new int[capacity];
+        this.accelerations = new int[capacity];
+        this.desiredDirections = new int[capacity];
+        this.traveledDistances = new int[capacity];
+        this.alreadyMoved = new boolean[capacity];
+    }
+    
+    /**
+     * Method, that adds a new car to the store
+     * 
+     * @param id - ID of the car
+     * @param streetID - ID of the street, where is the car
+     * @param desiredSpeed - desired speed of the car
+     * @param acceleration - acceleration of the car
+     * @return - slot of the new car
+     */
+    public int add(int id, int streetID, int desiredSpeed, int acceleration) {
+        if (this.size == this.ids.length) {
+            grow();
+        }
+        int slot = this.size;
+        this.ids[slot] = id;
+        this.streetIDs[slot] = streetID;
+        this.desiredSpeeds[slot] = desiredSpeed;
+        this.accelerations[slot] = acceleration;
+        this.size++;
+        this.carsIndex.put(id, new Car(this, slot));
+        return slot;
+    }
+    
+    /**
+     * Getter for the car (by ID)
+     * 
+     * @param id - ID of the car to be found
+     * @return - Car with this ID, if it exists; else - null
+     */
+    public Car getCar(int id) {
+        return this.carsIndex.get(id);
+    }
+    
+    /**
+     * Getter for the amount of cars
+     * 
+     * @return - amount of cars in the store
+     */
+    public int size() {
+        return this.size;
+    }
+    
+    /**
+     * Getter for the ID of the car
+     * 
+     * @param slot - slot of the car
+     * @return - ID of the car
+     */
+    public int getID(int slot) {
+        return this.ids[slot];
+    }
+    
+    /**
+     * Getter for current street ID of the car
+     * 
+     * @param slot - slot of the car
+     * @return - ID of the current street
+     */
+    public int getStreetID(int slot) {
+        return this.streetIDs[slot];
+    }
+    
+    /**
+     * Getter for current position of the car
+     * 
+     * @param slot - slot of the car
+     * @return - current position of the car
+     */
+    public int getPosition(int slot) {
+        return this.positions[slot];
+    }
+    
+    /**
+     * Setter for current position of the car
+     * 
+     * @param slot - slot of the car
+     * @param position - new position of the car
+     */
+    public void setPosition(int slot, int position) {
+        this.positions[slot] = position;
+    }
+    
+    /**
+     * Getter for current speed of the car
+     * 
+     * @param slot - slot of the car
+     * @return - current speed of the car
+     */
+    public int getCurrentSpeed(int slot) {
+        return this.currentSpeeds[slot];
+    }
+    
+    /**
+     * Setter for current speed of the car
+     * 
+     * @param slot - slot of the car
+     * @param speed - new speed of the car
+     */
+    public void setCurrentSpeed(int slot, int speed) {
+        this.currentSpeeds[slot] = speed;
+    }
+    
+    /**
+     * Getter for desired speed of the car
+     * 
+     * @param slot - slot of the car
+     * @return - desired speed of the car
+     */
+    public int getDesiredSpeed(int slot) {
+        return this.desiredSpeeds[slot];
+    }
+    
+    /**
+     * Getter for acceleration of the car
+     * 
+     * @param slot - slot of the car
+     * @return - acceleration of the car
+     */
+    public int getAcceleration(int slot) {
+        return this.accelerations[slot];
+    }
+    
+    /**
+     * Getter for desired direction of the car
+     * 
+     * @param slot - slot of the car
+     * @return - desired direction of the car
+     */
+    public int getDesiredDirection(int slot) {
+        return this.desiredDirections[slot];
+    }
+    
+    /**
+     * Getter for traveled distance of the car
+     * 
+     * @param slot - slot of the car
+     * @return - traveled distance of the car
+     */
+    public int getTraveledDistance(int slot) {
+        return this.traveledDistances[slot];
+    }
+    
+    /**
+     * Setter for traveled distance of the car
+     * 
+     * @param slot - slot of the car
+     * @param distance - new traveled distance
+     */
+    public void setTraveledDistance(int slot, int distance) {
+        this.traveledDistances[slot] = distance;
+    }
+    
+    /**
+     * Method, that writes the state of the car, that changes during the ticks, to the buffer: 
+     * position, current speed, desired direction and traveled distance
+     * 
+     * @param slot - slot of the car
+     * @param buffer - buffer with space for {@link #STATE_FIELDS} fields
+     */
+    public void writeState(int slot, ByteBuffer buffer) {
+        buffer.putInt(this.positions[slot]);
+        buffer.putInt(this.currentSpeeds[slot]);
+        buffer.putInt(this.desiredDirections[slot]);
+        buffer.putInt(this.traveledDistances[slot]);
+    }
+    
+    /**
+     * Method, that takes over the state of the car, that has been written by another replica of the simulation 
+     * with {@link #writeState(int, ByteBuffer)}
+     * 
+     * @param slot - slot of the car
+     * @param streetID - ID of the street of the car
+     * @param buffer - buffer with the state
+     */
+    public void readState(int slot, int streetID, ByteBuffer buffer) {
+        this.streetIDs[slot] = streetID;
+        this.positions[slot] = buffer.getInt();
+        this.currentSpeeds[slot] = buffer.getInt();
+        this.desiredDirections[slot] = buffer.getInt();
+        this.traveledDistances[slot] = buffer.getInt();
+    }
+    
+    /**
+     * Method, that proves, if car has already moved during the simulation/tick
+     * 
+     * @param slot - slot of the car
+     * @return - true, if car has already moved; else - false
+     */
+    public boolean isAlreadyMoved(int slot) {
+        return this.alreadyMoved[slot];
+    }
+    
+    /**
+     * Method, that updates speed of the car at the beginning of each simulation/tick
+     * 
+     * @param slot - slot of the car
+     * @param speedLimit - maximal allowed speed on the current street
+     */
+    public void updateSpeed(int slot, int speedLimit) {
+        this.currentSpeeds[slot] = Math.min(Math.min(this.desiredSpeeds[slot], 
+                this.currentSpeeds[slot] + this.accelerations[slot]), speedLimit);
+    }
+    
+    /**
+     * Method, that proves, if the car would pass the end of the street with its speed of the next tick
+     * 
+     * @param slot - slot of the car
+     * @param speedLimit - maximal allowed speed on the current street
+     * @param streetLength - length of the current street
+     * @return - true, if the car reaches the crossing; else - false
+     */
+    public boolean reachesStreetEnd(int slot, int speedLimit, int streetLength) {
+        int speed = Math.min(Math.min(this.desiredSpeeds[slot], 
+                this.currentSpeeds[slot] + this.accelerations[slot]), speedLimit);
+        return this.positions[slot] + speed > streetLength;
+    }
+    
+    /**
+     * Method, that implements overtaking of the car
+     * 
+     * @param slot - slot of the car
+     * @param distance - distance, that the car can travel
+     * @param nextCarPosition - position of the car in front of the overtaken car
+     */
+    public void overtake(int slot, int distance, int nextCarPosition) {
+        int postOvertakePosition = this.positions[slot] + 2 * Street.getMinDistance();
+        int distanceLeft = distance - 2 * Street.getMinDistance();
+        int endingPosition;
+        
+        if (postOvertakePosition + distanceLeft >= nextCarPosition - Street.getMinDistance()) {
+            endingPosition = nextCarPosition - Street.getMinDistance();
+        } else {
+            endingPosition = postOvertakePosition + distanceLeft;
+        }
+        
+        this.positions[slot] = endingPosition;
+    }
+    
+    /**
+     * Method, that implements turning of the car at crossing
+     * 
+     * @param slot - slot of the car
+     * @param oldStreet - street, that the car leaves
+     * @param crossing - crossing, where the turn takes place
+     * @param distance - distance, that the car can travel
+     */
+    public void turn(int slot, Street oldStreet, Crossing crossing, int distance) {
+        int oldStreetLength = oldStreet.getLength();
+        this.traveledDistances[slot] = oldStreetLength - this.positions[slot];
+        int distanceLeft = distance - oldStreetLength;
+        
+        Street desiredStreet = crossing.getTurnTarget(this.streetIDs[slot], this.desiredDirections[slot]);
+        
+        int newPosition = 0;
+        
+        if (desiredStreet.isFree()) {
+            int streetLength = desiredStreet.getLength();
+            newPosition = distanceLeft > streetLength ? streetLength : distanceLeft;
+        } else {
+            int lastCarPosition = desiredStreet.getLastCarPosition();
+            
+            if (lastCarPosition - Street.getMinDistance() < distanceLeft) {
+                newPosition = lastCarPosition - Street.getMinDistance();
+            } else {
+                newPosition = distanceLeft;
+            }
+        }
+        
+        //The desired street leaves its free flow, before the car enters it
+        desiredStreet.wake();
+        desiredStreet.addCar(slot);
+        oldStreet.removeCar(slot);
+        oldStreet.wake();
+
+        this.traveledDistances[slot] += newPosition;
+        this.positions[slot] = newPosition;
+        this.desiredDirections[slot]++;
+        this.streetIDs[slot] = desiredStreet.getID();
+        this.alreadyMoved[slot] = true;
+    }
+    
+    /**
+     * Method, that turns on keeping the fingerprint of the state of all cars up to date. 
+     * While it is on, every change of a car must be reported with {@link #updateHash(long)}.
+     */
+    public void startHashing() {
+        this.stateHash = 0;
+        for (int slot = 0; slot < this.size; slot++) {
+            this.stateHash ^= getKey(slot);
+        }
+        this.hashing = true;
+    }
+    
+    /**
+     * Method, that turns off keeping the fingerprint up to date
+     */
+    public void stopHashing() {
+        this.hashing = false;
+    }
+    
+    /**
+     * Method, that shows, if the fingerprint is kept up to date
+     * 
+     * @return - true - if yes; else - false
+     */
+    public boolean isHashing() {
+        return this.hashing;
+    }
+    
+    /**
+     * Getter for the fingerprint of the state of all cars
+     * 
+     * @return - fingerprint of the state
+     */
+    public long getStateHash() {
+        return this.stateHash;
+    }
+    
+    /**
+     * Method, that computes the key of the car from its current state
+     * 
+     * @param slot - slot of the car
+     * @return - key of the car
+     */
+    public long getKey(int slot) {
+        return getKey(slot, this.streetIDs[slot], this.positions[slot], this.currentSpeeds[slot], 
+                this.desiredDirections[slot]);
+    }
+    
+    /**
+     * Method, that computes the key of the car from its street, position, speed and desired direction. 
+     * The desired direction is taken modulo 4, since it is wrapped after each tick.
+     * 
+     * @param slot - slot of the car
+     * @param streetID - ID of the street of the car
+     * @param position - position of the car
+     * @param speed - current speed of the car
+     * @param direction - desired direction of the car
+     * @return - key of the car
+     */
+    public static long getKey(int slot, int streetID, int position, int speed, int direction) {
+        long state = (long) streetID << 32 ^ (long) position << 12 ^ (long) speed << 4 
+                ^ (direction & MAX_DESIRED_DIRECTION);
+        long key = (state ^ slot * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        return key ^ (key >>> 31);
+    }
+    
+    /**
+     * Method, that applies changed keys to the fingerprint
+     * 
+     * @param keysChange - XOR of the old and new keys of the changed cars
+     */
+    public void updateHash(long keysChange) {
+        this.stateHash ^= keysChange;
+    }
+    
+    /**
+     * Method, that copies the published state of all cars into the arrays
+     * 
+     * @param targetIDs - array for the IDs of the cars
+     * @param targetStreetIDs - array for the street IDs of the cars
+     * @param targetSpeeds - array for the speeds of the cars
+     * @param targetPositions - array for the positions of the cars
+     */
+    void copyStates(int[] targetIDs, int[] targetStreetIDs, int[] targetSpeeds, int[] targetPositions) {
+        System.arraycopy(this.ids, 0, targetIDs, 0, this.size);
+        System.arraycopy(this.streetIDs, 0, targetStreetIDs, 0, this.size);
+        System.arraycopy(this.currentSpeeds, 0, targetSpeeds, 0, this.size);
+        System.arraycopy(this.positions, 0, targetPositions, 0, this.size);
+    }
+    
+    /**
+     * Method, that updates all cars after the simulation/tick
+     */
+    public void updateCars() {
+        for (int slot = 0; slot < this.size; slot++) {
+            this.alreadyMoved[slot] = false;
+            if (this.desiredDirections[slot] > MAX_DESIRED_DIRECTION) {
+                this.desiredDirections[slot] = 0;
+            }
+        }
+    }
+    
+    /**
+     * Method, that writes the state of all cars to the snapshot, one bulk block for each attribute
+     * 
+     * @param writer - writer of the snapshot
+     */
+    public void write(SnapshotWriter writer) {
+        writer.putInt(this.size);
+        writer.putInts(this.ids, this.size);
+        writer.putInts(this.streetIDs, this.size);
+        writer.putInts(this.positions, this.size);
+        writer.putInts(this.currentSpeeds, this.size);
+        writer.putInts(this.desiredSpeeds, this.size);
+        writer.putInts(this.accelerations, this.size);
+        writer.putInts(this.desiredDirections, this.size);
+        writer.putInts(this.traveledDistances, this.size);
+        writer.putBooleans(this.alreadyMoved, this.size);
+    }
+    
+    /**
+     * Method, that reads the state of all cars from the snapshot into a new store. 
+     * The IDs of the cars must be unique, their streets are checked by the street network.
+     * 
+     * @param reader - reader of the snapshot
+     * @return - store with the state of all cars
+     * @throws IOException if the snapshot is corrupted
+     */
+    public static CarStore read(SnapshotReader reader) throws IOException {
+        int amount = reader.getAmount(reader.remaining() / Integer.BYTES);
+        CarStore carStore = new CarStore(amount);
+        reader.getInts(carStore.ids, amount);
+        reader.getInts(carStore.streetIDs, amount);
+        reader.getInts(carStore.positions, amount);
+        reader.getInts(carStore.currentSpeeds, amount);
+        reader.getInts(carStore.desiredSpeeds, amount);
+        reader.getInts(carStore.accelerations, amount);
+        reader.getInts(carStore.desiredDirections, amount);
+        reader.getInts(carStore.traveledDistances, amount);
+        reader.getBooleans(carStore.alreadyMoved, amount);
+        carStore.size = amount;
+        for (int slot = 0; slot < amount; slot++) {
+            if (carStore.ids[slot] < 0 || carStore.carsIndex.get(carStore.ids[slot]) != null) {
+                throw new IOException("snapshot is corrupted");
+            }
+            carStore.carsIndex.put(carStore.ids[slot], new Car(carStore, slot));
+        }
+        return carStore;
+    }
+    
+    /**
+     * Method, that doubles capacity of the store
+     */
+    private void grow() {
+        int capacity = this.ids.length * 2;
+        this.ids = Arrays.copyOf(this.ids, capacity);
+        this.streetIDs = Arrays.copyOf(this.streetIDs, capacity);
+        this.positions = Arrays.copyOf(this.positions, capacity);
+        this.currentSpeeds = Arrays.copyOf(this.currentSpeeds, capacity);
+        this.desiredSpeeds = Arrays.copyOf(this.desiredSpeeds, capacity);
+        this.accelerations = Arrays.copyOf(this.accelerations, capacity);
+        this.desiredDirections = Arrays.copyOf(this.desiredDirections, capacity);
+        this.traveledDistances = Arrays.copyOf(this.traveledDistances, capacity);
+        this.alreadyMoved = Arrays.copyOf(this.alreadyMoved, capacity);
+    }
+}
@@ -1,6 +1,7 @@
 package edu.kit.informatik.car;
 
 import edu.kit.informatik.crossing.Crossing;
+import edu.kit.informatik.street.Street;
 
 /**
  * Interface for class Car of the program
@@ -98,14 +99,16 @@ public interface ICar {
      * Method, that implements overtaking of the car
      * 
      * @param distance - distance, that the car can travel
+     * @param nextCarPosition - position of the car in front of the overtaken car
      */
-    void overtake(int distance);
+    void overtake(int distance, int nextCarPosition);
     
     /**
      * Method, that implements turning of the car at crossing
      * 
+     * @param street - street, that the car leaves
      * @param crossing - crossing, where the turn takes place
      * @param distance - distance, that the car can travel
      */
-    void turn(Crossing crossing, int distance);
+    void turn(Street street, Crossing crossing, int distance);
 }
@@ -1,21 +1,21 @@
 package edu.kit.informatik.crossing;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
-import edu.kit.informatik.car.Car;
 import edu.kit.informatik.main.Main;
 import edu.kit.informatik.main.ReadWrite;
+import edu.kit.informatik.snapshot.SnapshotReader;
+import edu.kit.informatik.snapshot.SnapshotWriter;
 import edu.kit.informatik.street.Street;
+import edu.kit.informatik.street.StreetNetwork;
 
 /**
  * Class, that implements all crossing of the program.
  * 
  * @author ubvaa
- * @version 1.2
+ * @version 1.5
  */
 public class Crossing implements ICrossing {
     /**
@@ -44,17 +44,17 @@ public class Crossing implements ICrossing {
      */
     private static final int MAX_STREETS = 4;
     /**
-     * List of all crossings of the latest correct load
+     * Network, to which the crossing belongs
      */
-    private static List<Crossing> crossings;
-    /**
-     * List of inspected crossings
-     */
-    private static List<Crossing> inspectedCrossings;
+    private final CrossingNetwork network;
     /**
      * ID of the crossing
      */
     private int id;
+    /**
+     * Index of the crossing in the routing table
+     */
+    private int index;
     /**
      * Type of the crossing
      */
@@ -64,13 +64,10 @@ public class Crossing implements ICrossing {
      */
     private int greenTime;
     /**
-     * Current time of the crossing
+     * Ticks of the traffic light cycle, that have already passed at tick 0. 
+     * The light state of every tick is derived from it, so it isn't counted down.
      */
-    private int currentTime;
-    /**
-     * ID of the incoming street with green light
-     */
-    private int greenID;
+    private int phaseOffset;
     /**
      * List of all incoming streets of the crossing
      */
@@ -83,53 +80,24 @@ public class Crossing implements ICrossing {
     /**
      * Crossing constructor
      * 
+     * @param network - network, to which the crossing belongs
      * @param id - ID of the crossing
      * @param greenTime - greenTime of the crossing
      */
-    public Crossing(int id, int greenTime) {
+    public Crossing(CrossingNetwork network, int id, int greenTime) {
+        this.network = network;
         this.id = id;
         this.greenTime = greenTime;
         if (greenTime == 0) {
             this.type = CrossingType.ROUNDABOUT;
         } else {
             this.type = CrossingType.CROSSROAD;
-            this.greenID = 0;
-            this.currentTime = greenTime;
+            this.phaseOffset = 0;
         }
         this.incomingStreets = new ArrayList<>();
         this.outgoingStreets = new ArrayList<>();
     }
     
-    /**
-     * Getter for inspected crossing (by ID)
-     * 
-     * @param id - ID of the crossing
-     * @return - inspected crossing with this ID, if it exists; else - null
-     */
-    public static Crossing getInspectedCrossing(int id) {
-        for (Crossing crossing : inspectedCrossings) {
-            if (crossing.id == id) {
-                return crossing;
-            }
-        }
-        return null;
-    }
-    
-    /**
-     * Getter for simulation crossing (by ID)
-     * 
-     * @param id - ID of the crossing
-     * @return - crossing with this ID, if it exists; else - null
-     */
-    public static Crossing getCrossing(int id) {
-        for (Crossing crossing : crossings) {
-            if (crossing.id == id) {
-                return crossing;
-            }
-        }
-        return null;
-    }
-    
     @Override
     public int getID() {
         return this.id;
@@ -140,101 +108,242 @@ public class Crossing implements ICrossing {
         return this.outgoingStreets;
     }
     
+    @Override
+    public List<Street> getIncomingStreets() {
+        return this.incomingStreets;
+    }
+    
     @Override
     public void addIncomingStreet(Street street) {
         this.incomingStreets.add(street);
+        street.setEndingCrossing(this);
     }
     
     @Override
     public void addOutgoingStreet(Street street) {
         this.outgoingStreets.add(street);
+        street.setStartCrossing(this);
     }
     
     /**
-     * Method, that checks the input crossings' file for correctness.
+     * Method, that checks, if the green light time is allowed: 0 for a roundabout or a time of a crossroad
      * 
-     * @param crossingsList - list of the crossings from the file
-     * @return - true - if everything is correct; else - false
+     * @param greenTime - green light time of the crossing
+     * @return - true - if it is allowed; else - false
      */
-    public static boolean checkInput(List<String> crossingsList) { 
-        inspectedCrossings = new ArrayList<>();
-        Set<Integer> idSet = new HashSet<>();
-        boolean isCorrect = true;
-        for (String line : crossingsList) {
-            try {
-                int id = Integer.valueOf(line.substring(0, line.indexOf(Main.COLON)));
-                int greenTime = Integer.valueOf(line.substring(line.indexOf(Main.COLON) + 1, line.indexOf(Main.TICK)));
-                if (id < 0) {
-                    ReadWrite.writeError(Main.INVALID_ID);
-                    isCorrect = false;
-                    break;
-                } else if (greenTime > MAX_GREEN_TIME || (greenTime < MIN_GREEN_TIME && greenTime != 0)) {
-                    ReadWrite.writeError(Main.CROSSING + String.valueOf(id) + Main.INVALID_GREEN_TIME);
-                    isCorrect = false;
-                    break;
-                } else if (!idSet.add(id)) {
-                    ReadWrite.writeError(Main.REPEATED_ID);
-                    isCorrect = false;
-                    break;
-                }
-                
-                inspectedCrossings.add(new Crossing(id, greenTime));
-            } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
-                ReadWrite.writeError(Main.INVALID_CROSSING);
-                isCorrect = false;
-                break;
-            }
-        }
-        
-        return isCorrect;
+    static boolean isGreenTimeValid(int greenTime) {
+        return greenTime == 0 || greenTime >= MIN_GREEN_TIME && greenTime <= MAX_GREEN_TIME;
     }
     
     /**
-     * Method, that checks, if all crossings have the correct amount of incoming and outgoing streets
+     * Method, that checks, if the crossing has the correct amount of incoming and outgoing streets
      * 
      * @return - true - if amount is correct; else - false
      */
-    public static boolean checkStreets() {
-        boolean isCorrect = true;
-        Collections.sort(inspectedCrossings, new CrossingsComparator());
-        for (Crossing crossing : inspectedCrossings) {
-            int incomingAmount = crossing.incomingStreets.size();
-            int outgoingAmount = crossing.outgoingStreets.size();
-            if (incomingAmount > MAX_STREETS || incomingAmount < MIN_STREETS) {
-                ReadWrite.writeError(Main.CROSSING + crossing.id + Main.INVALID_INCOMING_AMOUNT);
-                isCorrect = false;
-                break;
-            } else if (outgoingAmount > MAX_STREETS || outgoingAmount < MIN_STREETS) {
-                ReadWrite.writeError(Main.CROSSING + crossing.id + Main.INVALID_OUTGOING_AMOUNT);
-                isCorrect = false;
-                break;
-            }
+    boolean checkStreets() {
+        int incomingAmount = this.incomingStreets.size();
+        int outgoingAmount = this.outgoingStreets.size();
+        if (incomingAmount > MAX_STREETS || incomingAmount < MIN_STREETS) {
+            ReadWrite.writeError(Main.CROSSING + this.id + Main.INVALID_INCOMING_AMOUNT);
+            return false;
+        } else if (outgoingAmount > MAX_STREETS || outgoingAmount < MIN_STREETS) {
+            ReadWrite.writeError(Main.CROSSING + this.id + Main.INVALID_OUTGOING_AMOUNT);
+            return false;
         }
-        
-        return isCorrect;
+        return true;
+    }
+    
+    /**
+     * Setter for the index of the crossing in the routing table
+     * 
+     * @param index - index of the crossing
+     */
+    void setIndex(int index) {
+        this.index = index;
     }
     
     /**
-     * Method, that copies inspected (temporary) crossings to the session's crossings' list
+     * Getter for the index of the crossing in the routing table, the crossings are sorted by their IDs
+     * 
+     * @return - index of the crossing
      */
-    public static void copyInspectedCrossings() {
-        crossings = new ArrayList<>(inspectedCrossings.size());
-        for (Crossing crossing : inspectedCrossings) {
-            crossings.add(crossing);
+    public int getIndex() {
+        return this.index;
+    }
+    
+    /**
+     * Getter for the amount of ticks, after which the traffic light is in the same state again
+     * 
+     * @return - length of the traffic light cycle; 1 - for a roundabout
+     */
+    long getLightsCycle() {
+        if (this.type.equals(CrossingType.ROUNDABOUT)) {
+            return 1;
         }
+        return (long) this.greenTime * this.network.getRoutes().getIncomingAmount(this.index);
     }
     
-    @Override
-    public boolean turnAllowed(Car car) {
-        int desiredDirection = car.getDesiredDirection();
-        int currentStreetID = this.incomingStreets.indexOf(Street.getStreet(car.getStreetID()));
-        if (this.outgoingStreets.size() < desiredDirection + 1) {
-            desiredDirection = 0;
+    /**
+     * Method, that gets the position in the traffic light cycle during the current tick
+     * 
+     * @return - ticks since the beginning of the cycle
+     */
+    private long getPhase() {
+        return this.network.getTick() + this.phaseOffset;
+    }
+    
+    /**
+     * Getter for the index of the incoming street with green light during the current tick. 
+     * Green light switches to the next incoming street every green time ticks.
+     * 
+     * @return - index of the incoming street with green light
+     */
+    private int getGreenID() {
+        return (int) (getPhase() / this.greenTime % this.network.getRoutes().getIncomingAmount(this.index));
+    }
+    
+    /**
+     * Getter for the ticks, until green light switches to the next incoming street, including the current tick
+     * 
+     * @return - current time of the crossing
+     */
+    private int getCurrentTime() {
+        return this.greenTime - (int) (getPhase() % this.greenTime);
+    }
+    
+    /**
+     * Method, that sets the light state of the first tick after the crossing has been loaded
+     * 
+     * @param currentTime - ticks, until green light switches, including the first tick
+     * @param greenID - index of the incoming street with green light
+     */
+    private void setInitialLightState(int currentTime, int greenID) {
+        long cycle = (long) this.greenTime * this.incomingStreets.size();
+        long phase = (long) greenID * this.greenTime + this.greenTime - currentTime;
+        this.phaseOffset = (int) Math.floorMod(phase, cycle);
+    }
+    
+    /**
+     * Method, that schedules the street to be activated, when green light of the crossing switches next time. 
+     * Streets, whose first car waits at a roundabout or at a crossroad with one incoming street, 
+     * aren't scheduled, since nothing changes there. A street is scheduled only once for the same switch, 
+     * so the schedule doesn't grow, if the street is woken and stalls again before.
+     * 
+     * @param street - incoming street, that has stalled
+     */
+    public void scheduleWake(Street street) {
+        if (this.type.equals(CrossingType.ROUNDABOUT) 
+                || this.network.getRoutes().getIncomingAmount(this.index) == 1) {
+            return;
         }
+        this.network.scheduleWake(street, this.network.getTick() + getCurrentTime());
+    }
+    
+    /**
+     * Method, that writes the crossing with its traffic light state to the snapshot
+     *
+     * @param writer - writer of the snapshot
+     */
+    void saveState(SnapshotWriter writer) {
+        writer.putInt(this.id);
+        writer.putInt(this.greenTime);
+        if (this.type.equals(CrossingType.ROUNDABOUT)) {
+            writer.putInt(0);
+            writer.putInt(0);
+        } else {
+            writer.putInt(getCurrentTime());
+            writer.putInt(getGreenID());
+        }
+        writer.putInt(this.incomingStreets.size());
+        for (Street street : this.incomingStreets) {
+            writer.putInt(street.getID());
+        }
+        writer.putInt(this.outgoingStreets.size());
+        for (Street street : this.outgoingStreets) {
+            writer.putInt(street.getID());
+        }
+    }
+
+    /**
+     * Method, that reads the next crossing of the snapshot.
+     * The streets of the snapshot must be restored before. The crossing must have a valid ID and green time, 
+     * a valid light state and between {@value #MIN_STREETS} and {@value #MAX_STREETS} incoming 
+     * and outgoing streets.
+     *
+     * @param network - network, to which the crossing belongs
+     * @param reader - reader of the snapshot
+     * @param streets - streets of the snapshot
+     * @return - read crossing
+     * @throws IOException if the snapshot is corrupted
+     */
+    static Crossing restoreState(CrossingNetwork network, SnapshotReader reader, StreetNetwork streets) 
+            throws IOException {
+        int id = reader.getInt();
+        int greenTime = reader.getInt();
+        if (id < 0 || !isGreenTimeValid(greenTime)) {
+            throw new IOException("snapshot is corrupted");
+        }
+        Crossing crossing = new Crossing(network, id, greenTime);
+        int currentTime = reader.getInt();
+        int greenID = reader.getInt();
+        int incomingAmount = reader.getAmount(MAX_STREETS);
+        if (incomingAmount < MIN_STREETS) {
+            throw new IOException("snapshot is corrupted");
+        }
+        for (int j = 0; j < incomingAmount; j++) {
+            crossing.addIncomingStreet(restoreStreet(streets, reader.getInt()));
+        }
+        if (crossing.type.equals(CrossingType.CROSSROAD)) {
+            if (currentTime < 1 || currentTime > greenTime || greenID < 0 || greenID >= incomingAmount) {
+                throw new IOException("snapshot is corrupted");
+            }
+            crossing.setInitialLightState(currentTime, greenID);
+        }
+        int outgoingAmount = reader.getAmount(MAX_STREETS);
+        if (outgoingAmount < MIN_STREETS) {
+            throw new IOException("snapshot is corrupted");
+        }
+        for (int j = 0; j < outgoingAmount; j++) {
+            crossing.addOutgoingStreet(restoreStreet(streets, reader.getInt()));
+        }
+        return crossing;
+    }
+
+    /**
+     * Helping method, that finds the street of a crossing in the snapshot
+     *
+     * @param streets - restored streets
+     * @param id - ID of the street
+     * @return - street with this ID
+     * @throws IOException if the street doesn't exist
+     */
+    private static Street restoreStreet(StreetNetwork streets, int id) throws IOException {
+        Street street = streets.getStreet(id);
+        if (street == null) {
+            throw new IOException("snapshot is corrupted");
+        }
+        return street;
+    }
+
+    /**
+     * Getter for the street, into which a car turns at the end of its street. 
+     * If there is no outgoing street in the desired direction, the car takes the first one.
+     * 
+     * @param streetID - ID of the current street of the car
+     * @param carDesiredDirection - desired direction of the car
+     * @return - street, into which the car turns
+     */
+    @Override
+    public Street getTurnTarget(int streetID, int carDesiredDirection) {
+        return this.network.getStreet(this.network.getRoutes().getTarget(streetID, carDesiredDirection));
+    }
+    
+    @Override
+    public boolean turnAllowed(int streetID, int carDesiredDirection) {
+        Street desiredStreet = getTurnTarget(streetID, carDesiredDirection);
         
-        Street desiredStreet = this.outgoingStreets.get(desiredDirection);
-        
-        if (this.type.equals(CrossingType.CROSSROAD) && this.greenID != currentStreetID) {
+        if (this.type.equals(CrossingType.CROSSROAD) 
+                && getGreenID() != this.network.getRoutes().getIncomingIndex(streetID)) {
             return false;
         } else if (desiredStreet.isFull()) {
             return false;
@@ -244,28 +353,5 @@ public class Crossing implements ICrossing {
         
         return true;
     }
-    
-    /**
-     * Method, that updates crossings.
-     * It decreases their current time and if current time equals 0,
-     * then it switches greenID to the next incoming street.
-     */
-    public static void updateCrossings() {
-        for (Crossing crossing : crossings) {
-            if (crossing.type.equals(CrossingType.ROUNDABOUT)) {
-                continue;
-            }
-            
-            crossing.currentTime--;
-            
-            if (crossing.currentTime == 0) {
-                crossing.greenID++;
-                if (crossing.incomingStreets.size() < crossing.greenID + 1) {
-                    crossing.greenID = 0;
-                }
-                crossing.currentTime = crossing.greenTime;
-            }
-        }
-    }
 
 }
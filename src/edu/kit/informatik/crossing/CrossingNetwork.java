@@ -0,0 +1,319 @@
+package edu.kit.informatik.crossing;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import edu.kit.informatik.main.Main;
+import edu.kit.informatik.main.ReadWrite;
+import edu.kit.informatik.snapshot.SnapshotReader;
+import edu.kit.informatik.snapshot.SnapshotWriter;
+import edu.kit.informatik.street.Street;
+import edu.kit.informatik.street.StreetNetwork;
+import edu.kit.informatik.util.IntMap;
+import edu.kit.kastel.trafficsimulation.io.SimulationSource;
+
+/**
+ * Class, that holds all crossings of one simulation with their routing table,
+ * the tick counter and the schedule of the green light switches.
+ * A new network is checked, while the network of the latest correct load is still simulated.
+ * 
+ * @author ubvaa
+ * @version 1.4
+ */
+public class CrossingNetwork {
+    /**
+     * Amount of ticks, that the wake schedule can look ahead; it is a power of two above the maximal green time
+     */
+    private static final int WAKE_SCHEDULE_SIZE = 16;
+    /**
+     * List of all crossings, sorted by ID after the streets have been checked
+     */
+    private final List<Crossing> crossings = new ArrayList<>();
+    /**
+     * Index of all crossings (by ID)
+     */
+    private final IntMap<Crossing> crossingsIndex = new IntMap<>();
+    /**
+     * Streets of the simulation, null - until the network is compiled
+     */
+    private StreetNetwork streets;
+    /**
+     * Routing table of the crossings, null - until the network is compiled
+     */
+    private RoutingTable routes;
+    /**
+     * Amount of ticks, after which all traffic lights are in the same state again; 
+     * 0 - if it is too long for a long, so the traffic lights have no common cycle
+     */
+    private long lightsCycle;
+    /**
+     * Amount of ticks, that have been simulated since the network has been compiled
+     */
+    private long tick;
+    /**
+     * Streets, that wait for the next green light switch of their crossing, by the tick of the switch
+     */
+    private List<List<Street>> wakeSchedule = new ArrayList<>();
+    /**
+     * Tick of the scheduled wake of each street (by ID), -1 - if no wake is scheduled
+     */
+    private long[] scheduledWakes = new long[0];
+    
+    /**
+     * Getter for the crossing (by ID)
+     * 
+     * @param id - ID of the crossing
+     * @return - crossing with this ID, if it exists; else - null
+     */
+    public Crossing getCrossing(int id) {
+        return this.crossingsIndex.get(id);
+    }
+    
+    /**
+     * Getter for the amount of crossings
+     * 
+     * @return - amount of crossings
+     */
+    public int size() {
+        return this.crossings.size();
+    }
+    
+    /**
+     * Method, that checks the input crossings' file for correctness.
+     * 
+     * @param source - source of the simulation files' records
+     * @return - true - if everything is correct; else - false
+     * @throws IOException if the file can't be read
+     */
+    public boolean checkInput(SimulationSource source) throws IOException {
+        return source.readCrossings(this::checkCrossing);
+    }
+    
+    /**
+     * Method, that checks one crossing of the input file and adds it to the network, if it is correct.
+     * 
+     * @param fields - ID and green light time of the crossing; null - if the line has the wrong format
+     * @return - true - if the crossing is correct; else - false
+     */
+    private boolean checkCrossing(int[] fields) {
+        if (fields == null) {
+            ReadWrite.writeError(Main.INVALID_CROSSING);
+            return false;
+        }
+        int id = fields[0];
+        int greenTime = fields[1];
+        if (id < 0) {
+            ReadWrite.writeError(Main.INVALID_ID);
+            return false;
+        } else if (!Crossing.isGreenTimeValid(greenTime)) {
+            ReadWrite.writeError(Main.CROSSING + String.valueOf(id) + Main.INVALID_GREEN_TIME);
+            return false;
+        } else if (this.crossingsIndex.containsKey(id)) {
+            ReadWrite.writeError(Main.REPEATED_ID);
+            return false;
+        }
+        
+        addCrossing(new Crossing(this, id, greenTime));
+        return true;
+    }
+    
+    /**
+     * Method, that adds the checked crossing to the network
+     * 
+     * @param crossing - crossing to be added
+     */
+    private void addCrossing(Crossing crossing) {
+        this.crossings.add(crossing);
+        this.crossingsIndex.put(crossing.getID(), crossing);
+    }
+    
+    /**
+     * Method, that checks, if all crossings have the correct amount of incoming and outgoing streets
+     * 
+     * @return - true - if amount is correct; else - false
+     */
+    public boolean checkStreets() {
+        Collections.sort(this.crossings, new CrossingsComparator());
+        for (Crossing crossing : this.crossings) {
+            if (!crossing.checkStreets()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Method, that compiles the routing table of the checked crossings and resets the tick counter,
+     * so the network can be simulated
+     * 
+     * @param streets - streets of the simulation
+     */
+    public void compile(StreetNetwork streets) {
+        this.streets = streets;
+        for (int index = 0; index < this.crossings.size(); index++) {
+            this.crossings.get(index).setIndex(index);
+        }
+        this.routes = new RoutingTable(this.crossings);
+        this.lightsCycle = 1;
+        for (Crossing crossing : this.crossings) {
+            long cycle = crossing.getLightsCycle();
+            try {
+                this.lightsCycle = Math.multiplyExact(this.lightsCycle / gcd(this.lightsCycle, cycle), cycle);
+            } catch (ArithmeticException e) {
+                this.lightsCycle = 0;
+                break;
+            }
+        }
+        this.tick = 0;
+        //Each street is scheduled at most once, so the lists never grow during the ticks
+        this.wakeSchedule = new ArrayList<>(WAKE_SCHEDULE_SIZE);
+        for (int i = 0; i < WAKE_SCHEDULE_SIZE; i++) {
+            this.wakeSchedule.add(new ArrayList<>(this.routes.getStreetsAmount()));
+        }
+        this.scheduledWakes = new long[this.routes.getStreetsAmount()];
+        Arrays.fill(this.scheduledWakes, -1);
+    }
+    
+    /**
+     * Method, that gets the greatest common divisor of two numbers
+     * 
+     * @param first - first number
+     * @param second - second number
+     * @return - greatest common divisor
+     */
+    private static long gcd(long first, long second) {
+        return second == 0 ? first : gcd(second, first % second);
+    }
+    
+    /**
+     * Getter for the routing table
+     * 
+     * @return - routing table of the crossings
+     */
+    RoutingTable getRoutes() {
+        return this.routes;
+    }
+    
+    /**
+     * Getter for the street (by ID)
+     * 
+     * @param id - ID of the street
+     * @return - street with this ID
+     */
+    Street getStreet(int id) {
+        return this.streets.getStreet(id);
+    }
+    
+    /**
+     * Getter for the tick counter
+     * 
+     * @return - amount of ticks, that have been simulated since the network has been compiled
+     */
+    public long getTick() {
+        return this.tick;
+    }
+    
+    /**
+     * Getter for the state of all traffic lights during the current tick
+     * 
+     * @return - position of the current tick in the common cycle of all traffic lights; 
+     *           the tick - if the traffic lights have no common cycle, so the state never repeats
+     */
+    public long getLightsPhase() {
+        if (this.lightsCycle == 0) {
+            return this.tick;
+        }
+        return this.tick % this.lightsCycle;
+    }
+    
+    /**
+     * Method, that jumps over ticks, in which no car changes its state at the end, e.g. whole cycles of the cars.
+     * The traffic lights follow the tick counter, and all streets are activated,
+     * since the scheduled wakes don't fit the new tick.
+     * 
+     * @param ticksAmount - amount of the skipped ticks
+     */
+    public void skipTicks(long ticksAmount) {
+        this.streets.activateAll();
+        this.tick += ticksAmount;
+        for (List<Street> streetsToWake : this.wakeSchedule) {
+            streetsToWake.clear();
+        }
+        Arrays.fill(this.scheduledWakes, -1);
+    }
+    
+    /**
+     * Method, that schedules the street to be activated in the tick of a green light switch.
+     * A street is scheduled only once for the same switch, so the schedule doesn't grow,
+     * if the street is woken and stalls again before.
+     * 
+     * @param street - street to be activated
+     * @param switchTick - tick of the green light switch
+     */
+    void scheduleWake(Street street, long switchTick) {
+        if (this.scheduledWakes[street.getID()] == switchTick) {
+            return;
+        }
+        this.scheduledWakes[street.getID()] = switchTick;
+        this.wakeSchedule.get((int) (switchTick % WAKE_SCHEDULE_SIZE)).add(street);
+    }
+    
+    /**
+     * Method, that writes all crossings with their traffic light state to the snapshot
+     * 
+     * @param writer - writer of the snapshot
+     */
+    public void saveState(SnapshotWriter writer) {
+        writer.putInt(this.crossings.size());
+        for (Crossing crossing : this.crossings) {
+            crossing.saveState(writer);
+        }
+    }
+    
+    /**
+     * Method, that reads all crossings of the snapshot into the network.
+     * The streets of the snapshot must be restored before. The IDs of the crossings must be unique, 
+     * and every street must be listed exactly once as an incoming street, at its ending crossing, 
+     * and exactly once as an outgoing street, at another crossing.
+     * 
+     * @param reader - reader of the snapshot
+     * @param restoredStreets - streets of the snapshot
+     * @throws IOException if the snapshot is corrupted
+     */
+    public void restoreState(SnapshotReader reader, StreetNetwork restoredStreets) throws IOException {
+        int amount = reader.getAmount(reader.remaining());
+        int incomingAmount = 0;
+        int outgoingAmount = 0;
+        for (int i = 0; i < amount; i++) {
+            Crossing crossing = Crossing.restoreState(this, reader, restoredStreets);
+            if (this.crossingsIndex.containsKey(crossing.getID())) {
+                throw new IOException("snapshot is corrupted");
+            }
+            incomingAmount += crossing.getIncomingStreets().size();
+            outgoingAmount += crossing.getOutgoingStreets().size();
+            addCrossing(crossing);
+        }
+        //Together with the crossings of every street the amounts show, that no street is listed twice
+        if (incomingAmount != restoredStreets.size() || outgoingAmount != restoredStreets.size()) {
+            throw new IOException("snapshot is corrupted");
+        }
+        restoredStreets.checkRestoredCrossings();
+    }
+    
+    /**
+     * Method, that updates crossings after every tick.
+     * The light state follows from the tick counter, so only the streets,
+     * which wait for a green light switch in the new tick, are activated.
+     */
+    public void updateCrossings() {
+        this.tick++;
+        List<Street> streetsToWake = this.wakeSchedule.get((int) (this.tick % WAKE_SCHEDULE_SIZE));
+        for (int index = 0; index < streetsToWake.size(); index++) {
+            streetsToWake.get(index).activate();
+        }
+        streetsToWake.clear();
+    }
+}
@@ -2,7 +2,6 @@ package edu.kit.informatik.crossing;
 
 import java.util.List;
 
-import edu.kit.informatik.car.Car;
 import edu.kit.informatik.street.Street;
 
 /**
@@ -26,6 +25,13 @@ public interface ICrossing {
      */
     List<Street> getOutgoingStreets();
     
+    /**
+     * Getter for incoming streets of the crossing
+     * 
+     * @return - List of incoming streets
+     */
+    List<Street> getIncomingStreets();
+    
     /**
      * Method, that adds a new street to the list of the incoming streets
      * 
@@ -40,11 +46,21 @@ public interface ICrossing {
      */
     void addOutgoingStreet(Street street);
     
+    /**
+     * Getter for the street, into which a car turns at the end of its street
+     * 
+     * @param streetID - ID of the current street of the car
+     * @param carDesiredDirection - desired direction of the car
+     * @return - street, into which the car turns
+     */
+    Street getTurnTarget(int streetID, int carDesiredDirection);
+    
     /**
      * Method, that proves, if car is allowed to turn on the current crossing
      * 
-     * @param car - observed car
+     * @param streetID - ID of the current street of the observed car
+     * @param carDesiredDirection - desired direction of the observed car
      * @return true - if allowed; else - false
      */
-    boolean turnAllowed(Car car);
+    boolean turnAllowed(int streetID, int carDesiredDirection);
 }
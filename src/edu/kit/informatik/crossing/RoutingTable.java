@@ -0,0 +1,132 @@
+package edu.kit.informatik.crossing;
+
+import java.util.List;
+
+import edu.kit.informatik.street.Street;
+
+/**
+ * Class, that holds the street network of one load in flat arrays, so turn decisions need only a few array reads. 
+ * Incoming and outgoing streets of the crossings are stored in compressed sparse rows: 
+ * the streets of the crossing with the index c are at the indices offsets[c] to offsets[c + 1] - 1. 
+ * The outgoing streets are only needed to compile the targets of the turns.
+ * 
+ * @author ubvaa
+ * @version 1.0
+ */
+final class RoutingTable {
+    /**
+     * Amount of possible desired directions of a car
+     */
+    static final int DIRECTIONS = 4;
+    /**
+     * Beginnings of the incoming streets of each crossing
+     */
+    private final int[] incomingOffsets;
+    /**
+     * IDs of the incoming streets of all crossings
+     */
+    private final int[] incomingStreets;
+    /**
+     * Index of each street among the incoming streets of its ending crossing
+     */
+    private final int[] incomingIndices;
+    /**
+     * ID of the street, into which a car turns, for each street and desired direction
+     */
+    private final int[] targets;
+    
+    /**
+     * Constructor, that compiles the routing table of the crossings
+     * 
+     * @param crossings - all crossings of the load, the index in the list is the index of the crossing
+     */
+    RoutingTable(List<Crossing> crossings) {
+        int crossingsAmount = crossings.size();
+        this.incomingOffsets = new int[crossingsAmount + 1];
+        int[] outgoingOffsets = new int[crossingsAmount + 1];
+        for (int index = 0; index < crossingsAmount; index++) {
+            Crossing crossing = crossings.get(index);
+            this.incomingOffsets[index + 1] = this.incomingOffsets[index] + crossing.getIncomingStreets().size();
+            outgoingOffsets[index + 1] = outgoingOffsets[index] + crossing.getOutgoingStreets().size();
+        }
+        //Each street is an incoming street of exactly one crossing
+        int streetsAmount = this.incomingOffsets[crossingsAmount];
+        this.incomingStreets = new int[streetsAmount];
+        int[] outgoingStreets = new int[outgoingOffsets[crossingsAmount]];
+        this.incomingIndices = new int[streetsAmount];
+        this.targets = new int[streetsAmount * DIRECTIONS];
+        
+        for (int index = 0; index < crossingsAmount; index++) {
+            Crossing crossing = crossings.get(index);
+            List<Street> outgoing = crossing.getOutgoingStreets();
+            for (int i = 0; i < outgoing.size(); i++) {
+                outgoingStreets[outgoingOffsets[index] + i] = outgoing.get(i).getID();
+            }
+            List<Street> incoming = crossing.getIncomingStreets();
+            for (int i = 0; i < incoming.size(); i++) {
+                int streetID = incoming.get(i).getID();
+                this.incomingStreets[this.incomingOffsets[index] + i] = streetID;
+                this.incomingIndices[streetID] = i;
+                for (int direction = 0; direction < DIRECTIONS; direction++) {
+                    //A car, whose desired direction doesn't exist, takes the first outgoing street
+                    int target = direction < outgoing.size() ? direction : 0;
+                    this.targets[streetID * DIRECTIONS + direction] = outgoingStreets[outgoingOffsets[index] + target];
+                }
+            }
+        }
+    }
+    
+    /**
+     * Getter for the amount of streets
+     * 
+     * @return - amount of streets of the network
+     */
+    int getStreetsAmount() {
+        return this.incomingIndices.length;
+    }
+    
+    /**
+     * Getter for the amount of incoming streets of the crossing
+     * 
+     * @param crossingIndex - index of the crossing
+     * @return - amount of incoming streets
+     */
+    int getIncomingAmount(int crossingIndex) {
+        return this.incomingOffsets[crossingIndex + 1] - this.incomingOffsets[crossingIndex];
+    }
+    
+    /**
+     * Getter for the incoming street of the crossing
+     * 
+     * @param crossingIndex - index of the crossing
+     * @param index - index of the street among the incoming streets
+     * @return - ID of the incoming street
+     */
+    int getIncomingStreet(int crossingIndex, int index) {
+        return this.incomingStreets[this.incomingOffsets[crossingIndex] + index];
+    }
+    
+    /**
+     * Getter for the index of the street among the incoming streets of its ending crossing
+     * 
+     * @param streetID - ID of the street
+     * @return - index of the street, that is compared with greenID
+     */
+    int getIncomingIndex(int streetID) {
+        return this.incomingIndices[streetID];
+    }
+    
+    /**
+     * Getter for the street, into which a car of the street turns with the desired direction
+     * 
+     * @param streetID - ID of the street of the car
+     * @param direction - desired direction of the car
+     * @return - ID of the target street
+     */
+    int getTarget(int streetID, int direction) {
+        if (direction < 0 || direction >= DIRECTIONS) {
+            return this.targets[streetID * DIRECTIONS];
+        }
+        return this.targets[streetID * DIRECTIONS + direction];
+    }
+}
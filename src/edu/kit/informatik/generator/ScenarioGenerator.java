@@ -0,0 +1,522 @@
+package edu.kit.informatik.generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import edu.kit.informatik.main.ReadWrite;
+import edu.kit.kastel.trafficsimulation.io.SimulationFileLoader;
+
+/**
+ * Tool, that generates large street networks with cars as simulation files for load tests.
+ * 
+ * All generated files obey the limits, that are checked by the "load"-command: every crossing has 
+ * between 1 and 4 incoming and outgoing streets, green light times are 0t or between 3t and 10t, 
+ * streets are between 5m and 10000m long with speed limits between 5m/t and 40m/t, and no street 
+ * has more cars than fit with the minimal distance between them.
+ * 
+ * Usage: {@code ScenarioGenerator <folder> [--topology grid|ring|star|random] [--crossings <amount>] 
+ * [--min-length <m>] [--max-length <m>] [--fast-lanes <share>] [--roundabouts <share>] 
+ * [--min-green <t>] [--max-green <t>] [--density <share>] [--cars <amount>] [--seed <seed>]}
+ * 
+ * @author ubvaa
+ * @version 1.0
+ */
+public final class ScenarioGenerator {
+    /**
+     * Topologies of the generated networks
+     * 
+     * @author ubvaa
+     * @version 1.0
+     */
+    public enum Topology {
+        /**
+         * Rectangular grid, neighbouring crossings are connected in both directions
+         */
+        GRID, 
+        /**
+         * Ring, neighbouring crossings are connected in both directions
+         */
+        RING, 
+        /**
+         * Star with a central crossing and up to four arms of crossings, connected in both directions
+         */
+        STAR, 
+        /**
+         * Random graph: a random cycle through all crossings with additional random streets
+         */
+        RANDOM
+    }
+    
+    /**
+     * Minimal amount of crossings of a network
+     */
+    public static final int MIN_CROSSINGS = 2;
+    /**
+     * Minimal allowed length of the street
+     */
+    private static final int MIN_LENGTH = 5;
+    /**
+     * Maximal allowed length of the street
+     */
+    private static final int MAX_LENGTH = 10000;
+    /**
+     * Minimal allowed speed limit of the street
+     */
+    private static final int MIN_SPEED_LIMIT = 5;
+    /**
+     * Maximal allowed speed limit of the street
+     */
+    private static final int MAX_SPEED_LIMIT = 40;
+    /**
+     * Minimal green time of the crossroad (in ticks)
+     */
+    private static final int MIN_GREEN_TIME = 3;
+    /**
+     * Maximal green time of the crossroad (in ticks)
+     */
+    private static final int MAX_GREEN_TIME = 10;
+    /**
+     * Maximal amount of incoming/outgoing streets
+     */
+    private static final int MAX_STREETS = 4;
+    /**
+     * Minimal distance between two cars on the street
+     */
+    private static final int MIN_DISTANCE = 10;
+    /**
+     * Minimal allowed desired speed
+     */
+    private static final int MIN_DESIRED_SPEED = 20;
+    /**
+     * Maximal allowed desired speed
+     */
+    private static final int MAX_DESIRED_SPEED = 40;
+    /**
+     * Minimal allowed acceleration
+     */
+    private static final int MIN_ACCELERATION = 1;
+    /**
+     * Maximal allowed acceleration
+     */
+    private static final int MAX_ACCELERATION = 10;
+    /**
+     * Usage of the tool
+     */
+    private static final String USAGE = "usage: ScenarioGenerator <folder> [--topology grid|ring|star|random] "
+            + "[--crossings <amount>] [--min-length <m>] [--max-length <m>] [--fast-lanes <share>] "
+            + "[--roundabouts <share>] [--min-green <t>] [--max-green <t>] [--density <share>] "
+            + "[--cars <amount>] [--seed <seed>]";
+    
+    /**
+     * Topology of the network
+     */
+    private final Topology topology;
+    /**
+     * Amount of crossings
+     */
+    private final int crossingsAmount;
+    /**
+     * Random generator of the network
+     */
+    private final Random random;
+    /**
+     * Minimal length of the streets
+     */
+    private int minLength = 100;
+    /**
+     * Maximal length of the streets
+     */
+    private int maxLength = 1000;
+    /**
+     * Share of the streets with fast lane
+     */
+    private double fastLaneShare = 0.5;
+    /**
+     * Share of the crossings, that are roundabouts
+     */
+    private double roundaboutShare = 0.5;
+    /**
+     * Minimal green light time of the crossroads
+     */
+    private int minGreenTime = MIN_GREEN_TIME;
+    /**
+     * Maximal green light time of the crossroads
+     */
+    private int maxGreenTime = MAX_GREEN_TIME;
+    /**
+     * Share of each street's capacity, that is filled with cars
+     */
+    private double carDensity = 0.3;
+    /**
+     * Total amount of cars, that are evenly distributed over the streets; negative - if density is used
+     */
+    private int carsAmount = -1;
+    
+    /**
+     * Constructor of a new generator
+     * 
+     * @param topology - topology of the network
+     * @param crossingsAmount - amount of crossings, at least {@value #MIN_CROSSINGS}
+     * @param seed - seed of the random generator, the same seed generates the same network
+     */
+    public ScenarioGenerator(Topology topology, int crossingsAmount, long seed) {
+        if (crossingsAmount < MIN_CROSSINGS) {
+            throw new IllegalArgumentException("at least " + MIN_CROSSINGS + " crossings are needed");
+        }
+        this.topology = topology;
+        this.crossingsAmount = crossingsAmount;
+        this.random = new Random(seed);
+    }
+    
+    /**
+     * Setter for the range of the streets' lengths
+     * 
+     * @param min - minimal length of the streets
+     * @param max - maximal length of the streets
+     */
+    public void setLengths(int min, int max) {
+        if (min < MIN_LENGTH || max > MAX_LENGTH || min > max) {
+            throw new IllegalArgumentException("lengths must be between " + MIN_LENGTH + "m and " + MAX_LENGTH + "m");
+        }
+        this.minLength = min;
+        this.maxLength = max;
+    }
+    
+    /**
+     * Setter for the share of the streets with fast lane
+     * 
+     * @param share - share between 0 and 1
+     */
+    public void setFastLaneShare(double share) {
+        this.fastLaneShare = checkShare(share);
+    }
+    
+    /**
+     * Setter for the share of the crossings, that are roundabouts
+     * 
+     * @param share - share between 0 and 1
+     */
+    public void setRoundaboutShare(double share) {
+        this.roundaboutShare = checkShare(share);
+    }
+    
+    /**
+     * Setter for the range of the crossroads' green light times
+     * 
+     * @param min - minimal green light time
+     * @param max - maximal green light time
+     */
+    public void setGreenTimes(int min, int max) {
+        if (min < MIN_GREEN_TIME || max > MAX_GREEN_TIME || min > max) {
+            throw new IllegalArgumentException("green times must be between " + MIN_GREEN_TIME + "t and " 
+                    + MAX_GREEN_TIME + "t");
+        }
+        this.minGreenTime = min;
+        this.maxGreenTime = max;
+    }
+    
+    /**
+     * Setter for the share of each street's capacity, that is filled with cars
+     * 
+     * @param density - share between 0 and 1
+     */
+    public void setCarDensity(double density) {
+        this.carDensity = checkShare(density);
+        this.carsAmount = -1;
+    }
+    
+    /**
+     * Setter for the total amount of cars, that are evenly distributed over the streets, 
+     * as far as the streets' capacities allow
+     * 
+     * @param amount - amount of cars
+     */
+    public void setCarsAmount(int amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("amount of cars must be >= 0");
+        }
+        this.carsAmount = amount;
+    }
+    
+    /**
+     * Method, that generates the network and writes the simulation files to the folder
+     * 
+     * @param folder - folder for the simulation files, it is created, if it doesn't exist
+     * @return - amount of generated cars
+     * @throws IOException if the files can't be written
+     */
+    public int generate(Path folder) throws IOException {
+        Files.createDirectories(folder);
+        List<int[]> streets = buildStreets();
+        writeCrossings(folder.resolve(SimulationFileLoader.FILENAME_CROSSINGS));
+        int[] lengths = writeStreets(folder.resolve(SimulationFileLoader.FILENAME_STREETS), streets);
+        return writeCars(folder.resolve(SimulationFileLoader.FILENAME_CARS), lengths);
+    }
+    
+    /**
+     * Method, that builds the streets of the topology as pairs of starting and ending crossings
+     * 
+     * @return - list of the streets
+     */
+    private List<int[]> buildStreets() {
+        List<int[]> streets = new ArrayList<>();
+        int n = this.crossingsAmount;
+        switch (this.topology) {
+            case RING:
+                for (int crossing = 0; crossing < n; crossing++) {
+                    connect(streets, crossing, (crossing + 1) % n);
+                }
+                break;
+            case GRID:
+                int columns = (int) Math.ceil(Math.sqrt(n));
+                for (int crossing = 0; crossing < n; crossing++) {
+                    if ((crossing + 1) % columns != 0 && crossing + 1 < n) {
+                        connect(streets, crossing, crossing + 1);
+                    }
+                    if (crossing + columns < n) {
+                        connect(streets, crossing, crossing + columns);
+                    }
+                }
+                break;
+            case STAR:
+                int arms = Math.min(MAX_STREETS, n - 1);
+                for (int crossing = 1; crossing < n; crossing++) {
+                    int previous = crossing <= arms ? 0 : crossing - arms;
+                    connect(streets, previous, crossing);
+                }
+                break;
+            default:
+                buildRandomStreets(streets);
+                break;
+        }
+        return streets;
+    }
+    
+    /**
+     * Method, that builds a random cycle through all crossings and adds random streets, 
+     * as long as the crossings have free incoming and outgoing places
+     * 
+     * @param streets - list for the streets
+     */
+    private void buildRandomStreets(List<int[]> streets) {
+        int n = this.crossingsAmount;
+        List<Integer> order = new ArrayList<>(n);
+        for (int crossing = 0; crossing < n; crossing++) {
+            order.add(crossing);
+        }
+        Collections.shuffle(order, this.random);
+        int[] incoming = new int[n];
+        int[] outgoing = new int[n];
+        for (int i = 0; i < n; i++) {
+            int start = order.get(i);
+            int end = order.get((i + 1) % n);
+            streets.add(new int[] {start, end});
+            outgoing[start]++;
+            incoming[end]++;
+        }
+        for (int attempt = 0; attempt < 2 * n; attempt++) {
+            int start = this.random.nextInt(n);
+            int end = this.random.nextInt(n);
+            if (start != end && outgoing[start] < MAX_STREETS && incoming[end] < MAX_STREETS) {
+                streets.add(new int[] {start, end});
+                outgoing[start]++;
+                incoming[end]++;
+            }
+        }
+    }
+    
+    /**
+     * Method, that connects two crossings with a street in each direction
+     * 
+     * @param streets - list for the streets
+     * @param first - first crossing
+     * @param second - second crossing
+     */
+    private static void connect(List<int[]> streets, int first, int second) {
+        streets.add(new int[] {first, second});
+        streets.add(new int[] {second, first});
+    }
+    
+    /**
+     * Method, that writes the crossings' file
+     * 
+     * @param file - path of the file
+     * @throws IOException if the file can't be written
+     */
+    private void writeCrossings(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int crossing = 0; crossing < this.crossingsAmount; crossing++) {
+                int greenTime = this.random.nextDouble() < this.roundaboutShare ? 0 
+                        : between(this.minGreenTime, this.maxGreenTime);
+                writer.write(crossing + ":" + greenTime + "t");
+                writer.newLine();
+            }
+        }
+    }
+    
+    /**
+     * Method, that writes the streets' file
+     * 
+     * @param file - path of the file
+     * @param streets - streets as pairs of starting and ending crossings
+     * @return - lengths of the streets
+     * @throws IOException if the file can't be written
+     */
+    private int[] writeStreets(Path file, List<int[]> streets) throws IOException {
+        int[] lengths = new int[streets.size()];
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int street = 0; street < streets.size(); street++) {
+                lengths[street] = between(this.minLength, this.maxLength);
+                int type = this.random.nextDouble() < this.fastLaneShare ? 2 : 1;
+                int speedLimit = between(MIN_SPEED_LIMIT, MAX_SPEED_LIMIT);
+                writer.write(streets.get(street)[0] + "-->" + streets.get(street)[1] + ":" + lengths[street] + "m," 
+                        + type + "x," + speedLimit + "max");
+                writer.newLine();
+            }
+        }
+        return lengths;
+    }
+    
+    /**
+     * Method, that writes the cars' file
+     * 
+     * @param file - path of the file
+     * @param lengths - lengths of the streets
+     * @return - amount of written cars
+     * @throws IOException if the file can't be written
+     */
+    private int writeCars(Path file, int[] lengths) throws IOException {
+        int id = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int street = 0; street < lengths.length; street++) {
+                int capacity = lengths[street] / MIN_DISTANCE + 1;
+                int amount;
+                if (this.carsAmount < 0) {
+                    amount = (int) (this.carDensity * capacity);
+                } else {
+                    amount = this.carsAmount / lengths.length + (street < this.carsAmount % lengths.length ? 1 : 0);
+                }
+                for (int car = 0; car < Math.min(amount, capacity); car++) {
+                    writer.write(id + "," + street + "," + between(MIN_DESIRED_SPEED, MAX_DESIRED_SPEED) + "," 
+                            + between(MIN_ACCELERATION, MAX_ACCELERATION));
+                    writer.newLine();
+                    id++;
+                }
+            }
+        }
+        return id;
+    }
+    
+    /**
+     * Method, that returns a random integer of the range
+     * 
+     * @param min - minimal value
+     * @param max - maximal value
+     * @return - random integer between min and max, both inclusive
+     */
+    private int between(int min, int max) {
+        return min + this.random.nextInt(max - min + 1);
+    }
+    
+    /**
+     * Method, that checks, if the share is between 0 and 1
+     * 
+     * @param share - share to be checked
+     * @return - the share
+     */
+    private static double checkShare(double share) {
+        if (share < 0 || share > 1) {
+            throw new IllegalArgumentException("shares must be between 0 and 1");
+        }
+        return share;
+    }
+    
+    /**
+     * Entry point of the tool
+     * 
+     * @param args - folder and options of the network
+     */
+    public static void main(String[] args) {
+        if (args.length == 0 || args.length % 2 == 0) {
+            ReadWrite.writeError(USAGE);
+            return;
+        }
+        try {
+            Topology topology = Topology.GRID;
+            int crossings = 100;
+            long seed = 0;
+            for (int i = 1; i < args.length; i += 2) {
+                switch (args[i]) {
+                    case "--topology":
+                        topology = Topology.valueOf(args[i + 1].toUpperCase());
+                        break;
+                    case "--crossings":
+                        crossings = Integer.parseInt(args[i + 1]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[i + 1]);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            ScenarioGenerator generator = new ScenarioGenerator(topology, crossings, seed);
+            for (int i = 1; i < args.length; i += 2) {
+                generator.applyOption(args[i], args[i + 1]);
+            }
+            int cars = generator.generate(Path.of(args[0]));
+            ReadWrite.writeLine("generated " + crossings + " crossings and " + cars + " cars in " + args[0]);
+        } catch (IllegalArgumentException e) {
+            ReadWrite.writeError(e.getMessage() + ", " + USAGE);
+        } catch (IOException e) {
+            ReadWrite.writeError(e.getMessage());
+        }
+    }
+    
+    /**
+     * Method, that applies a command line option to the generator
+     * 
+     * @param option - name of the option
+     * @param value - value of the option
+     */
+    private void applyOption(String option, String value) {
+        switch (option) {
+            case "--topology":
+            case "--crossings":
+            case "--seed":
+                break;
+            case "--min-length":
+                setLengths(Integer.parseInt(value), Math.max(this.maxLength, Integer.parseInt(value)));
+                break;
+            case "--max-length":
+                setLengths(Math.min(this.minLength, Integer.parseInt(value)), Integer.parseInt(value));
+                break;
+            case "--fast-lanes":
+                setFastLaneShare(Double.parseDouble(value));
+                break;
+            case "--roundabouts":
+                setRoundaboutShare(Double.parseDouble(value));
+                break;
+            case "--min-green":
+                setGreenTimes(Integer.parseInt(value), Math.max(this.maxGreenTime, Integer.parseInt(value)));
+                break;
+            case "--max-green":
+                setGreenTimes(Math.min(this.minGreenTime, Integer.parseInt(value)), Integer.parseInt(value));
+                break;
+            case "--density":
+                setCarDensity(Double.parseDouble(value));
+                break;
+            case "--cars":
+                setCarsAmount(Integer.parseInt(value));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown option " + option);
+        }
+    }
+}
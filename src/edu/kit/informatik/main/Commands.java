@@ -1,91 +1,213 @@
 package edu.kit.informatik.main;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import edu.kit.informatik.car.Car;
-import edu.kit.informatik.crossing.Crossing;
+import edu.kit.informatik.car.CarStates;
+import edu.kit.informatik.snapshot.Checkpoints;
 import edu.kit.informatik.street.Street;
-import edu.kit.kastel.trafficsimulation.io.SimulationFileLoader;
+import edu.kit.informatik.trajectory.TrajectoryReader;
 
 /**
- * Class, that contains all program commands' implementations.
+ * Class, that contains all program commands' implementations. 
+ * The commands work on one simulation, that may be shared by several command handlers, 
+ * e.g. by the connections of the server. 
+ * During a run in the background only the positions, the progress and the replay commands are handled, 
+ * the positions are read from the state after the latest completed tick.
  * 
  * @author ubvaa
- * @version 1.3
+ * @version 1.11
  */
 public final class Commands {
-
     /**
-     * Private Commands constructor
+     * Amount of fields of a position record
+     */
+    private static final int POSITION_FIELDS = 4;
+    /**
+     * Fields of a position record, that are reused for all records
+     */
+    private final int[] positionRecord = new int[POSITION_FIELDS];
+    /**
+     * Simulation, on which all commands work
+     */
+    private final Simulation simulation;
+    /**
+     * Trajectory log, from which the replay commands read; null - if no log has been opened
+     */
+    private TrajectoryReader replay;
+    /**
+     * State of the cars, that is pinned during a run in the background, while positions are read from it; 
+     * null - if the positions are read from the simulation
+     */
+    private CarStates pinnedStates;
+    
+    /**
+     * Commands constructor
+     * 
+     * @param simulation - simulation, on which all commands work
+     */
+    public Commands(Simulation simulation) {
+        this.simulation = simulation;
+    }
+    
+    /**
+     * Method, that shows, if the command of the input line may change the simulation. 
+     * All other commands only read it, so they can be handled at the same time. 
+     * The replay commands read only the trajectory log, that has been opened by the same handler.
+     * 
+     * @param line - input line
+     * @return true - if the command may change the simulation; else - false
      */
-    private Commands() { }
+    public static boolean changesSimulation(String line) {
+        String commandName = line.split(Main.BLANK_SYMBOL, 2)[0];
+        return !commandName.equals(Main.COMMAND_POSITION) && !commandName.equals(Main.COMMAND_POSITIONS) 
+                && !commandName.equals(Main.COMMAND_SAVE) && !commandName.equals(Main.COMMAND_QUIT) 
+                && !commandName.equals(Main.COMMAND_PROGRESS) && !commandName.startsWith(Main.COMMAND_REPLAY);
+    }
+    
+    /**
+     * Method, that shows, if the command can be handled during a run in the background
+     * 
+     * @param commandName - name of the command
+     * @return true - if yes; else - false
+     */
+    private static boolean isPossibleDuringRun(String commandName) {
+        return commandName.equals(Main.COMMAND_POSITION) || commandName.equals(Main.COMMAND_POSITIONS) 
+                || commandName.equals(Main.COMMAND_PROGRESS) || commandName.equals(Main.COMMAND_CANCEL) 
+                || commandName.equals(Main.COMMAND_QUIT) || commandName.startsWith(Main.COMMAND_REPLAY);
+    }
     
     /**
      * Method, that handles user's input line and pass handled line 
      * to handleCommand(ArrayList<String> command)-Method
      * 
      * @param line - input line
+     * @return false - after the "quit"-command; else - true
      */
-    public static void handleLine(String line) {
+    public boolean handleLine(String line) {
         if (line.length() == 0 || line.substring(line.length() - 1).equals(Main.BLANK_SYMBOL)) {
             ReadWrite.writeError(Main.INVALID_COMMAND);
-            return;
+            return true;
         }
         List<String> command = new ArrayList<>(Arrays.asList(line.split(Main.BLANK_SYMBOL)));
-        handleCommand(command);
+        return handleCommand(command);
     }
     
     /**
      * Method, that handles command and executes it, if it is correct
      * 
      * @param command - command, that is handled
+     * @return false - after the "quit"-command; else - true
      */
-    private static void handleCommand(List<String> command) {
+    private boolean handleCommand(List<String> command) {
         String commandName = command.get(0);
         command.remove(0);
         
+        if (this.simulation.isRunning() && !isPossibleDuringRun(commandName)) {
+            ReadWrite.writeError(Main.INVALID_RUNNING);
+            return true;
+        }
+        
         switch (commandName) {
             case Main.COMMAND_LOAD:
                 load(command);
                 break;
             case Main.COMMAND_SIMULATE:
-                if (Session.isLoadedCorrectly()) {
+                if (this.simulation.isLoaded()) {
                     simulate(command);
                 } else {
                     ReadWrite.writeError(Main.INVALID_LOAD);
                 }
                 break;
+            case Main.COMMAND_SIMULATE_ASYNC:
+                if (this.simulation.isLoaded()) {
+                    simulateAsync(command);
+                } else {
+                    ReadWrite.writeError(Main.INVALID_LOAD);
+                }
+                break;
+            case Main.COMMAND_PROGRESS:
+                progress(command);
+                break;
+            case Main.COMMAND_CANCEL:
+                cancel(command);
+                break;
             case Main.COMMAND_POSITION:
-                if (Session.isLoadedCorrectly()) {
-                    position(command);
+            case Main.COMMAND_POSITIONS:
+                if (!this.simulation.isLoaded()) {
+                    ReadWrite.writeError(Main.INVALID_LOAD);
+                    break;
+                }
+                this.pinnedStates = this.simulation.acquireStates();
+                try {
+                    if (commandName.equals(Main.COMMAND_POSITION)) {
+                        position(command);
+                    } else {
+                        positions(command);
+                    }
+                } finally {
+                    if (this.pinnedStates != null) {
+                        this.simulation.releaseStates(this.pinnedStates);
+                        this.pinnedStates = null;
+                    }
+                }
+                break;
+            case Main.COMMAND_SAVE:
+                if (this.simulation.isLoaded()) {
+                    save(command);
                 } else {
                     ReadWrite.writeError(Main.INVALID_LOAD);
                 }
                 break;
-            case Main.COMMAND_QUIT:
-                quit();
+            case Main.COMMAND_LOAD_SNAPSHOT:
+                loadSnapshot(command);
+                break;
+            case Main.COMMAND_RECORD:
+                record(command);
+                break;
+            case Main.COMMAND_CHECKPOINT:
+                checkpoint(command);
+                break;
+            case Main.COMMAND_RECOVER:
+                recover(command);
+                break;
+            case Main.COMMAND_REPLAY:
+                replay(command);
                 break;
+            case Main.COMMAND_REPLAY_POSITION:
+            case Main.COMMAND_REPLAY_RANGE:
+                if (this.replay == null) {
+                    ReadWrite.writeError(Main.INVALID_REPLAY);
+                } else if (commandName.equals(Main.COMMAND_REPLAY_POSITION)) {
+                    replayPosition(command);
+                } else {
+                    replayRange(command);
+                }
+                break;
+            case Main.COMMAND_QUIT:
+                return false;
             default:
                 ReadWrite.writeError(Main.INVALID_COMMAND);
                 break;
         }
+        return true;
     }
     
     /**
      * Method, that implements "load"-command. 
      * 
-     * Firstly, it loads data to inspect from the files.
-     * Secondly, it checks, if loaded data is correct.
-     * If it is, then inspected (temporary) objects will be copied.
-     * Then cars will be positioned on the streets and session will be saved, 
-     * that the session is loaded correctly.
+     * It loads the network from the folder into the simulation, if it is correct.
+     * Else the errors of the input files are output and the simulation stays unchanged.
      * 
      * @param arguments - arguments of the command
      */
-    private static void load(List<String> arguments) {
+    private void load(List<String> arguments) {
         if (arguments.size() != 1) {
             ReadWrite.writeError(Main.INVALID_COMMAND);
             return;
@@ -93,24 +215,14 @@ public final class Commands {
         String path = arguments.get(0);
         
         try {
-            SimulationFileLoader fileLoader = new SimulationFileLoader(path);
-            List<String> cars = fileLoader.loadCars();
-            List<String> streets = fileLoader.loadStreets();
-            List<String> crossings = fileLoader.loadCrossings();
-    
-            if (Crossing.checkInput(crossings) && Street.checkInput(streets) && Car.checkInput(cars)) {
-                if (Crossing.checkStreets() && Street.checkCars()) {
-                    copyInspectedObjects();
-                    Street.positionCars();
-                    Session.loadIsCorrect();
-                    ReadWrite.writeLine(Main.READY);
-                }
+            if (this.simulation.load(path)) {
+                ReadWrite.writeLine(Main.READY);
             }
         } catch (IOException e) {
             ReadWrite.writeError(Main.INVALID_COMMAND);
         }
     }
-
+    
     /**
      * Method, that implements "simulate"-command.
      * 
@@ -119,10 +231,50 @@ public final class Commands {
      * 
      * @param arguments - simulations' amount
      */
-    private static void simulate(List<String> arguments) {
+    private void simulate(List<String> arguments) {
+        int simulationsAmount = parseSimulationsAmount(arguments, Main.COMMAND_SIMULATE);
+        if (simulationsAmount < 0) {
+            return;
+        }
+        
+        try {
+            this.simulation.simulate(simulationsAmount);
+        } catch (UncheckedIOException e) {
+            ReadWrite.writeError(Main.INVALID_PARTITIONS + e.getMessage());
+            return;
+        }
+        ReadWrite.writeLine(Main.READY);
+    }
+    
+    /**
+     * Method, that implements "simulate-async"-command.
+     * 
+     * It starts to simulate the ticks in the background and outputs "READY" at once. 
+     * Until the run is finished or cancelled, the positions are read from the state after 
+     * the latest completed tick, and all commands, that change the simulation, are rejected.
+     * 
+     * @param arguments - simulations' amount
+     */
+    private void simulateAsync(List<String> arguments) {
+        int simulationsAmount = parseSimulationsAmount(arguments, Main.COMMAND_SIMULATE_ASYNC);
+        if (simulationsAmount < 0) {
+            return;
+        }
+        this.simulation.startRun(simulationsAmount);
+        ReadWrite.writeLine(Main.READY);
+    }
+    
+    /**
+     * Helping method, that parses the amount of simulations of the "simulate"-commands
+     * 
+     * @param arguments - arguments of the command
+     * @param commandName - name of the command for the error
+     * @return - amount of simulations; -1 - if the arguments are incorrect, the error is already output
+     */
+    private static int parseSimulationsAmount(List<String> arguments, String commandName) {
         if (arguments.size() != 1) {
             ReadWrite.writeError(Main.INVALID_COMMAND);
-            return;
+            return -1;
         }
         
         int simulationsAmount = 0;
@@ -130,18 +282,53 @@ public final class Commands {
         try {
             simulationsAmount = Integer.valueOf(arguments.get(0));
         } catch (NumberFormatException e) {
-            ReadWrite.writeError(Main.INVALID_ARGS + Main.COMMAND_SIMULATE);
-            return;
+            ReadWrite.writeError(Main.INVALID_ARGS + commandName);
+            return -1;
         }
         
         if (simulationsAmount < 0) {
-            ReadWrite.writeError(Main.INVALID_ARGS + Main.COMMAND_SIMULATE);
+            ReadWrite.writeError(Main.INVALID_ARGS + commandName);
+            return -1;
+        }
+        return simulationsAmount;
+    }
+    
+    /**
+     * Method, that implements "progress"-command.
+     * 
+     * It outputs "completed/all" ticks of the latest run in the background, 
+     * or the error, because of which the run has been stopped.
+     * 
+     * @param arguments - arguments of the command, there must be none
+     */
+    private void progress(List<String> arguments) {
+        if (!arguments.isEmpty()) {
+            ReadWrite.writeError(Main.INVALID_COMMAND);
             return;
         }
-        
-        for (int i = 1; i <= simulationsAmount; i++) {
-            updateObjects();
+        String failure = this.simulation.getRunFailure();
+        if (failure != null) {
+            ReadWrite.writeError(Main.INVALID_PARTITIONS + failure);
+            return;
         }
+        ReadWrite.writeLine(this.simulation.getCompletedTicks() + Main.PROGRESS_SEPARATOR 
+                            + this.simulation.getRunTicks());
+    }
+    
+    /**
+     * Method, that implements "cancel"-command.
+     * 
+     * It stops the run in the background after the current tick and waits for its end, 
+     * the simulation stays at the latest completed tick. Without a run nothing is changed.
+     * 
+     * @param arguments - arguments of the command, there must be none
+     */
+    private void cancel(List<String> arguments) {
+        if (!arguments.isEmpty()) {
+            ReadWrite.writeError(Main.INVALID_COMMAND);
+            return;
+        }
+        this.simulation.cancelRun();
         ReadWrite.writeLine(Main.READY);
     }
     
@@ -153,7 +340,7 @@ public final class Commands {
      * 
      * @param arguments - ID of the car,
      */
-    private static void position(List<String> arguments) {
+    private void position(List<String> arguments) {
         if (arguments.size() != 1) {
             ReadWrite.writeError(Main.INVALID_COMMAND);
             return;
@@ -168,41 +355,385 @@ public final class Commands {
             return;
         }
         
-        Car car = Car.getCar(carID);
+        Car car = this.simulation.getCar(carID);
         
         if (car != null) {
-            ReadWrite.writeLine(Main.CAR + carID + Main.ON_STREET + car.getStreetID() + Main.WITH_SPEED 
-                                + car.getCurrentSpeed() + Main.AND_POSITION + car.getPosition());
+            readPosition(car.getSlot());
+            ReadWrite.writeLine(Main.CAR + carID + Main.ON_STREET + this.positionRecord[1] + Main.WITH_SPEED 
+                                + this.positionRecord[2] + Main.AND_POSITION + this.positionRecord[3]);
         } else {
             ReadWrite.writeError(Main.NO_CAR_WITH_ID + carID);
         }
     }
     
     /**
-     * Method, that implements "quit"-command.
+     * Method, that implements "positions"-command.
+     * 
+     * It outputs one line "carID,streetID,speed,position" for each requested car:
+     * "positions id,id,..." - for the listed cars in the given order,
+     * "positions all" - for all cars in the order of the cars' file,
+     * "positions street id" - for all cars of the street, starting from the end of the street.
+     * All lines are written to the output buffer and shown at once. If an ID doesn't exist, 
+     * only the error is output.
+     * 
+     * @param arguments - arguments of the command
+     */
+    private void positions(List<String> arguments) {
+        if (arguments.size() == 1 && arguments.get(0).equals(Main.ARGUMENT_ALL)) {
+            for (int slot = 0; slot < this.simulation.getCarsAmount(); slot++) {
+                writePosition(slot);
+            }
+        } else if (arguments.size() == 2 && arguments.get(0).equals(Main.ARGUMENT_STREET)) {
+            //The order of the cars on the streets isn't published
+            if (this.pinnedStates != null) {
+                ReadWrite.writeError(Main.INVALID_RUNNING);
+                return;
+            }
+            Street street;
+            try {
+                int streetID = Integer.parseInt(arguments.get(1));
+                street = this.simulation.getStreet(streetID);
+                if (street == null) {
+                    ReadWrite.writeError(Main.NO_STREET_WITH_ID + streetID);
+                    return;
+                }
+            } catch (NumberFormatException e) {
+                ReadWrite.writeError(Main.INVALID_ARGS + Main.COMMAND_POSITIONS);
+                return;
+            }
+            for (int index = 0; index < street.getCarsAmount(); index++) {
+                writePosition(street.getCarSlot(index));
+            }
+        } else if (arguments.size() == 1) {
+            String[] ids = arguments.get(0).split(Main.ID_SEPARATOR, -1);
+            int[] slots = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                int carID;
+                try {
+                    carID = Integer.parseInt(ids[i]);
+                } catch (NumberFormatException e) {
+                    ReadWrite.writeError(Main.INVALID_ARGS + Main.COMMAND_POSITIONS);
+                    return;
+                }
+                Car car = this.simulation.getCar(carID);
+                if (car == null) {
+                    ReadWrite.writeError(Main.NO_CAR_WITH_ID + carID);
+                    return;
+                }
+                slots[i] = car.getSlot();
+            }
+            for (int slot : slots) {
+                writePosition(slot);
+            }
+        } else {
+            ReadWrite.writeError(Main.INVALID_COMMAND);
+            return;
+        }
+        ReadWrite.flushLines();
+    }
+    
+    /**
+     * Helping method, that writes the position record of the car to the output buffer
+     * 
+     * @param slot - slot of the car
+     */
+    private void writePosition(int slot) {
+        readPosition(slot);
+        ReadWrite.writeRecord(this.positionRecord, POSITION_FIELDS);
+    }
+    
+    /**
+     * Helping method, that reads the position record of the car from the pinned state or from the simulation
+     * 
+     * @param slot - slot of the car
+     */
+    private void readPosition(int slot) {
+        if (this.pinnedStates == null) {
+            this.simulation.readPosition(slot, this.positionRecord);
+            return;
+        }
+        this.positionRecord[0] = this.pinnedStates.getID(slot);
+        this.positionRecord[1] = this.pinnedStates.getStreetID(slot);
+        this.positionRecord[2] = this.pinnedStates.getSpeed(slot);
+        this.positionRecord[3] = this.pinnedStates.getPosition(slot);
+    }
+    
+    /**
+     * Method, that implements "save"-command.
+     * 
+     * It writes the whole state of the simulation to a binary snapshot file, 
+     * from which the simulation can be continued with the "load-snapshot"-command.
+     * 
+     * @param arguments - path of the snapshot file
+     */
+    private void save(List<String> arguments) {
+        if (arguments.size() != 1) {
+            ReadWrite.writeError(Main.INVALID_COMMAND);
+            return;
+        }
+        
+        try {
+            this.simulation.save(Path.of(arguments.get(0)));
+        } catch (IOException | InvalidPathException e) {
+            ReadWrite.writeError(Main.INVALID_SNAPSHOT + e.getMessage());
+            return;
+        }
+        ReadWrite.writeLine(Main.READY);
+    }
+    
+    /**
+     * Method, that implements "load-snapshot"-command.
+     * 
+     * Only if the whole snapshot is correct, the simulation continues from the saved state. 
+     * Else the previous simulation stays unchanged.
+     * 
+     * @param arguments - path of the snapshot file
+     */
+    private void loadSnapshot(List<String> arguments) {
+        if (arguments.size() != 1) {
+            ReadWrite.writeError(Main.INVALID_COMMAND);
+            return;
+        }
+        
+        try {
+            this.simulation.loadSnapshot(Path.of(arguments.get(0)));
+        } catch (IOException | InvalidPathException e) {
+            ReadWrite.writeError(Main.INVALID_SNAPSHOT + e.getMessage());
+            return;
+        }
+        ReadWrite.writeLine(Main.READY);
+    }
+    
+    /**
+     * Method, that implements "record"-command.
+     * 
+     * "record file" appends the state of all cars after every following tick to the trajectory log file, 
+     * beginning with the current state; "record stop" finishes the log. 
+     * A new recording finishes the previous one.
      * 
-     * It will be called, if user's input will be "quit"
-     * The program will be terminated.
+     * @param arguments - path of the log file or "stop"
      */
-    private static void quit() {
-        Session.endSession();
+    private void record(List<String> arguments) {
+        if (arguments.size() != 1) {
+            ReadWrite.writeError(Main.INVALID_COMMAND);
+            return;
+        }
+        
+        try {
+            if (arguments.get(0).equals(Main.ARGUMENT_STOP)) {
+                this.simulation.stopRecording();
+            } else {
+                this.simulation.startRecording(Path.of(arguments.get(0)));
+            }
+        } catch (IOException | InvalidPathException e) {
+            ReadWrite.writeError(Main.INVALID_TRAJECTORY + e.getMessage());
+            return;
+        }
+        ReadWrite.writeLine(Main.READY);
     }
     
     /**
-     * Helping method, that calls copying of inspected copies for each objects' class. 
+     * Method, that implements "checkpoint"-command.
+     * 
+     * "checkpoint folder ticks" writes a checkpoint of the simulation to the folder every ticks ticks, 
+     * from which it can be continued with the "recover"-command. 
+     * "checkpoint stop" stops the checkpoints and outputs their amount and the longest pause of the ticks.
+     * 
+     * @param arguments - folder and interval of the checkpoints or "stop"
      */
-    private static void copyInspectedObjects() {
-        Crossing.copyInspectedCrossings();
-        Street.copyInspectedStreets();
-        Car.copyInspectedCars();
+    private void checkpoint(List<String> arguments) {
+        if (arguments.size() == 1 && arguments.get(0).equals(Main.ARGUMENT_STOP)) {
+            try {
+                Checkpoints stopped = this.simulation.stopCheckpoints();
+                if (stopped != null) {
+                    ReadWrite.writeLine(stopped.getCapturedAmount() + Main.CHECKPOINTS_PAUSE 
+                                        + stopped.getLongestPause() + Main.MICROSECONDS);
+                }
+            } catch (IOException e) {
+                ReadWrite.writeError(Main.INVALID_CHECKPOINT + e.getMessage());
+                return;
+            }
+            ReadWrite.writeLine(Main.READY);
+            return;
+        } else if (arguments.size() != 2) {
+            ReadWrite.writeError(Main.INVALID_COMMAND);
+            return;
+        }
+        
+        int interval;
+        
+        try {
+            interval = Integer.parseInt(arguments.get(1));
+        } catch (NumberFormatException e) {
+            ReadWrite.writeError(Main.INVALID_ARGS + Main.COMMAND_CHECKPOINT);
+            return;
+        }
+        
+        if (interval < 1) {
+            ReadWrite.writeError(Main.INVALID_ARGS + Main.COMMAND_CHECKPOINT);
+            return;
+        }
+        
+        try {
+            this.simulation.startCheckpoints(Path.of(arguments.get(0)), interval);
+        } catch (IOException | InvalidPathException e) {
+            ReadWrite.writeError(Main.INVALID_CHECKPOINT + e.getMessage());
+            return;
+        }
+        ReadWrite.writeLine(Main.READY);
     }
     
     /**
-     * Helping method, that calls updating for each objects' class. 
+     * Method, that implements "recover"-command.
+     * 
+     * It continues the simulation from the latest complete checkpoint of the folder like the 
+     * "load-snapshot"-command and outputs the tick of the checkpoint. Else the simulation stays unchanged.
+     * 
+     * @param arguments - folder of the checkpoints
      */
-    private static void updateObjects() {
-        Street.updateStreets();
-        Crossing.updateCrossings();
-        Car.updateCars();
+    private void recover(List<String> arguments) {
+        if (arguments.size() != 1) {
+            ReadWrite.writeError(Main.INVALID_COMMAND);
+            return;
+        }
+        
+        long tick;
+        
+        try {
+            tick = this.simulation.recover(Path.of(arguments.get(0)));
+        } catch (IOException | InvalidPathException e) {
+            ReadWrite.writeError(Main.INVALID_CHECKPOINT + e.getMessage());
+            return;
+        }
+        ReadWrite.writeLine(Main.RECOVERED_TICK + tick);
+        ReadWrite.writeLine(Main.READY);
+    }
+    
+    /**
+     * Method, that implements "replay"-command.
+     * 
+     * It opens the trajectory log file, from which the following replay commands read.
+     * 
+     * @param arguments - path of the log file
+     */
+    private void replay(List<String> arguments) {
+        if (arguments.size() != 1) {
+            ReadWrite.writeError(Main.INVALID_COMMAND);
+            return;
+        }
+        
+        try {
+            this.replay = new TrajectoryReader(Path.of(arguments.get(0)));
+        } catch (IOException | InvalidPathException e) {
+            ReadWrite.writeError(Main.INVALID_REPLAY_LOG + e.getMessage());
+            return;
+        }
+        ReadWrite.writeLine(Main.READY);
+    }
+    
+    /**
+     * Method, that implements "replay-position"-command.
+     * 
+     * It outputs street, speed and position of the car after the recorded tick like the "position"-command.
+     * 
+     * @param arguments - tick and ID of the car
+     */
+    private void replayPosition(List<String> arguments) {
+        if (arguments.size() != 2) {
+            ReadWrite.writeError(Main.INVALID_COMMAND);
+            return;
+        }
+        
+        long tick;
+        int carID;
+        
+        try {
+            tick = Long.parseLong(arguments.get(0));
+            carID = Integer.parseInt(arguments.get(1));
+        } catch (NumberFormatException e) {
+            ReadWrite.writeError(Main.INVALID_ARGS + Main.COMMAND_REPLAY_POSITION);
+            return;
+        }
+        
+        int slot = seekReplay(tick, carID);
+        if (slot >= 0) {
+            ReadWrite.writeLine(Main.CAR + carID + Main.ON_STREET + this.replay.getStreetID(slot) + Main.WITH_SPEED 
+                                + this.replay.getSpeed(slot) + Main.AND_POSITION + this.replay.getPosition(slot));
+        }
+    }
+    
+    /**
+     * Method, that implements "replay-range"-command.
+     * 
+     * It outputs one line "tick,streetID,speed,position" of the car for each recorded tick 
+     * from the first tick to the last one, which are both included. 
+     * The lines end early, if the log or the recorded network ends.
+     * 
+     * @param arguments - first tick, last tick and ID of the car
+     */
+    private void replayRange(List<String> arguments) {
+        if (arguments.size() != 3) {
+            ReadWrite.writeError(Main.INVALID_COMMAND);
+            return;
+        }
+        
+        long firstTick;
+        long lastTick;
+        int carID;
+        
+        try {
+            firstTick = Long.parseLong(arguments.get(0));
+            lastTick = Long.parseLong(arguments.get(1));
+            carID = Integer.parseInt(arguments.get(2));
+        } catch (NumberFormatException e) {
+            ReadWrite.writeError(Main.INVALID_ARGS + Main.COMMAND_REPLAY_RANGE);
+            return;
+        }
+        
+        if (firstTick > lastTick) {
+            ReadWrite.writeError(Main.INVALID_ARGS + Main.COMMAND_REPLAY_RANGE);
+            return;
+        }
+        
+        int slot = seekReplay(firstTick, carID);
+        if (slot < 0) {
+            return;
+        }
+        try {
+            do {
+                this.positionRecord[0] = this.replay.getStreetID(slot);
+                this.positionRecord[1] = this.replay.getSpeed(slot);
+                this.positionRecord[2] = this.replay.getPosition(slot);
+                ReadWrite.writeRecord(this.replay.getTick(), this.positionRecord, POSITION_FIELDS - 1);
+            } while (this.replay.getTick() < lastTick && this.replay.nextInNetwork());
+        } catch (IOException e) {
+            ReadWrite.writeError(Main.INVALID_REPLAY_LOG + e.getMessage());
+        }
+        ReadWrite.flushLines();
+    }
+    
+    /**
+     * Helping method, that reads the trajectory log until the tick and finds the car. 
+     * If the tick or the car doesn't exist, the error is output.
+     * 
+     * @param tick - recorded tick
+     * @param carID - ID of the car
+     * @return - slot of the car in the log; -1 - if there is an error
+     */
+    private int seekReplay(long tick, int carID) {
+        try {
+            if (!this.replay.seek(tick)) {
+                ReadWrite.writeError(Main.NO_RECORDED_TICK + tick);
+                return -1;
+            }
+        } catch (IOException e) {
+            ReadWrite.writeError(Main.INVALID_REPLAY_LOG + e.getMessage());
+            return -1;
+        }
+        int slot = this.replay.getSlot(carID);
+        if (slot < 0) {
+            ReadWrite.writeError(Main.NO_CAR_WITH_ID + carID);
+        }
+        return slot;
     }
 }
@@ -4,7 +4,7 @@ package edu.kit.informatik.main;
  * This is Main class, the entry point of the program.
  * Here are initialized all in- and output constants of program.
  * @author ubvaa
- * @version 1.3
+ * @version 1.10
  */
 public final class Main {
     /**
@@ -19,10 +19,98 @@ public final class Main {
      * Command simulate
      */
     public static final String COMMAND_SIMULATE = "simulate";
+    /**
+     * Command simulate-async
+     */
+    public static final String COMMAND_SIMULATE_ASYNC = "simulate-async";
+    /**
+     * Command progress
+     */
+    public static final String COMMAND_PROGRESS = "progress";
+    /**
+     * Command cancel
+     */
+    public static final String COMMAND_CANCEL = "cancel";
     /**
      * Command position
      */
     public static final String COMMAND_POSITION = "position";
+    /**
+     * Command positions
+     */
+    public static final String COMMAND_POSITIONS = "positions";
+    /**
+     * "all"-argument of the positions command
+     */
+    public static final String ARGUMENT_ALL = "all";
+    /**
+     * "street"-argument of the positions command
+     */
+    public static final String ARGUMENT_STREET = "street";
+    /**
+     * Separator of the IDs in the positions command
+     */
+    public static final String ID_SEPARATOR = ",";
+    /**
+     * Command save
+     */
+    public static final String COMMAND_SAVE = "save";
+    /**
+     * Command load-snapshot
+     */
+    public static final String COMMAND_LOAD_SNAPSHOT = "load-snapshot";
+    /**
+     * Command record
+     */
+    public static final String COMMAND_RECORD = "record";
+    /**
+     * "stop"-argument of the record command
+     */
+    public static final String ARGUMENT_STOP = "stop";
+    /**
+     * Command replay
+     */
+    public static final String COMMAND_REPLAY = "replay";
+    /**
+     * Command replay-position
+     */
+    public static final String COMMAND_REPLAY_POSITION = "replay-position";
+    /**
+     * Command replay-range
+     */
+    public static final String COMMAND_REPLAY_RANGE = "replay-range";
+    /**
+     * Command checkpoint
+     */
+    public static final String COMMAND_CHECKPOINT = "checkpoint";
+    /**
+     * Command recover
+     */
+    public static final String COMMAND_RECOVER = "recover";
+    /**
+     * Command line option for the amount of worker threads of the tick
+     */
+    public static final String OPTION_WORKERS = "--workers";
+    /**
+     * Command line option for memory-mapped loading of the simulation files
+     */
+    public static final String OPTION_MAPPED = "--mapped";
+    /**
+     * Command line option for the script with the commands, that are handled in batch mode
+     */
+    public static final String OPTION_SCRIPT = "--script";
+    /**
+     * Command line option for the amount of worker processes of a partitioned simulation
+     */
+    public static final String OPTION_PARTITIONS = "--partitions";
+    /**
+     * Command line option for the local TCP port of the server mode
+     */
+    public static final String OPTION_PORT = "--port";
+    /**
+     * Command line option for the Unix domain socket of the server mode
+     */
+    public static final String OPTION_SOCKET = "--socket";
     /**
      * "READY"-output
      */
@@ -150,6 +238,10 @@ public final class Main {
      * Invalid car's ID error text
      */
     public static final String NO_CAR_WITH_ID = "There is no car with the identifier ";
+    /**
+     * Invalid street's ID error text
+     */
+    public static final String NO_STREET_WITH_ID = "There is no street with the identifier ";
     /**
      * Invalid street's ID for the car
      */
@@ -158,6 +250,68 @@ public final class Main {
      * Invalid crossing(s) for the street
      */
     public static final String INVALID_CROSSING_FOR = "invalid crossing(s) for street ";
+    /**
+     * Snapshot can't be written or read error text
+     */
+    public static final String INVALID_SNAPSHOT = "snapshot can't be written or read: ";
+    /**
+     * Trajectory log can't be written error text
+     */
+    public static final String INVALID_TRAJECTORY = "trajectory log can't be written: ";
+    /**
+     * Trajectory log hasn't been opened for replay error text
+     */
+    public static final String INVALID_REPLAY = "trajectory log is yet to be opened with replay";
+    /**
+     * Trajectory log can't be read error text
+     */
+    public static final String INVALID_REPLAY_LOG = "trajectory log can't be read: ";
+    /**
+     * Invalid recorded tick error text
+     */
+    public static final String NO_RECORDED_TICK = "There is no recorded tick ";
+    /**
+     * Checkpoints can't be written or read error text
+     */
+    public static final String INVALID_CHECKPOINT = "checkpoint can't be written or read: ";
+    /**
+     * "checkpoints, longest pause"-String for the output of the stopped checkpoints
+     */
+    public static final String CHECKPOINTS_PAUSE = " checkpoints, longest pause ";
+    /**
+     * "recovered tick"-String for the output of the recovered checkpoint
+     */
+    public static final String RECOVERED_TICK = "recovered tick ";
+    /**
+     * Microsecond abbreviation
+     */
+    public static final String MICROSECONDS = "us";
+    /**
+     * Command isn't possible during a run in the background error text
+     */
+    public static final String INVALID_RUNNING = "simulation is running in the background";
+    /**
+     * Separator of the completed and all ticks in the output of the progress
+     */
+    public static final String PROGRESS_SEPARATOR = "/";
+    /**
+     * Invalid command line options error text
+     */
+    public static final String INVALID_OPTIONS = "invalid command line options, usage: "
+                                                  + "[--workers <amount>] [--partitions <amount>] [--mapped] "
+                                                  + "[--script <file>] [--port <port> | --socket <path>]";
+    /**
+     * Worker processes can't be used error text
+     */
+    public static final String INVALID_PARTITIONS = "worker processes of the partitions can't be used: ";
+    /**
+     * Server can't be started error text
+     */
+    public static final String INVALID_SERVER = "server can't be started: ";
+    /**
+     * "listening on"-String for the output of the server mode
+     */
+    public static final String LISTENING = "listening on ";
     /**
      * "on street"-String for position output
      */
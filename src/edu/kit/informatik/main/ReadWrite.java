@@ -1,41 +1,243 @@
 package edu.kit.informatik.main;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.Scanner;
 
 /**
  * Class, that implements all the in- and outputs in the program.
  * 
  * @author ubvaa
- * @version 1.1
+ * @version 1.5
  */
 public final class ReadWrite {
+    /**
+     * Size of the output buffer in chars
+     */
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    /**
+     * Size of the input buffer in batch mode in chars
+     */
+    private static final int INPUT_BUFFER_SIZE = 1 << 20;
+    /**
+     * Separator between the fields of a record
+     */
+    private static final char FIELD_SEPARATOR = ',';
 
     /**
      * New scanner
      */
     private static Scanner scanner = new Scanner(System.in);
+    /**
+     * Buffered reader of the commands in batch mode, null - in interactive mode
+     */
+    private static BufferedReader batchReader;
+    /**
+     * Output of the console
+     */
+    private static final Output CONSOLE = new Output(new PrintWriter(new BufferedWriter(
+            new OutputStreamWriter(new FileOutputStream(FileDescriptor.out)), OUTPUT_BUFFER_SIZE)), false);
+    /**
+     * Output of the current thread, if it isn't the console, e.g. a connection of the server
+     */
+    private static final ThreadLocal<Output> BOUND_OUTPUT = new ThreadLocal<>();
+    
+    /**
+     * Output with its buffers for the record lines
+     * 
+     * @author ubvaa
+     * @version 1.0
+     */
+    private static final class Output {
+        /**
+         * Buffered writer of the output
+         */
+        private final PrintWriter writer;
+        /**
+         * Attribute, that shows, if the output is shown after every line, also in batch mode
+         */
+        private final boolean flushingLines;
+        /**
+         * Builder of the record lines, that is reused for all records
+         */
+        private final StringBuilder record = new StringBuilder();
+        /**
+         * Chars of the current record line
+         */
+        private char[] recordChars = new char[0];
+        
+        /**
+         * Output constructor
+         * 
+         * @param writer - buffered writer of the output
+         * @param flushingLines - true - if the output is shown after every line; else - false
+         */
+        private Output(PrintWriter writer, boolean flushingLines) {
+            this.writer = writer;
+            this.flushingLines = flushingLines;
+        }
+    }
     
     /**
      * Private InOutput constructor
      */
     private ReadWrite() { }
     
+    /**
+     * Method, that switches to batch mode, where the commands are read from the buffered input 
+     * and the output is shown only at batch boundaries: when all available commands are handled 
+     * or when the session ends. The output text stays the same as in interactive mode.
+     * 
+     * @param input - input with the commands
+     */
+    public static void beginBatch(InputStream input) {
+        batchReader = new BufferedReader(new InputStreamReader(input), INPUT_BUFFER_SIZE);
+    }
+    
+    /**
+     * Method, that shows, if the commands are read in batch mode
+     * 
+     * @return true - if yes; else - false
+     */
+    public static boolean isBatch() {
+        return batchReader != null;
+    }
+    
+    /**
+     * Method, that writes all output of the current thread to the writer instead of the console, 
+     * until {@link #releaseOutput()} is called. Every line is shown at once, also in batch mode.
+     * 
+     * @param output - writer, e.g. of a connection of the server
+     */
+    public static void bindOutput(Writer output) {
+        BOUND_OUTPUT.set(new Output(new PrintWriter(new BufferedWriter(output, OUTPUT_BUFFER_SIZE)), true));
+    }
+    
+    /**
+     * Method, that shows the remaining output of the current thread 
+     * and writes its further output to the console again
+     */
+    public static void releaseOutput() {
+        Output output = BOUND_OUTPUT.get();
+        if (output != null) {
+            output.writer.flush();
+            BOUND_OUTPUT.remove();
+        }
+    }
+    
+    /**
+     * Helping method, that returns the output of the current thread
+     * 
+     * @return - output of the current thread
+     */
+    private static Output output() {
+        Output output = BOUND_OUTPUT.get();
+        return output == null ? CONSOLE : output;
+    }
+    
     /**
      * Method, that outputs @object in the console
      * @param object
      */
     public static void writeLine(Object object) {
-        System.out.println(object);
+        output().writer.println(object);
+        flushLines();
+    }
+    
+    /**
+     * Method, that writes the fields as one comma separated line to the output buffer. 
+     * The line is shown not before {@link #flushLines()} or the next {@link #writeLine(Object)}.
+     * 
+     * @param fields - array with the fields of the record
+     * @param amount - amount of fields to be written
+     */
+    public static void writeRecord(int[] fields, int amount) {
+        Output output = output();
+        StringBuilder record = output.record;
+        record.setLength(0);
+        for (int i = 0; i < amount; i++) {
+            if (i > 0) {
+                record.append(FIELD_SEPARATOR);
+            }
+            record.append(fields[i]);
+        }
+        writeRecord(output);
+    }
+    
+    /**
+     * Method, that writes a long first field and the fields as one comma separated line to the output buffer, 
+     * e.g. a tick with a state. 
+     * The line is shown not before {@link #flushLines()} or the next {@link #writeLine(Object)}.
+     * 
+     * @param firstField - first field of the record
+     * @param fields - array with the other fields of the record
+     * @param amount - amount of other fields to be written
+     */
+    public static void writeRecord(long firstField, int[] fields, int amount) {
+        Output output = output();
+        StringBuilder record = output.record;
+        record.setLength(0);
+        record.append(firstField);
+        for (int i = 0; i < amount; i++) {
+            record.append(FIELD_SEPARATOR);
+            record.append(fields[i]);
+        }
+        writeRecord(output);
+    }
+    
+    /**
+     * Helping method, that writes the built record of the output to its buffer
+     * 
+     * @param output - output with the built record
+     */
+    private static void writeRecord(Output output) {
+        StringBuilder record = output.record;
+        if (output.recordChars.length < record.length()) {
+            output.recordChars = new char[record.length() * 2];
+        }
+        record.getChars(0, record.length(), output.recordChars, 0);
+        output.writer.write(output.recordChars, 0, record.length());
+        output.writer.println();
+    }
+    
+    /**
+     * Method, that shows the buffered output in the console. In batch mode it is left for the batch boundary.
+     */
+    public static void flushLines() {
+        Output output = output();
+        if (batchReader == null || output.flushingLines) {
+            output.writer.flush();
+        }
+    }
+    
+    /**
+     * Method, that shows all buffered output in the console
+     */
+    public static void flush() {
+        output().writer.flush();
     }
     
     /**
-     * Method, that reads players' input in the console
-     * @return players' input as a String
+     * Method, that reads players' input in the console. 
+     * In batch mode the buffered output is shown, before the reading waits for new input.
+     * @return players' input as a String; null - if the input in batch mode has ended
      * @throws IOException
      */
     public static String readLine() throws IOException {
-        return scanner.nextLine();
+        if (batchReader == null) {
+            return scanner.nextLine();
+        } else if (!batchReader.ready()) {
+            CONSOLE.writer.flush();
+        }
+        return batchReader.readLine();
     }
     
     /**
@@ -0,0 +1,136 @@
+package edu.kit.informatik.main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Class, that implements the server mode: the simulation stays loaded in memory 
+ * and is driven by the commands of many clients, that connect to a local TCP port or a Unix domain socket.
+ * 
+ * Each connection speaks the line protocol of the console with its own output and is handled on its own thread, 
+ * a virtual thread from Java 21 on. Commands, that only read the simulation ("position", "positions", "save"), 
+ * are handled at the same time, all other commands one after another. The "quit"-command closes the connection.
+ * 
+ * @author ubvaa
+ * @version 1.0
+ */
+public class Server {
+    /**
+     * Simulation, that is shared by all connections
+     */
+    private final Simulation simulation;
+    /**
+     * Lock, that lets the reading commands run at the same time and the changing commands one after another
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * Server constructor
+     * 
+     * @param simulation - simulation, that is shared by all connections
+     */
+    public Server(Simulation simulation) {
+        this.simulation = simulation;
+    }
+    
+    /**
+     * Method, that accepts connections at the address, until the server is stopped
+     * 
+     * @param address - local TCP address or Unix domain socket address
+     * @throws IOException if the address can't be bound
+     */
+    public void serve(SocketAddress address) throws IOException {
+        boolean unixSocket = address instanceof UnixDomainSocketAddress;
+        ExecutorService connections = newConnectionExecutor();
+        try (ServerSocketChannel serverChannel = unixSocket 
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX) : ServerSocketChannel.open()) {
+            serverChannel.bind(address);
+            ReadWrite.writeLine(Main.LISTENING + serverChannel.getLocalAddress());
+            ReadWrite.flush();
+            while (serverChannel.isOpen()) {
+                SocketChannel channel = serverChannel.accept();
+                connections.execute(() -> handleConnection(channel));
+            }
+        } finally {
+            connections.shutdown();
+            if (unixSocket) {
+                Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            }
+        }
+    }
+    
+    /**
+     * Helping method, that creates the executor for the connections: 
+     * one virtual thread per connection, if the Java runtime has them; else one platform thread
+     * 
+     * @return - executor for the connections
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+    
+    /**
+     * Method, that handles the commands of one connection, until it sends "quit" or is closed
+     * 
+     * @param channel - channel of the connection
+     */
+    private void handleConnection(SocketChannel channel) {
+        Commands commands = new Commands(this.simulation);
+        try (channel; BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Channels.newInputStream(channel), StandardCharsets.UTF_8))) {
+            ReadWrite.bindOutput(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+            try {
+                String line = reader.readLine();
+                while (line != null && handleLine(commands, line)) {
+                    line = reader.readLine();
+                }
+            } finally {
+                ReadWrite.releaseOutput();
+            }
+        } catch (IOException e) {
+            //The client has closed the connection
+        }
+    }
+    
+    /**
+     * Helping method, that handles one command under the lock. 
+     * After a changing command the simulation is settled, so the following reading commands don't change it.
+     * 
+     * @param commands - command handler of the connection
+     * @param line - input line
+     * @return false - after the "quit"-command; else - true
+     */
+    private boolean handleLine(Commands commands, String line) {
+        boolean changing = Commands.changesSimulation(line);
+        Lock commandLock = changing ? this.lock.writeLock() : this.lock.readLock();
+        commandLock.lock();
+        try {
+            boolean running = commands.handleLine(line);
+            if (changing) {
+                this.simulation.settle();
+            }
+            return running;
+        } finally {
+            commandLock.unlock();
+        }
+    }
+}
@@ -1,63 +1,205 @@
 package edu.kit.informatik.main;
 
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
+import edu.kit.informatik.partition.PartitionCoordinator;
 
 /**
  * Class, that implements current session of the simulation.
  * @author ubvaa
- * @version 1.2
+ * @version 1.8
  */
 public class Session {
+    /**
+     * Maximal TCP port
+     */
+    private static final int MAX_PORT = 65535;
     /**
      * Attribute, that shows, if session is running or no
      */
     private static boolean isRunning = true;
     /**
-     * Attribute, that shows, if a correct path has been already at least once loaded
+     * Simulation of the session
      */
-    private static boolean isLoadedCorrect = false;
+    private final Simulation simulation = new Simulation();
+    /**
+     * Handler of the commands of the console
+     */
+    private final Commands commands = new Commands(this.simulation);
+    /**
+     * Address of the server mode, null - if the commands are read from the console
+     */
+    private SocketAddress serverAddress;
+    /**
+     * Amount of worker processes of a partitioned simulation, 0 - if the simulation isn't partitioned
+     */
+    private int partitionsAmount;
     
     /**
-     * Method, that reads user's input, until "quit" isn't entered
-     * @param arguments - command line arguments, that will be ignored
+     * Method, that reads user's input, until "quit" isn't entered. 
+     * Commands of a script or of an input, that isn't a console, are handled in batch mode.
+     * In server mode the commands are read from the connections of the server instead.
+     * @param arguments - command line arguments
      */
     public void begin(String[] arguments) {
+        if (!applyOptions(arguments) || this.serverAddress != null && ReadWrite.isBatch()) {
+            ReadWrite.writeError(Main.INVALID_OPTIONS);
+            ReadWrite.flush();
+            return;
+        }
+        PartitionCoordinator coordinator = null;
+        if (this.partitionsAmount > 0) {
+            try {
+                coordinator = PartitionCoordinator.start(this.partitionsAmount);
+                this.simulation.setPartitions(coordinator);
+            } catch (IOException e) {
+                ReadWrite.writeError(Main.INVALID_PARTITIONS + e.getMessage());
+                ReadWrite.flush();
+                return;
+            }
+        }
+        try {
+            run();
+        } finally {
+            //A run in the background is stopped, before its log and checkpoints are finished
+            this.simulation.cancelRun();
+            finishRecording();
+            finishCheckpoints();
+            if (coordinator != null) {
+                coordinator.close();
+            }
+        }
+    }
+    
+    /**
+     * Method, that handles the commands of the console or of the connections of the server
+     */
+    private void run() {
+        if (this.serverAddress != null) {
+            try {
+                new Server(this.simulation).serve(this.serverAddress);
+            } catch (IOException e) {
+                ReadWrite.writeError(Main.INVALID_SERVER + e.getMessage());
+            }
+            ReadWrite.flush();
+            return;
+        }
+        if (!ReadWrite.isBatch() && System.console() == null) {
+            ReadWrite.beginBatch(System.in);
+        }
         while (isRunning) {
             listen();
         }
+        ReadWrite.flush();
     }
     
     /**
-     * Method, that reads input of user and pass each input to Commands.handleLine(input)-Method
+     * Method, that finishes the trajectory log, which is still recorded at the end of the session
      */
-    private void listen() {
+    private void finishRecording() {
         try {
-            String input = ReadWrite.readLine();
-            Commands.handleLine(input);
+            this.simulation.stopRecording();
         } catch (IOException e) {
-            ReadWrite.writeError(Main.INVALID_COMMAND);
+            ReadWrite.writeError(Main.INVALID_TRAJECTORY + e.getMessage());
+            ReadWrite.flush();
         }
     }
     
     /**
-     * Method, that ends session after the "quit"-command
+     * Method, that waits for the checkpoint, which is still written at the end of the session
      */
-    public static void endSession() {
-        isRunning = false;
+    private void finishCheckpoints() {
+        try {
+            this.simulation.stopCheckpoints();
+        } catch (IOException e) {
+            ReadWrite.writeError(Main.INVALID_CHECKPOINT + e.getMessage());
+            ReadWrite.flush();
+        }
+    }
+    
+    /**
+     * Method, that applies command line options to the session
+     * @param arguments - command line arguments
+     * @return true - if all options are correct; else - false
+     */
+    private boolean applyOptions(String[] arguments) {
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i].equals(Main.OPTION_MAPPED)) {
+                this.simulation.setMemoryMappedLoading(true);
+            } else if (arguments[i].equals(Main.OPTION_SCRIPT) && i + 1 < arguments.length) {
+                try {
+                    ReadWrite.beginBatch(Files.newInputStream(Path.of(arguments[++i])));
+                } catch (IOException | InvalidPathException e) {
+                    return false;
+                }
+            } else if (arguments[i].equals(Main.OPTION_WORKERS) && i + 1 < arguments.length) {
+                try {
+                    int workersAmount = Integer.parseInt(arguments[++i]);
+                    if (workersAmount < 1) {
+                        return false;
+                    }
+                    this.simulation.setWorkers(workersAmount);
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            } else if (arguments[i].equals(Main.OPTION_PORT) && i + 1 < arguments.length) {
+                try {
+                    int port = Integer.parseInt(arguments[++i]);
+                    if (port < 0 || port > MAX_PORT) {
+                        return false;
+                    }
+                    this.serverAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            } else if (arguments[i].equals(Main.OPTION_PARTITIONS) && i + 1 < arguments.length) {
+                try {
+                    this.partitionsAmount = Integer.parseInt(arguments[++i]);
+                    if (this.partitionsAmount < 1) {
+                        return false;
+                    }
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            } else if (arguments[i].equals(Main.OPTION_SOCKET) && i + 1 < arguments.length) {
+                try {
+                    this.serverAddress = UnixDomainSocketAddress.of(arguments[++i]);
+                } catch (InvalidPathException e) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+        return true;
     }
     
     /**
-     * Method, that sets isLoadedCorrect to true, when first correct path is entered
+     * Method, that reads input of user and pass each input to Commands.handleLine(input)-Method
      */
-    public static void loadIsCorrect() {
-        isLoadedCorrect = true;
+    private void listen() {
+        try {
+            String input = ReadWrite.readLine();
+            if (input == null || !this.commands.handleLine(input)) {
+                endSession();
+                return;
+            }
+        } catch (IOException e) {
+            ReadWrite.writeError(Main.INVALID_COMMAND);
+        }
     }
     
     /**
-     * Method, that returns, if correct path has been ever loaded
-     * @return true - if yes, else - false
+     * Method, that ends session after the "quit"-command
      */
-    public static boolean isLoadedCorrectly() {
-        return isLoadedCorrect;
+    public static void endSession() {
+        isRunning = false;
     }
 }
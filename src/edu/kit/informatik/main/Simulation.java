@@ -0,0 +1,846 @@
+package edu.kit.informatik.main;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import edu.kit.informatik.car.Car;
+import edu.kit.informatik.car.CarStatePublisher;
+import edu.kit.informatik.car.CarStates;
+import edu.kit.informatik.car.CarStore;
+import edu.kit.informatik.crossing.CrossingNetwork;
+import edu.kit.informatik.partition.Partitions;
+import edu.kit.informatik.snapshot.Checkpoints;
+import edu.kit.informatik.snapshot.SnapshotReader;
+import edu.kit.informatik.snapshot.SnapshotWriter;
+import edu.kit.informatik.street.Street;
+import edu.kit.informatik.street.StreetExchange;
+import edu.kit.informatik.street.StreetNetwork;
+import edu.kit.informatik.trajectory.TrajectoryWriter;
+import edu.kit.kastel.trafficsimulation.io.SimulationFileLoader;
+import edu.kit.kastel.trafficsimulation.io.SimulationSource;
+
+/**
+ * Class, that implements one simulation: it owns a street network with its crossings and cars
+ * and simulates it tick by tick.
+ * 
+ * Simulations share no state, so many of them can be loaded and simulated on different threads at once,
+ * as long as every simulation is used by one thread at a time. Only after {@link #settle()} 
+ * the positions can be read by several threads at once.
+ * While a run is simulated in the background, the state of the cars after the latest completed tick 
+ * is published, so it can be read by other threads without stopping the ticks.
+ * Errors of the input files are written as in the "load"-command.
+ * 
+ * @author ubvaa
+ * @version 1.9
+ */
+public class Simulation {
+    /**
+     * Minimal amount of ticks of a "simulate"-command, from which on repeated states are detected
+     */
+    private static final int CYCLE_DETECTION_TICKS = 256;
+    /**
+     * Maximal amount of remembered state fingerprints during cycle detection
+     */
+    private static final int MAX_REMEMBERED_STATES = 1 << 20;
+    /**
+     * Crossings of the latest correct load, null - if nothing has been loaded correctly
+     */
+    private CrossingNetwork crossings;
+    /**
+     * Streets of the latest correct load, null - if nothing has been loaded correctly
+     */
+    private StreetNetwork streets;
+    /**
+     * Store with the state of all cars of the latest correct load, null - if nothing has been loaded correctly
+     */
+    private CarStore carStore;
+    /**
+     * Pool of the worker threads for parallel ticks, null - if ticks are sequential
+     */
+    private ForkJoinPool tickPool;
+    /**
+     * Attribute, that shows, if the simulation files are loaded memory-mapped
+     */
+    private boolean memoryMappedLoading = false;
+    /**
+     * Replicas of the partitions, that simulate the ticks; null - if it is simulated alone
+     */
+    private Partitions partitions;
+    /**
+     * Attribute, that shows, if the partitions have simulated ticks, since their streets have been taken over
+     */
+    private boolean partitionsAhead;
+    /**
+     * Connection to the replicas of the other partitions, if this is the replica of one partition; else - null
+     */
+    private StreetExchange exchange;
+    /**
+     * Log, to which the state of the cars is appended after every tick; null - if nothing is recorded
+     */
+    private TrajectoryWriter trajectory;
+    /**
+     * Periodic checkpoints of the simulation; null - if no checkpoints are written
+     */
+    private Checkpoints checkpoints;
+    /**
+     * Amount of ticks since the latest checkpoint
+     */
+    private long ticksSinceCheckpoint;
+    /**
+     * Tick of the loaded snapshot, from which the ticks of the network are counted; 0 - if files have been loaded
+     */
+    private long loadedTick;
+    /**
+     * Publisher of the state of the cars during a run in the background, null - if no run is simulated
+     */
+    private volatile CarStatePublisher publisher;
+    /**
+     * Thread, that simulates the run in the background, null - if no run has been started
+     */
+    private Thread runThread;
+    /**
+     * Attribute, that shows, if a run is simulated in the background
+     */
+    private volatile boolean running;
+    /**
+     * Attribute, that shows, if the run in the background must be stopped after the current tick
+     */
+    private volatile boolean cancelRequested;
+    /**
+     * Tick, from which the latest run has been started
+     */
+    private long runStart;
+    /**
+     * Amount of ticks of the latest run
+     */
+    private volatile long runTicks;
+    /**
+     * Amount of completed ticks of the latest run
+     */
+    private volatile long completedTicks;
+    /**
+     * Error of the latest run, null - if it hasn't failed
+     */
+    private volatile String runFailure;
+    
+    /**
+     * Method, that sets the amount of worker threads for the ticks.
+     * With more than one worker streets are moved in parallel, the results stay identical.
+     * 
+     * @param workersAmount - amount of worker threads
+     */
+    public void setWorkers(int workersAmount) {
+        if (this.tickPool != null) {
+            this.tickPool.shutdown();
+        }
+        this.tickPool = workersAmount > 1 ? new ForkJoinPool(workersAmount) : null;
+    }
+    
+    /**
+     * Method, that sets, if the simulation files are loaded memory-mapped and parsed in parallel.
+     * The loaded network and the errors stay identical.
+     * 
+     * @param memoryMapped - true - if the files are loaded memory-mapped; else - false
+     */
+    public void setMemoryMappedLoading(boolean memoryMapped) {
+        this.memoryMappedLoading = memoryMapped;
+    }
+    
+    /**
+     * Method, that lets the replicas of the partitions of the simulation simulate its ticks, 
+     * e.g. worker processes. Loads and skipped ticks are passed to the replicas, and their streets 
+     * with the cars are taken over, when the simulation is queried, so all results stay identical 
+     * to a simulation, that is simulated alone. The worker threads of the ticks aren't used then.
+     * 
+     * @param partitions - replicas of the partitions
+     */
+    public void setPartitions(Partitions partitions) {
+        this.partitions = partitions;
+    }
+    
+    /**
+     * Method, that makes the simulation the replica of one partition, which simulates the ticks together 
+     * with the replicas of the other partitions. The network is partitioned, when it is loaded.
+     * 
+     * @param exchange - connection to the replicas of the other partitions
+     */
+    public void setExchange(StreetExchange exchange) {
+        this.exchange = exchange;
+    }
+    
+    /**
+     * Method, that shows, if a network has been loaded correctly at least once
+     * 
+     * @return true - if yes; else - false
+     */
+    public boolean isLoaded() {
+        return this.carStore != null;
+    }
+    
+    /**
+     * Method, that loads the street network from the folder.
+     * 
+     * @param path - path to the folder with the simulation files
+     * @return - true, if the network is loaded; else - false
+     * @throws IOException if the folder or one of the files can't be read
+     * @see #load(SimulationSource)
+     */
+    public boolean load(String path) throws IOException {
+        SimulationFileLoader fileLoader = new SimulationFileLoader(path, this.memoryMappedLoading);
+        fileLoader.checkFiles();
+        return loadNetwork(fileLoader, path);
+    }
+    
+    /**
+     * Method, that loads the street network from the records of the simulation files.
+     * 
+     * Firstly, it loads the records into a new network and checks, if it is correct.
+     * If it is, the cars are positioned on the streets and the new network replaces the simulated one.
+     * Else the simulated network stays unchanged.
+     * 
+     * A simulation with partitions is only loaded from folders, which the replicas load first.
+     * 
+     * @param source - source of the records, e.g. the files or records, that have been parsed before
+     * @return - true, if the network is loaded; else - false
+     * @throws IOException if the records can't be read
+     */
+    public boolean load(SimulationSource source) throws IOException {
+        if (this.partitions != null) {
+            throw new IllegalStateException("a simulation with partitions is only loaded from folders");
+        }
+        return loadNetwork(source, null);
+    }
+    
+    /**
+     * Helping method, that loads the street network from the records into a new network and checks it. 
+     * The replicas of the partitions load the folder first, the network is only replaced, 
+     * after all of them have loaded it.
+     * 
+     * @param source - source of the records
+     * @param path - path to the folder of the records, which the partitions load
+     * @return - true, if the network is loaded; else - false
+     * @throws IOException if the records can't be read
+     */
+    private boolean loadNetwork(SimulationSource source, String path) throws IOException {
+        boolean partitionsLoaded = this.partitions != null && this.partitions.load(path);
+        CrossingNetwork newCrossings = new CrossingNetwork();
+        CarStore newCarStore = new CarStore(0);
+        StreetNetwork newStreets = new StreetNetwork(newCrossings, newCarStore);
+        if (newCrossings.checkInput(source) && newStreets.checkInput(source)
+                && Car.checkInput(source, newCarStore, newStreets)) {
+            if (newCrossings.checkStreets() && newStreets.checkCars()) {
+                commitPartitions(partitionsLoaded, path);
+                compileNetwork(newCrossings, newStreets);
+                newStreets.positionCars();
+                replaceNetwork(newCrossings, newStreets, newCarStore, 0);
+                recordNetwork();
+                return true;
+            }
+        }
+        if (partitionsLoaded) {
+            this.partitions.abortLoad();
+        }
+        return false;
+    }
+    
+    /**
+     * Helping method, that lets the replicas of the partitions replace their networks by the loaded ones, 
+     * after this simulation has checked the network as well
+     * 
+     * @param partitionsLoaded - true - if all partitions have loaded the network; else - false
+     * @param path - path of the loaded folder or snapshot
+     * @throws IOException if a partition hasn't loaded the network or can't be reached
+     */
+    private void commitPartitions(boolean partitionsLoaded, String path) throws IOException {
+        if (this.partitions == null) {
+            return;
+        }
+        if (!partitionsLoaded) {
+            throw new IOException("a partition can't load " + path);
+        }
+        this.partitions.commitLoad();
+    }
+    
+    /**
+     * Method, that continues the simulation from the snapshot file.
+     * Only if the whole snapshot is correct, it replaces the simulated network: the IDs of the cars are unique, 
+     * every car is on exactly one existing street, which holds it, with a position on this street, 
+     * and the crossings refer to existing streets.
+     * Else the simulated network stays unchanged. The replicas of the partitions load the snapshot first.
+     * 
+     * @param file - path of the snapshot file
+     * @return - tick of the snapshot, counted since the simulation files have been loaded
+     * @throws IOException if the snapshot can't be read or is corrupted
+     */
+    public long loadSnapshot(Path file) throws IOException {
+        boolean partitionsLoaded = this.partitions != null && this.partitions.loadSnapshot(file);
+        long tick;
+        CarStore newCarStore;
+        CrossingNetwork newCrossings = new CrossingNetwork();
+        StreetNetwork newStreets;
+        try {
+            SnapshotReader reader = SnapshotReader.open(file);
+            tick = reader.getTick();
+            newCarStore = CarStore.read(reader);
+            newStreets = new StreetNetwork(newCrossings, newCarStore);
+            newStreets.restoreState(reader);
+            newCrossings.restoreState(reader, newStreets);
+            if (reader.remaining() != 0) {
+                throw new IOException("snapshot is corrupted");
+            }
+        } catch (IOException e) {
+            if (partitionsLoaded) {
+                this.partitions.abortLoad();
+            }
+            throw e;
+        }
+        commitPartitions(partitionsLoaded, file.toString());
+        compileNetwork(newCrossings, newStreets);
+        replaceNetwork(newCrossings, newStreets, newCarStore, tick);
+        recordNetwork();
+        return tick;
+    }
+    
+    /**
+     * Method, that writes the whole state of the simulation to a binary snapshot file,
+     * from which the simulation can be continued with {@link #loadSnapshot(Path)}
+     * 
+     * @param file - path of the snapshot file
+     * @throws IOException if the file can't be written
+     */
+    public void save(Path file) throws IOException {
+        captureState().writeTo(file);
+    }
+    
+    /**
+     * Helping method, that prepares the checked network for the ticks
+     * 
+     * @param newCrossings - crossings of the checked network
+     * @param newStreets - streets of the checked network
+     */
+    private void compileNetwork(CrossingNetwork newCrossings, StreetNetwork newStreets) {
+        newCrossings.compile(newStreets);
+        newStreets.compile();
+    }
+    
+    /**
+     * Helping method, that makes the compiled network with the positioned cars the simulated one. 
+     * The replica of a partition keeps only its part of the network up to date.
+     * 
+     * @param newCrossings - crossings of the checked network
+     * @param newStreets - streets of the checked network
+     * @param newCarStore - store with the state of the cars of the checked network
+     * @param tick - tick of the loaded snapshot; 0 - if files have been loaded
+     */
+    private void replaceNetwork(CrossingNetwork newCrossings, StreetNetwork newStreets, CarStore newCarStore, 
+            long tick) {
+        if (this.exchange != null) {
+            newStreets.partition(this.exchange);
+        }
+        this.crossings = newCrossings;
+        this.streets = newStreets;
+        this.carStore = newCarStore;
+        this.loadedTick = tick;
+        this.partitionsAhead = false;
+    }
+    
+    /**
+     * Method, that starts to record the state of all cars after every tick to a trajectory log, 
+     * beginning with the current state. A previous recording is finished before.
+     * 
+     * @param file - path of the log file, it is replaced, if it exists
+     * @throws IOException if the file can't be created or the previous log couldn't be written completely
+     */
+    public void startRecording(Path file) throws IOException {
+        stopRecording();
+        this.trajectory = new TrajectoryWriter(file);
+        if (isLoaded()) {
+            recordNetwork();
+        }
+    }
+    
+    /**
+     * Method, that finishes the recording and writes the rest of the trajectory log
+     * 
+     * @return - true - if a recording has been finished; false - if nothing has been recorded
+     * @throws IOException if the log couldn't be written completely
+     */
+    public boolean stopRecording() throws IOException {
+        if (this.trajectory == null) {
+            return false;
+        }
+        TrajectoryWriter finished = this.trajectory;
+        this.trajectory = null;
+        finished.close();
+        return true;
+    }
+    
+    /**
+     * Method, that starts to write a checkpoint of the simulation every interval ticks. 
+     * The state is captured between two ticks and written by a background thread, 
+     * previous checkpoints are finished before.
+     * 
+     * @param folder - folder of the checkpoints
+     * @param interval - amount of ticks from one checkpoint to the next one
+     * @throws IOException if the folder can't be used or a previous checkpoint couldn't be written
+     */
+    public void startCheckpoints(Path folder, long interval) throws IOException {
+        stopCheckpoints();
+        this.checkpoints = new Checkpoints(folder, interval);
+        this.ticksSinceCheckpoint = 0;
+    }
+    
+    /**
+     * Method, that stops the checkpoints, after the latest captured one has been written
+     * 
+     * @return - stopped checkpoints; null - if no checkpoints have been written
+     * @throws IOException if a checkpoint couldn't be written
+     */
+    public Checkpoints stopCheckpoints() throws IOException {
+        if (this.checkpoints == null) {
+            return null;
+        }
+        Checkpoints finished = this.checkpoints;
+        this.checkpoints = null;
+        finished.close();
+        return finished;
+    }
+    
+    /**
+     * Method, that continues the simulation from the latest complete checkpoint of the folder, 
+     * e.g. after a crash
+     * 
+     * @param folder - folder of the checkpoints
+     * @return - tick of the checkpoint, counted since the simulation files have been loaded
+     * @throws IOException if there is no checkpoint or it can't be read
+     */
+    public long recover(Path folder) throws IOException {
+        return loadSnapshot(Checkpoints.findLatest(folder));
+    }
+    
+    /**
+     * Helping method, that captures a checkpoint and queues it for the writer thread
+     */
+    private void captureCheckpoint() {
+        captureState(this.checkpoints.beginCapture());
+        this.checkpoints.commitCapture();
+        this.ticksSinceCheckpoint = 0;
+    }
+    
+    /**
+     * Helping method, that starts the loaded network in the trajectory log with its current state
+     */
+    private void recordNetwork() {
+        if (this.trajectory != null) {
+            pullPartitions();
+            this.streets.leaveFreeFlowAll();
+            this.trajectory.writeNetwork(this.carStore);
+            this.trajectory.writeTick(getTick(), this.carStore);
+        }
+    }
+    
+    /**
+     * Helping method, that counts simulated or skipped ticks for the checkpoints 
+     * and captures a checkpoint, when the interval has passed
+     * 
+     * @param ticksAmount - amount of ticks, that have passed
+     */
+    private void countCheckpointTicks(long ticksAmount) {
+        if (this.checkpoints == null) {
+            return;
+        }
+        this.ticksSinceCheckpoint += ticksAmount;
+        if (this.ticksSinceCheckpoint >= this.checkpoints.getInterval()) {
+            captureCheckpoint();
+        }
+    }
+    
+    /**
+     * Method, that simulates the ticks. From {@link #CYCLE_DETECTION_TICKS} ticks on repeated states are detected, 
+     * unless every tick is recorded.
+     * 
+     * @param ticksAmount - amount of the ticks
+     */
+    public void simulate(long ticksAmount) {
+        if (ticksAmount < CYCLE_DETECTION_TICKS || this.trajectory != null) {
+            for (long i = 1; i <= ticksAmount && !this.cancelRequested; i++) {
+                tick();
+            }
+        } else {
+            simulateWithCycleDetection(ticksAmount);
+        }
+    }
+    
+    /**
+     * Method, that simulates the ticks and jumps over repeated cycles of the whole state.
+     * 
+     * After every tick the fingerprint of the cars and the phase of the traffic lights are remembered.
+     * If a fingerprint repeats after p ticks, the state is captured and p more ticks are simulated.
+     * Only if the state is then exactly the same, the remaining whole cycles of p ticks are skipped,
+     * so all outputs stay identical to simulating every tick.
+     * The fingerprints are only remembered after ticks without streets in free flow.
+     * 
+     * @param ticksAmount - amount of the ticks
+     */
+    private void simulateWithCycleDetection(long ticksAmount) {
+        //The replicas of the partitions keep the fingerprints of their cars up to date
+        if (this.partitions == null) {
+            this.carStore.startHashing();
+        }
+        Map<Long, Long> seenStates = new HashMap<>();
+        long tick = 0;
+        while (tick < ticksAmount && !this.cancelRequested) {
+            //The fingerprint doesn't hold the rides of the streets in free flow
+            if (isAnyInFreeFlow()) {
+                tick();
+                tick++;
+                continue;
+            }
+            long stateKey = getStateHash() ^ this.crossings.getLightsPhase() * 0x9E3779B97F4A7C15L;
+            Long seenTick = seenStates.put(stateKey, tick);
+            if (seenTick != null && tick + (tick - seenTick) <= ticksAmount) {
+                long period = tick - seenTick;
+                SnapshotWriter state = captureState();
+                for (long i = 0; i < period && !this.cancelRequested; i++) {
+                    tick();
+                }
+                tick += period;
+                if (!this.cancelRequested && captureState().hasSameContent(state)) {
+                    long skippedTicks = (ticksAmount - tick) / period * period;
+                    skipTicks(skippedTicks);
+                    tick += skippedTicks;
+                }
+                seenStates.clear();
+                continue;
+            } else if (seenStates.size() >= MAX_REMEMBERED_STATES) {
+                seenStates.clear();
+            }
+            tick();
+            tick++;
+        }
+        if (this.partitions == null) {
+            this.carStore.stopHashing();
+        }
+    }
+    
+    /**
+     * Getter for the fingerprint of the state of all cars. It is kept up to date during the detection 
+     * of repeated states and in the replica of a partition, which only holds the fingerprint of its own cars.
+     * 
+     * @return - fingerprint of the state of the cars
+     */
+    public long getStateHash() {
+        return this.partitions != null ? this.partitions.getStateHash() : this.carStore.getStateHash();
+    }
+    
+    /**
+     * Method, that shows, if any street has been in free flow after the latest tick
+     * 
+     * @return true - if yes; else - false
+     */
+    public boolean isAnyInFreeFlow() {
+        return this.partitions != null ? this.partitions.isAnyInFreeFlow() : this.streets.isAnyInFreeFlow();
+    }
+    
+    /**
+     * Method, that writes the streets of the partition of this replica with their cars, 
+     * so the simulation of the partitions can take them over
+     * 
+     * @return - buffer with the streets from the position to the limit, that is reused by the next call
+     */
+    public ByteBuffer writePartition() {
+        return this.streets.writePartition();
+    }
+    
+    /**
+     * Helping method, that takes over the streets and cars of the partitions, 
+     * if they have simulated ticks since the latest time
+     */
+    private void pullPartitions() {
+        if (this.partitionsAhead) {
+            for (ByteBuffer partitionCars : this.partitions.pull()) {
+                this.streets.readPartition(partitionCars);
+            }
+            this.partitionsAhead = false;
+        }
+    }
+    
+    /**
+     * Method, that jumps over ticks, after which the simulation is exactly in the same state, 
+     * e.g. whole cycles of repeated states. The replicas of the simulation jump over them as well. 
+     * The skipped ticks count for the checkpoints like simulated ones.
+     * 
+     * @param ticksAmount - amount of the skipped ticks
+     */
+    public void skipTicks(long ticksAmount) {
+        this.crossings.skipTicks(ticksAmount);
+        if (this.partitions != null) {
+            this.partitions.skipTicks(ticksAmount);
+        }
+        countCheckpointTicks(ticksAmount);
+        if (this.publisher != null) {
+            publishState();
+        }
+    }
+    
+    /**
+     * Method, that starts to simulate the ticks on a background thread. 
+     * After every completed tick the state of the cars is published, so it can be read with 
+     * {@link #acquireStates()} by other threads, while the run goes on. 
+     * Until the run is finished, the simulation mustn't be used otherwise.
+     * 
+     * @param ticksAmount - amount of the ticks
+     */
+    public void startRun(long ticksAmount) {
+        this.runStart = getTick();
+        this.runTicks = ticksAmount;
+        this.completedTicks = 0;
+        this.runFailure = null;
+        this.cancelRequested = false;
+        this.publisher = new CarStatePublisher();
+        publishState();
+        this.running = true;
+        this.runThread = new Thread(() -> runInBackground(ticksAmount), "simulation-run");
+        this.runThread.setDaemon(true);
+        this.runThread.start();
+    }
+    
+    /**
+     * Method of the background thread, that simulates the run and settles the simulation at its end
+     * 
+     * @param ticksAmount - amount of the ticks
+     */
+    private void runInBackground(long ticksAmount) {
+        try {
+            simulate(ticksAmount);
+        } catch (UncheckedIOException e) {
+            this.runFailure = e.getMessage();
+        } finally {
+            this.streets.leaveFreeFlowAll();
+            this.publisher = null;
+            this.running = false;
+        }
+    }
+    
+    /**
+     * Method, that stops the run in the background after the current tick and waits for its end
+     */
+    public void cancelRun() {
+        if (this.runThread == null) {
+            return;
+        }
+        this.cancelRequested = true;
+        try {
+            this.runThread.join();
+            this.cancelRequested = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Method, that shows, if a run is simulated in the background at the moment
+     * 
+     * @return true - if yes; else - false
+     */
+    public boolean isRunning() {
+        return this.running;
+    }
+    
+    /**
+     * Getter for the amount of ticks of the latest run
+     * 
+     * @return - amount of ticks
+     */
+    public long getRunTicks() {
+        return this.runTicks;
+    }
+    
+    /**
+     * Getter for the amount of completed ticks of the latest run
+     * 
+     * @return - amount of ticks
+     */
+    public long getCompletedTicks() {
+        return this.completedTicks;
+    }
+    
+    /**
+     * Getter for the error of the latest run
+     * 
+     * @return - message of the error; null - if the run hasn't failed
+     */
+    public String getRunFailure() {
+        return this.runFailure;
+    }
+    
+    /**
+     * Method, that pins the state of the cars after the latest completed tick of the run in the background. 
+     * The state must be released with {@link #releaseStates(CarStates)}.
+     * 
+     * @return - state of the cars; null - if no run is simulated
+     */
+    public CarStates acquireStates() {
+        CarStatePublisher current = this.publisher;
+        return current == null ? null : current.acquire();
+    }
+    
+    /**
+     * Method, that releases the pinned state of the cars
+     * 
+     * @param states - state from {@link #acquireStates()}
+     */
+    public void releaseStates(CarStates states) {
+        CarStatePublisher.release(states);
+    }
+    
+    /**
+     * Helping method, that publishes the state of the cars after the current tick, 
+     * the streets in free flow stay in it
+     */
+    private void publishState() {
+        pullPartitions();
+        CarStates states = this.publisher.fill(this.carStore, getTick());
+        this.streets.addFreeFlowRides(states);
+        this.publisher.publish(states);
+        this.completedTicks = getTick() - this.runStart;
+    }
+    
+    /**
+     * Helping method, that captures the whole state of the simulation
+     * 
+     * @return - snapshot of the state
+     */
+    private SnapshotWriter captureState() {
+        SnapshotWriter writer = new SnapshotWriter();
+        captureState(writer);
+        return writer;
+    }
+    
+    /**
+     * Helping method, that captures the whole state of the simulation into the empty snapshot 
+     * with the tick, that is counted since the simulation files have been loaded
+     * 
+     * @param writer - empty snapshot
+     */
+    private void captureState(SnapshotWriter writer) {
+        pullPartitions();
+        this.streets.leaveFreeFlowAll();
+        writer.setTick(this.loadedTick + getTick());
+        this.carStore.write(writer);
+        this.streets.saveState(writer);
+        this.crossings.saveState(writer);
+    }
+    
+    /**
+     * Method, that simulates one tick: the streets move their cars, then the crossings and the cars are updated. 
+     * With partitions the replicas simulate the tick, and this simulation only follows the traffic lights. 
+     * While recording, the streets leave the free flow after the tick, so the state of every car is logged. 
+     * Checkpoints are captured after the tick.
+     */
+    public void tick() {
+        if (this.partitions != null) {
+            this.partitions.tick();
+            this.partitionsAhead = true;
+        } else if (this.exchange != null) {
+            this.streets.updatePartition();
+        } else if (this.tickPool == null) {
+            this.streets.updateStreets();
+        } else {
+            this.streets.updateStreets(this.tickPool);
+        }
+        this.crossings.updateCrossings();
+        if (this.partitions == null) {
+            this.carStore.updateCars();
+        }
+        if (this.trajectory != null) {
+            pullPartitions();
+            this.streets.leaveFreeFlowAll();
+            this.trajectory.writeTick(getTick(), this.carStore);
+        }
+        countCheckpointTicks(1);
+        if (this.publisher != null) {
+            publishState();
+        }
+    }
+    
+    /**
+     * Getter for the amount of ticks, that have been simulated since the latest correct load
+     * 
+     * @return - amount of ticks
+     */
+    public long getTick() {
+        return this.crossings.getTick();
+    }
+    
+    /**
+     * Getter for the amount of cars
+     * 
+     * @return - amount of cars
+     */
+    public int getCarsAmount() {
+        return this.carStore.size();
+    }
+    
+    /**
+     * Getter for the car (by ID). The streets of the partitions are taken over and the street of the car 
+     * leaves the free flow, so the car shows the state of the current tick until the next tick. 
+     * During a run in the background nothing is changed, the state is read from {@link #acquireStates()} then.
+     * 
+     * @param id - ID of the car to be found
+     * @return - Car with this ID, if it exists; else - null
+     */
+    public Car getCar(int id) {
+        Car car = this.carStore.getCar(id);
+        if (car != null && !this.running) {
+            pullPartitions();
+            this.streets.settleCar(car.getSlot());
+        }
+        return car;
+    }
+    
+    /**
+     * Getter for the street (by ID)
+     * 
+     * @param id - ID of the street
+     * @return - Street with this ID, if it exists; else - null
+     */
+    public Street getStreet(int id) {
+        pullPartitions();
+        return this.streets.getStreet(id);
+    }
+    
+    /**
+     * Method, that brings all streets out of free flow, so the cars hold the state of the current tick. 
+     * After that, reading the positions and saving don't change the simulation 
+     * and can be done by several threads at once, until the next tick. 
+     * During a run in the background nothing is changed, the run settles the simulation at its end.
+     */
+    public void settle() {
+        if (isLoaded() && !this.running) {
+            pullPartitions();
+            this.streets.leaveFreeFlowAll();
+        }
+    }
+    
+    /**
+     * Method, that reads the current position record "carID,streetID,speed,position" of the car.
+     * The street of the car leaves the free flow, so the record holds the state of the current tick.
+     * 
+     * @param slot - slot of the car, from 0 to the amount of cars - 1
+     * @param record - array of at least 4 fields, to which the record is written
+     */
+    public void readPosition(int slot, int[] record) {
+        pullPartitions();
+        this.streets.settleCar(slot);
+        record[0] = this.carStore.getID(slot);
+        record[1] = this.carStore.getStreetID(slot);
+        record[2] = this.carStore.getCurrentSpeed(slot);
+        record[3] = this.carStore.getPosition(slot);
+    }
+}
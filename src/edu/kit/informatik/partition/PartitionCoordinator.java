@@ -0,0 +1,303 @@
+package edu.kit.informatik.partition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Coordinator of a partitioned simulation: it starts one worker process for each partition on this machine
+ * and connects the simulation with them over sockets on localhost. The workers connect with each other, too.
+ * 
+ * Every worker owns a range of crossings with the streets, that end at them: it switches their traffic lights,
+ * moves the cars on the streets and turns them at the crossings. Only the states of the streets, that start
+ * at a crossing of another partition, and the cars, that turn into them, are exchanged between the workers
+ * during a tick. The coordinator only sends the messages and combines the fingerprints of the cars,
+ * that the workers answer. It takes over the streets and cars of the workers, when its simulation is queried.
+ * 
+ * @author ubvaa
+ * @version 1.1
+ */
+public final class PartitionCoordinator implements Partitions, Closeable {
+    /**
+     * Maximal time, that the workers may take to connect, in milliseconds
+     */
+    private static final int CONNECT_TIMEOUT = 60000;
+    
+    /**
+     * Processes of the workers
+     */
+    private final Process[] processes;
+    /**
+     * Connections to the workers by the index of their partition
+     */
+    private final Socket[] sockets;
+    /**
+     * Inputs of the connections
+     */
+    private final DataInputStream[] inputs;
+    /**
+     * Outputs of the connections
+     */
+    private final DataOutputStream[] outputs;
+    /**
+     * Buffers for the streets of each partition, that are reused by every pull
+     */
+    private final byte[][] partitionCars;
+    /**
+     * Streets of each partition of the latest pull
+     */
+    private final ByteBuffer[] pulled;
+    /**
+     * Combined fingerprint of the cars after the latest message
+     */
+    private long stateHash;
+    /**
+     * Shows, if any street has been in free flow after the latest message
+     */
+    private boolean anyInFreeFlow;
+    
+    /**
+     * Constructor of a coordinator without workers
+     * 
+     * @param amount - amount of partitions
+     */
+    private PartitionCoordinator(int amount) {
+        this.processes = new Process[amount];
+        this.sockets = new Socket[amount];
+        this.inputs = new DataInputStream[amount];
+        this.outputs = new DataOutputStream[amount];
+        this.partitionCars = new byte[amount][0];
+        this.pulled = new ByteBuffer[amount];
+    }
+    
+    /**
+     * Method, that starts the worker processes with the Java runtime and the class path of this process
+     * and waits, until all of them are connected with the coordinator and with each other
+     * 
+     * @param amount - amount of partitions, at least 1
+     * @return - coordinator of the workers
+     * @throws IOException if a worker can't be started or doesn't connect
+     */
+    public static PartitionCoordinator start(int amount) throws IOException {
+        if (amount < 1) {
+            throw new IllegalArgumentException("at least 1 partition is needed");
+        }
+        PartitionCoordinator coordinator = new PartitionCoordinator(amount);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        try (ServerSocket serverSocket = new ServerSocket(0, amount, InetAddress.getLoopbackAddress())) {
+            serverSocket.setSoTimeout(CONNECT_TIMEOUT);
+            for (int index = 0; index < amount; index++) {
+                coordinator.processes[index] = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        PartitionWorker.class.getName(), String.valueOf(serverSocket.getLocalPort()),
+                        String.valueOf(index), String.valueOf(amount))
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            }
+            int[] peerPorts = new int[amount];
+            for (int i = 0; i < amount; i++) {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream(),
+                        PartitionWorker.BUFFER_SIZE));
+                int index = input.readInt();
+                peerPorts[index] = input.readInt();
+                coordinator.sockets[index] = socket;
+                coordinator.inputs[index] = input;
+                coordinator.outputs[index] = new DataOutputStream(new BufferedOutputStream(
+                        socket.getOutputStream(), PartitionWorker.BUFFER_SIZE));
+            }
+            for (DataOutputStream output : coordinator.outputs) {
+                for (int peerPort : peerPorts) {
+                    output.writeInt(peerPort);
+                }
+                output.flush();
+            }
+            //Every worker answers, when it is connected with all other workers
+            for (DataInputStream input : coordinator.inputs) {
+                input.readBoolean();
+            }
+        } catch (IOException | RuntimeException e) {
+            coordinator.close();
+            throw e;
+        }
+        return coordinator;
+    }
+    
+    @Override
+    public int getPartitionsAmount() {
+        return this.processes.length;
+    }
+    
+    @Override
+    public boolean load(String path) throws IOException {
+        for (DataOutputStream output : this.outputs) {
+            output.writeByte(PartitionWorker.LOAD);
+            output.writeUTF(path);
+            output.flush();
+        }
+        return awaitLoads();
+    }
+    
+    @Override
+    public boolean loadSnapshot(Path file) throws IOException {
+        for (DataOutputStream output : this.outputs) {
+            output.writeByte(PartitionWorker.LOAD_SNAPSHOT);
+            output.writeUTF(file.toString());
+            output.flush();
+        }
+        return awaitLoads();
+    }
+    
+    /**
+     * Helping method, that waits for the answers of all workers to a load.
+     * If any worker hasn't loaded, all workers discard their loaded networks.
+     * 
+     * @return true - if all workers have loaded; false - if the load has been discarded
+     * @throws IOException if a worker can't be reached
+     */
+    private boolean awaitLoads() throws IOException {
+        boolean loaded = true;
+        for (DataInputStream input : this.inputs) {
+            loaded &= input.readBoolean();
+        }
+        if (!loaded) {
+            abortLoad();
+        }
+        return loaded;
+    }
+    
+    @Override
+    public void commitLoad() throws IOException {
+        sendMessage(PartitionWorker.COMMIT);
+        awaitStates(false);
+    }
+    
+    @Override
+    public void abortLoad() throws IOException {
+        sendMessage(PartitionWorker.ABORT);
+    }
+    
+    @Override
+    public void tick() {
+        try {
+            sendMessage(PartitionWorker.TICK);
+            awaitStates(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void skipTicks(long ticksAmount) {
+        try {
+            for (DataOutputStream output : this.outputs) {
+                output.writeByte(PartitionWorker.SKIP);
+                output.writeLong(ticksAmount);
+                output.flush();
+            }
+            awaitStates(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public ByteBuffer[] pull() {
+        try {
+            sendMessage(PartitionWorker.PULL);
+            awaitStates(true);
+            return this.pulled;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public long getStateHash() {
+        return this.stateHash;
+    }
+    
+    @Override
+    public boolean isAnyInFreeFlow() {
+        return this.anyInFreeFlow;
+    }
+    
+    /**
+     * Helping method, that sends a message without arguments to all workers
+     * 
+     * @param message - message
+     * @throws IOException if a worker can't be reached
+     */
+    private void sendMessage(byte message) throws IOException {
+        for (DataOutputStream output : this.outputs) {
+            output.writeByte(message);
+            output.flush();
+        }
+    }
+    
+    /**
+     * Helping method, that waits for the answers of all workers and combines the fingerprints of their cars
+     * 
+     * @param withCars - true - if the workers send their streets before, which are kept for {@link #pull()}
+     * @throws IOException if a worker can't be reached
+     */
+    private void awaitStates(boolean withCars) throws IOException {
+        long combinedHash = 0;
+        boolean freeFlow = false;
+        for (int index = 0; index < this.inputs.length; index++) {
+            DataInputStream input = this.inputs[index];
+            if (withCars) {
+                int length = input.readInt();
+                if (this.partitionCars[index].length < length) {
+                    this.partitionCars[index] = new byte[length];
+                }
+                input.readFully(this.partitionCars[index], 0, length);
+                this.pulled[index] = ByteBuffer.wrap(this.partitionCars[index], 0, length);
+            }
+            //The cars of the partitions are disjoint, so their fingerprints combine like the one of all cars
+            combinedHash ^= input.readLong();
+            freeFlow |= input.readBoolean();
+        }
+        this.stateHash = combinedHash;
+        this.anyInFreeFlow = freeFlow;
+    }
+    
+    /**
+     * Method, that ends all workers and waits for their processes
+     */
+    @Override
+    public void close() {
+        for (int index = 0; index < this.processes.length; index++) {
+            try {
+                if (this.outputs[index] != null) {
+                    this.outputs[index].writeByte(PartitionWorker.QUIT);
+                    this.outputs[index].flush();
+                }
+                if (this.sockets[index] != null) {
+                    this.sockets[index].close();
+                }
+            } catch (IOException e) {
+                //The worker has already ended
+            }
+        }
+        for (Process process : this.processes) {
+            if (process != null) {
+                try {
+                    process.waitFor();
+                } catch (InterruptedException e) {
+                    process.destroy();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package edu.kit.informatik.partition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import edu.kit.informatik.main.Simulation;
+import edu.kit.informatik.street.StreetExchange;
+
+/**
+ * Worker process of a partitioned simulation: it holds the replica of one partition of the simulation
+ * of the coordinator and simulates its crossings and streets in every tick.
+ * 
+ * The worker connects to the coordinator on localhost and with the workers of all other partitions,
+ * then it handles the messages of the coordinator, until the connection is closed. The records of the other
+ * workers are received by one thread for each worker, so no worker waits for another one to read.
+ * 
+ * Usage: {@code PartitionWorker <port> <index> <amount>}
+ * 
+ * @author ubvaa
+ * @version 1.1
+ */
+public final class PartitionWorker implements StreetExchange {
+    /**
+     * Message, that loads a folder
+     */
+    static final byte LOAD = 1;
+    /**
+     * Message, that loads a snapshot
+     */
+    static final byte LOAD_SNAPSHOT = 2;
+    /**
+     * Message, that simulates one tick
+     */
+    static final byte TICK = 3;
+    /**
+     * Message, that jumps over ticks
+     */
+    static final byte SKIP = 4;
+    /**
+     * Message, that ends the worker
+     */
+    static final byte QUIT = 5;
+    /**
+     * Message, that replaces the network by the loaded one
+     */
+    static final byte COMMIT = 6;
+    /**
+     * Message, that discards the loaded network
+     */
+    static final byte ABORT = 7;
+    /**
+     * Message, that sends the streets of the partition with their cars
+     */
+    static final byte PULL = 8;
+    /**
+     * Size of the buffers of the connection
+     */
+    static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * Maximal time, that the other workers may take to connect, in milliseconds
+     */
+    private static final int CONNECT_TIMEOUT = 60000;
+    /**
+     * Marker of a lost connection to another worker in its queue
+     */
+    private static final ByteBuffer LOST = ByteBuffer.allocate(0);
+    
+    /**
+     * Index of the partition of the worker
+     */
+    private final int index;
+    /**
+     * Input of the connection to the coordinator
+     */
+    private final DataInputStream input;
+    /**
+     * Output of the connection to the coordinator
+     */
+    private final DataOutputStream output;
+    /**
+     * Outputs of the connections to the other workers by the index of their partition
+     */
+    private final DataOutputStream[] peerOutputs;
+    /**
+     * Received records of the other workers by the index of their partition
+     */
+    private final List<BlockingQueue<ByteBuffer>> peerRecords;
+    /**
+     * Replica of the partition
+     */
+    private Simulation simulation = new Simulation();
+    /**
+     * Replica, that has been loaded, but not committed yet
+     */
+    private Simulation loadedSimulation;
+    
+    /**
+     * Constructor of a new worker
+     * 
+     * @param index - index of the partition of the worker
+     * @param input - input of the connection to the coordinator
+     * @param output - output of the connection to the coordinator
+     * @param peers - connections to the other workers by the index of their partition
+     * @throws IOException if a connection can't be used
+     */
+    private PartitionWorker(int index, DataInputStream input, DataOutputStream output, Socket[] peers)
+            throws IOException {
+        this.index = index;
+        this.input = input;
+        this.output = output;
+        this.peerOutputs = new DataOutputStream[peers.length];
+        this.peerRecords = new ArrayList<>(peers.length);
+        for (int partition = 0; partition < peers.length; partition++) {
+            this.peerRecords.add(new LinkedBlockingQueue<>());
+            if (partition != index) {
+                this.peerOutputs[partition] = new DataOutputStream(new BufferedOutputStream(
+                        peers[partition].getOutputStream(), BUFFER_SIZE));
+                startReceiving(partition, peers[partition]);
+            }
+        }
+    }
+    
+    @Override
+    public int getPartitionIndex() {
+        return this.index;
+    }
+    
+    @Override
+    public int getPartitionsAmount() {
+        return this.peerOutputs.length;
+    }
+    
+    @Override
+    public void send(int partition, ByteBuffer records) {
+        try {
+            DataOutputStream peerOutput = this.peerOutputs[partition];
+            peerOutput.writeInt(records.remaining());
+            peerOutput.write(records.array(), records.arrayOffset() + records.position(), records.remaining());
+            peerOutput.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public ByteBuffer receive(int partition) {
+        BlockingQueue<ByteBuffer> records = this.peerRecords.get(partition);
+        try {
+            ByteBuffer received = records.take();
+            if (received == LOST) {
+                records.add(LOST);
+                throw new UncheckedIOException(new IOException("the worker of partition " + partition + " is lost"));
+            }
+            return received;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("interrupted while waiting for partition "
+                    + partition));
+        }
+    }
+    
+    /**
+     * Helping method, that starts the thread, which receives the records of another worker
+     * 
+     * @param partition - index of the partition of the other worker
+     * @param peer - connection to the other worker
+     * @throws IOException if the connection can't be used
+     */
+    private void startReceiving(int partition, Socket peer) throws IOException {
+        DataInputStream peerInput = new DataInputStream(new BufferedInputStream(peer.getInputStream(), BUFFER_SIZE));
+        BlockingQueue<ByteBuffer> records = this.peerRecords.get(partition);
+        Thread receiver = new Thread(() -> {
+            try {
+                while (true) {
+                    byte[] block = new byte[peerInput.readInt()];
+                    peerInput.readFully(block);
+                    records.put(ByteBuffer.wrap(block));
+                }
+            } catch (IOException | InterruptedException e) {
+                records.add(LOST);
+            }
+        }, "partition-" + partition);
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+    
+    /**
+     * Method, that handles the messages of the coordinator, until it ends the worker
+     * 
+     * @throws IOException if the connection is lost
+     */
+    private void run() throws IOException {
+        while (true) {
+            byte message = this.input.readByte();
+            switch (message) {
+                case LOAD:
+                    this.output.writeBoolean(load(this.input.readUTF()));
+                    break;
+                case LOAD_SNAPSHOT:
+                    this.output.writeBoolean(loadSnapshot(this.input.readUTF()));
+                    break;
+                case COMMIT:
+                    this.simulation = this.loadedSimulation;
+                    this.loadedSimulation = null;
+                    writeState();
+                    break;
+                case ABORT:
+                    this.loadedSimulation = null;
+                    break;
+                case TICK:
+                    this.simulation.tick();
+                    writeState();
+                    break;
+                case SKIP:
+                    this.simulation.skipTicks(this.input.readLong());
+                    writeState();
+                    break;
+                case PULL:
+                    ByteBuffer cars = this.simulation.writePartition();
+                    this.output.writeInt(cars.remaining());
+                    this.output.write(cars.array(), cars.arrayOffset() + cars.position(), cars.remaining());
+                    writeState();
+                    break;
+                default:
+                    return;
+            }
+            this.output.flush();
+        }
+    }
+    
+    /**
+     * Helping method, that loads the folder into a new replica, which is kept until the coordinator commits it
+     * 
+     * @param path - path to the folder with the simulation files
+     * @return true - if the folder has been loaded; false - if it can't be loaded
+     */
+    private boolean load(String path) {
+        Simulation loaded = new Simulation();
+        loaded.setExchange(this);
+        try {
+            if (loaded.load(path)) {
+                this.loadedSimulation = loaded;
+                return true;
+            }
+        } catch (IOException e) {
+            //The folder can't be read, the coordinator discards the load
+        }
+        return false;
+    }
+    
+    /**
+     * Helping method, that loads the snapshot into a new replica, which is kept until the coordinator commits it
+     * 
+     * @param file - path of the snapshot file
+     * @return true - if the snapshot has been loaded; false - if it can't be loaded
+     */
+    private boolean loadSnapshot(String file) {
+        Simulation loaded = new Simulation();
+        loaded.setExchange(this);
+        try {
+            loaded.loadSnapshot(Path.of(file));
+            this.loadedSimulation = loaded;
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Helping method, that answers the fingerprint of the cars of the partition and,
+     * if any of its streets is in free flow
+     * 
+     * @throws IOException if the connection is lost
+     */
+    private void writeState() throws IOException {
+        this.output.writeLong(this.simulation.getStateHash());
+        this.output.writeBoolean(this.simulation.isAnyInFreeFlow());
+    }
+    
+    /**
+     * Helping method, that connects with the other workers: it connects to the workers of the lower partitions
+     * and accepts the workers of the higher partitions
+     * 
+     * @param peerServer - server socket, that the other workers connect to
+     * @param peerPorts - ports of the server sockets of all workers by the index of their partition
+     * @param index - index of the partition of the worker
+     * @return - connections to the other workers by the index of their partition
+     * @throws IOException if a worker doesn't connect
+     */
+    private static Socket[] connectPeers(ServerSocket peerServer, int[] peerPorts, int index) throws IOException {
+        Socket[] peers = new Socket[peerPorts.length];
+        for (int partition = 0; partition < index; partition++) {
+            Socket peer = new Socket(InetAddress.getLoopbackAddress(), peerPorts[partition]);
+            DataOutputStream peerOutput = new DataOutputStream(peer.getOutputStream());
+            peerOutput.writeInt(index);
+            peerOutput.flush();
+            peers[partition] = peer;
+        }
+        peerServer.setSoTimeout(CONNECT_TIMEOUT);
+        for (int i = index + 1; i < peerPorts.length; i++) {
+            Socket peer = peerServer.accept();
+            peers[new DataInputStream(peer.getInputStream()).readInt()] = peer;
+        }
+        for (Socket peer : peers) {
+            if (peer != null) {
+                peer.setTcpNoDelay(true);
+            }
+        }
+        return peers;
+    }
+    
+    /**
+     * Entry point of the worker process
+     * 
+     * @param args - port of the coordinator on localhost, index of the partition and amount of partitions
+     */
+    public static void main(String[] args) {
+        int index = Integer.parseInt(args[1]);
+        int amount = Integer.parseInt(args[2]);
+        Socket[] peers = new Socket[0];
+        try (ServerSocket peerServer = new ServerSocket(0, amount, InetAddress.getLoopbackAddress());
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))) {
+            socket.setTcpNoDelay(true);
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(),
+                    BUFFER_SIZE));
+            output.writeInt(index);
+            output.writeInt(peerServer.getLocalPort());
+            output.flush();
+            int[] peerPorts = new int[amount];
+            for (int partition = 0; partition < amount; partition++) {
+                peerPorts[partition] = input.readInt();
+            }
+            peers = connectPeers(peerServer, peerPorts, index);
+            PartitionWorker worker = new PartitionWorker(index, input, output, peers);
+            output.writeBoolean(true);
+            output.flush();
+            worker.run();
+        } catch (IOException | UncheckedIOException e) {
+            //The coordinator has closed the connection, the worker ends with it
+        } finally {
+            for (Socket peer : peers) {
+                try {
+                    if (peer != null) {
+                        peer.close();
+                    }
+                } catch (IOException e) {
+                    //The other worker has already ended
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package edu.kit.informatik.partition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Interface, that connects a simulation with the replicas of its partitions, which simulate the ticks.
+ * The simulation itself only answers the queries: it takes over the streets and cars of the partitions,
+ * when it needs them, and follows the ticks of the partitions with its traffic lights.
+ * 
+ * @author ubvaa
+ * @version 1.1
+ */
+public interface Partitions {
+    /**
+     * Getter for the amount of partitions
+     * 
+     * @return - amount of partitions
+     */
+    int getPartitionsAmount();
+    
+    /**
+     * Method, that lets the replicas load the folder into a new network, which they keep apart,
+     * until the load is committed. If any replica can't load it, all of them discard it.
+     * 
+     * @param path - path to the folder with the simulation files
+     * @return true - if all replicas have loaded the folder; false - if the folder has been discarded
+     * @throws IOException if a replica can't be reached
+     */
+    boolean load(String path) throws IOException;
+    
+    /**
+     * Method, that lets the replicas load the snapshot file into a new network, which they keep apart,
+     * until the load is committed. If any replica can't load it, all of them discard it.
+     * 
+     * @param file - path of the snapshot file
+     * @return true - if all replicas have loaded the snapshot; false - if the snapshot has been discarded
+     * @throws IOException if a replica can't be reached
+     */
+    boolean loadSnapshot(Path file) throws IOException;
+    
+    /**
+     * Method, that lets the replicas replace their networks by the loaded ones
+     * 
+     * @throws IOException if a replica can't be reached
+     */
+    void commitLoad() throws IOException;
+    
+    /**
+     * Method, that lets the replicas discard the loaded networks and keep their networks
+     * 
+     * @throws IOException if a replica can't be reached
+     */
+    void abortLoad() throws IOException;
+    
+    /**
+     * Method, that lets the replicas simulate one tick together and waits for them
+     * 
+     * @throws java.io.UncheckedIOException if a replica can't be reached
+     */
+    void tick();
+    
+    /**
+     * Method, that lets the replicas jump over the ticks, that the simulation has jumped over
+     * 
+     * @param ticksAmount - amount of the skipped ticks
+     * @throws java.io.UncheckedIOException if a replica can't be reached
+     */
+    void skipTicks(long ticksAmount);
+    
+    /**
+     * Method, that gets the streets of all partitions with their cars and the state of the cars of the current tick,
+     * as {@link edu.kit.informatik.street.StreetNetwork#writePartition()} has written them
+     * 
+     * @return - streets of each partition; the buffers are reused by the next call
+     * @throws java.io.UncheckedIOException if a replica can't be reached
+     */
+    ByteBuffer[] pull();
+    
+    /**
+     * Getter for the fingerprint of the state of all cars after the latest message of the replicas,
+     * combined from the fingerprints of the cars of each partition
+     * 
+     * @return - fingerprint of the state of all cars
+     */
+    long getStateHash();
+    
+    /**
+     * Method, that shows, if any street of the partitions has been in free flow after the latest message
+     * 
+     * @return true - if yes; else - false
+     */
+    boolean isAnyInFreeFlow();
+}
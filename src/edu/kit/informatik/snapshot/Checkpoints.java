@@ -0,0 +1,314 @@
+package edu.kit.informatik.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+
+/**
+ * Class, that writes periodic checkpoints of a simulation to a folder on a background thread.
+ * 
+ * The state is captured into a reused snapshot buffer at a tick boundary, which copies the arrays of the cars
+ * and the orders of the streets, and is then written, forced to the storage device and renamed to
+ * {@code checkpoint-<number>.tsim} by the background thread, while the simulation continues. The folder is forced 
+ * to the storage device after the rename, so every file with this name is complete and survives a crash. 
+ * The latest two of them are kept.
+ * While a checkpoint is written, the next ones are captured into further buffers and queued in the order 
+ * of their ticks, so the ticks never wait for the file. At most {@value #MAX_SNAPSHOTS} buffers are held: 
+ * if the writer thread falls further behind, the oldest queued checkpoint is replaced by the new one, 
+ * since only the latest checkpoint is recovered. The buffers are reused, once their checkpoints have been written.
+ * 
+ * @author ubvaa
+ * @version 1.2
+ */
+public final class Checkpoints implements Closeable {
+    /**
+     * Beginning of the names of the checkpoint files
+     */
+    private static final String PREFIX = "checkpoint-";
+    /**
+     * Ending of the names of the checkpoint files
+     */
+    private static final String SUFFIX = ".tsim";
+    /**
+     * Ending of the checkpoint files, while they are written
+     */
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    /**
+     * Amount of complete checkpoints, that are kept in the folder
+     */
+    private static final int KEPT_CHECKPOINTS = 2;
+    /**
+     * Maximal amount of buffers: one, that is written, one, that is queued, and one, into which is captured
+     */
+    private static final int MAX_SNAPSHOTS = 3;
+    /**
+     * Nanoseconds in a microsecond
+     */
+    private static final long NANOS_PER_MICRO = 1000;
+    /**
+     * Folder of the checkpoints
+     */
+    private final Path folder;
+    /**
+     * Amount of ticks from one checkpoint to the next one
+     */
+    private final long interval;
+    /**
+     * Buffers of checkpoints, that have been written, for the next captures
+     */
+    private final ArrayDeque<SnapshotWriter> freeSnapshots = new ArrayDeque<>();
+    /**
+     * Captured checkpoints, that wait for the writer thread, in the order of their ticks
+     */
+    private final ArrayDeque<SnapshotWriter> capturedSnapshots = new ArrayDeque<>();
+    /**
+     * Background thread, that writes the captured checkpoints
+     */
+    private final Thread writerThread;
+    /**
+     * Number of the next checkpoint
+     */
+    private long nextNumber;
+    /**
+     * Buffer of the current capture
+     */
+    private SnapshotWriter capture;
+    /**
+     * Amount of buffers, that have been created
+     */
+    private int snapshotsAmount;
+    /**
+     * Attribute, that shows, if the checkpoints are stopped and the writer thread must stop
+     */
+    private boolean closing;
+    /**
+     * First error of the writer thread, null - if all checkpoints have been written
+     */
+    private IOException failure;
+    /**
+     * Start of the current capture (in nanoseconds)
+     */
+    private long captureStart;
+    /**
+     * Amount of captured checkpoints, that haven't been replaced by a newer one
+     */
+    private int capturedAmount;
+    /**
+     * Longest time, for which the ticks have been paused by a capture (in nanoseconds)
+     */
+    private long longestPause;
+    
+    /**
+     * Constructor of the checkpoints, that starts the writer thread.
+     * The numbers of the new checkpoints follow the latest one, that is already in the folder.
+     * 
+     * @param folder - folder of the checkpoints, it is created, if it doesn't exist
+     * @param interval - amount of ticks from one checkpoint to the next one
+     * @throws IOException if the folder can't be created or read
+     */
+    public Checkpoints(Path folder, long interval) throws IOException {
+        this.folder = folder;
+        this.interval = interval;
+        Files.createDirectories(folder);
+        this.nextNumber = findLatestNumber(folder) + 1;
+        this.writerThread = new Thread(this::writeCheckpoints, "checkpoint-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+    
+    /**
+     * Getter for the interval of the checkpoints
+     * 
+     * @return - amount of ticks from one checkpoint to the next one
+     */
+    public long getInterval() {
+        return this.interval;
+    }
+    
+    /**
+     * Method, that begins to capture a checkpoint into a buffer, whose checkpoint has been written. 
+     * If all buffers still wait for the writer thread, a new one is added, until there are {@value #MAX_SNAPSHOTS}; 
+     * after that the oldest queued checkpoint is replaced by the new one.
+     * 
+     * @return - empty snapshot, into which the state is captured
+     */
+    public synchronized SnapshotWriter beginCapture() {
+        this.captureStart = System.nanoTime();
+        this.capture = this.freeSnapshots.poll();
+        if (this.capture == null && this.snapshotsAmount < MAX_SNAPSHOTS) {
+            this.snapshotsAmount++;
+            this.capture = new SnapshotWriter();
+            return this.capture;
+        }
+        if (this.capture == null) {
+            this.capture = this.capturedSnapshots.poll();
+            this.capturedAmount--;
+        }
+        this.capture.reset();
+        return this.capture;
+    }
+    
+    /**
+     * Method, that queues the captured checkpoint for the writer thread
+     */
+    public synchronized void commitCapture() {
+        this.longestPause = Math.max(this.longestPause, System.nanoTime() - this.captureStart);
+        this.capturedAmount++;
+        this.capturedSnapshots.add(this.capture);
+        this.capture = null;
+        notifyAll();
+    }
+    
+    /**
+     * Getter for the amount of captured checkpoints, that haven't been replaced by a newer one
+     * 
+     * @return - amount of checkpoints
+     */
+    public synchronized int getCapturedAmount() {
+        return this.capturedAmount;
+    }
+    
+    /**
+     * Getter for the longest time, for which the ticks have been paused by a capture
+     * 
+     * @return - longest pause in microseconds
+     */
+    public synchronized long getLongestPause() {
+        return this.longestPause / NANOS_PER_MICRO;
+    }
+    
+    /**
+     * Method, that waits, until all captured checkpoints have been written, and stops the writer thread
+     * 
+     * @throws IOException if a checkpoint couldn't be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            this.closing = true;
+            notifyAll();
+        }
+        try {
+            this.writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+    
+    /**
+     * Method of the writer thread, that writes the captured checkpoints in their order, 
+     * until the checkpoints are stopped and the queue is empty
+     */
+    private void writeCheckpoints() {
+        while (true) {
+            SnapshotWriter snapshot;
+            synchronized (this) {
+                while (this.capturedSnapshots.isEmpty() && !this.closing) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                snapshot = this.capturedSnapshots.poll();
+                if (snapshot == null) {
+                    return;
+                }
+            }
+            try {
+                Path temporary = this.folder.resolve(PREFIX + this.nextNumber + SUFFIX + TEMPORARY_SUFFIX);
+                snapshot.writeTo(temporary);
+                Files.move(temporary, getPath(this.folder, this.nextNumber), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+                forceFolder();
+                Files.deleteIfExists(getPath(this.folder, this.nextNumber - KEPT_CHECKPOINTS));
+                this.nextNumber++;
+            } catch (IOException e) {
+                if (this.failure == null) {
+                    this.failure = e;
+                }
+            }
+            synchronized (this) {
+                this.freeSnapshots.add(snapshot);
+            }
+        }
+    }
+    
+    /**
+     * Method, that forces the folder with the renamed checkpoint to the storage device, so the new name survives 
+     * a crash. Systems, on which a folder can't be opened, e.g. Windows, are skipped.
+     * 
+     * @throws IOException if the folder can't be forced
+     */
+    private void forceFolder() throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(this.folder, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+    
+    /**
+     * Method, that finds the latest complete checkpoint in the folder
+     * 
+     * @param folder - folder of the checkpoints
+     * @return - path of the latest checkpoint
+     * @throws IOException if the folder can't be read or has no checkpoint
+     */
+    public static Path findLatest(Path folder) throws IOException {
+        long number = findLatestNumber(folder);
+        if (number < 0) {
+            throw new IOException("no checkpoint in " + folder);
+        }
+        return getPath(folder, number);
+    }
+    
+    /**
+     * Method, that finds the number of the latest complete checkpoint in the folder, 
+     * files, whose names don't follow the checkpoints, are ignored
+     * 
+     * @param folder - folder of the checkpoints
+     * @return - number of the latest checkpoint; -1 - if the folder has no checkpoint
+     * @throws IOException if the folder can't be read
+     */
+    private static long findLatestNumber(Path folder) throws IOException {
+        long latest = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    latest = Math.max(latest,
+                            Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    //Other files of the folder are ignored
+                    continue;
+                }
+            }
+        }
+        return latest;
+    }
+    
+    /**
+     * Method, that builds the path of the checkpoint file with the number
+     * 
+     * @param folder - folder of the checkpoints
+     * @param number - number of the checkpoint
+     * @return - path of the checkpoint file
+     */
+    private static Path getPath(Path folder, long number) {
+        return folder.resolve(PREFIX + number + SUFFIX);
+    }
+}
@@ -0,0 +1,145 @@
+package edu.kit.informatik.snapshot;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class, that reads a binary snapshot of a simulation, which is read from the file with one bulk read.
+ * 
+ * @author ubvaa
+ * @version 1.1
+ */
+public final class SnapshotReader {
+    /**
+     * Buffer with the snapshot
+     */
+    private final ByteBuffer buffer;
+    /**
+     * Tick of the snapshot from its header
+     */
+    private long tick;
+    
+    /**
+     * Constructor of a new reader over the buffer
+     * 
+     * @param buffer - buffer with the snapshot, positioned after the header
+     */
+    private SnapshotReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+    
+    /**
+     * Method, that reads the snapshot file and checks its header
+     * 
+     * @param file - path of the snapshot file
+     * @return - reader of the snapshot
+     * @throws IOException if the file can't be read or isn't a snapshot of the supported version
+     */
+    public static SnapshotReader open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("snapshot is too large");
+            }
+            buffer = ByteBuffer.allocateDirect((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                continue;
+            }
+        }
+        buffer.flip();
+        SnapshotReader reader = new SnapshotReader(buffer);
+        if (reader.getInt() != SnapshotWriter.MAGIC || reader.getInt() != SnapshotWriter.VERSION) {
+            throw new IOException("not a snapshot of version " + SnapshotWriter.VERSION);
+        }
+        if (buffer.remaining() < Long.BYTES) {
+            throw new IOException("snapshot is truncated");
+        }
+        reader.tick = buffer.getLong();
+        if (reader.tick < 0) {
+            throw new IOException("snapshot is corrupted");
+        }
+        return reader;
+    }
+    
+    /**
+     * Getter for the tick of the snapshot
+     * 
+     * @return - ticks, that had been simulated since the simulation files had been loaded, when it was saved
+     */
+    public long getTick() {
+        return this.tick;
+    }
+    
+    /**
+     * Method, that reads the next integer
+     * 
+     * @return - the integer
+     * @throws IOException if the snapshot ends
+     */
+    public int getInt() throws IOException {
+        try {
+            return this.buffer.getInt();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("snapshot is truncated");
+        }
+    }
+    
+    /**
+     * Method, that reads the next amount, that must be between 0 and the maximum
+     * 
+     * @param maximum - maximal allowed amount
+     * @return - the amount
+     * @throws IOException if the snapshot ends or the amount is out of range
+     */
+    public int getAmount(int maximum) throws IOException {
+        int amount = getInt();
+        if (amount < 0 || amount > maximum) {
+            throw new IOException("snapshot is corrupted");
+        }
+        return amount;
+    }
+    
+    /**
+     * Method, that reads the next integers into the array
+     * 
+     * @param values - array for the values
+     * @param amount - amount of values to be read
+     * @throws IOException if the snapshot ends
+     */
+    public void getInts(int[] values, int amount) throws IOException {
+        if (this.buffer.remaining() < amount * Integer.BYTES) {
+            throw new IOException("snapshot is truncated");
+        }
+        this.buffer.asIntBuffer().get(values, 0, amount);
+        this.buffer.position(this.buffer.position() + amount * Integer.BYTES);
+    }
+    
+    /**
+     * Method, that reads the next booleans, one byte for each value, into the array
+     * 
+     * @param values - array for the values
+     * @param amount - amount of values to be read
+     * @throws IOException if the snapshot ends
+     */
+    public void getBooleans(boolean[] values, int amount) throws IOException {
+        if (this.buffer.remaining() < amount) {
+            throw new IOException("snapshot is truncated");
+        }
+        for (int i = 0; i < amount; i++) {
+            values[i] = this.buffer.get() != 0;
+        }
+    }
+    
+    /**
+     * Method, that returns the amount of bytes, that are left in the snapshot
+     * 
+     * @return - amount of remaining bytes
+     */
+    public int remaining() {
+        return this.buffer.remaining();
+    }
+}
@@ -0,0 +1,157 @@
+package edu.kit.informatik.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class, that collects the binary snapshot of a simulation in memory and writes it to a file with one bulk write.
+ * The header holds the tick of the snapshot, which can be set after the state has been collected.
+ * 
+ * @author ubvaa
+ * @version 1.2
+ */
+public final class SnapshotWriter {
+    /**
+     * Magic number at the beginning of every snapshot file ("TSIM")
+     */
+    static final int MAGIC = 0x5453494D;
+    /**
+     * Version of the snapshot format
+     */
+    static final int VERSION = 2;
+    /**
+     * Offset of the tick in the header
+     */
+    private static final int TICK_OFFSET = 2 * Integer.BYTES;
+    /**
+     * Length of the header in bytes: magic number, version and tick
+     */
+    static final int HEADER = TICK_OFFSET + Long.BYTES;
+    /**
+     * Initial capacity of the buffer in bytes
+     */
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    /**
+     * Buffer with the snapshot
+     */
+    private ByteBuffer buffer;
+    
+    /**
+     * Constructor of a new writer, that starts the snapshot with its header
+     */
+    public SnapshotWriter() {
+        this.buffer = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+        putHeader();
+    }
+    
+    /**
+     * Method, that empties the writer for the next snapshot, its buffer keeps its capacity
+     */
+    public void reset() {
+        this.buffer.clear();
+        putHeader();
+    }
+    
+    /**
+     * Method, that sets the tick of the snapshot in its header
+     * 
+     * @param tick - ticks, that have been simulated since the simulation files have been loaded
+     */
+    public void setTick(long tick) {
+        this.buffer.putLong(TICK_OFFSET, tick);
+    }
+    
+    /**
+     * Method, that appends an integer to the snapshot
+     * 
+     * @param value - integer to be appended
+     */
+    public void putInt(int value) {
+        ensureCapacity(Integer.BYTES);
+        this.buffer.putInt(value);
+    }
+    
+    /**
+     * Method, that appends the first values of the array to the snapshot
+     * 
+     * @param values - array with the values
+     * @param amount - amount of values to be appended
+     */
+    public void putInts(int[] values, int amount) {
+        ensureCapacity(amount * Integer.BYTES);
+        this.buffer.asIntBuffer().put(values, 0, amount);
+        this.buffer.position(this.buffer.position() + amount * Integer.BYTES);
+    }
+    
+    /**
+     * Method, that appends the first values of the array to the snapshot, one byte for each value
+     * 
+     * @param values - array with the values
+     * @param amount - amount of values to be appended
+     */
+    public void putBooleans(boolean[] values, int amount) {
+        ensureCapacity(amount);
+        for (int i = 0; i < amount; i++) {
+            this.buffer.put((byte) (values[i] ? 1 : 0));
+        }
+    }
+    
+    /**
+     * Method, that writes the snapshot to the file and forces it to the storage device
+     * 
+     * @param file - path of the file, it is replaced, if it exists
+     * @throws IOException if the file can't be written
+     */
+    public void writeTo(Path file) throws IOException {
+        ByteBuffer content = this.buffer.duplicate().flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, 
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(false);
+        }
+    }
+    
+    /**
+     * Method, that compares the snapshot with another one, the ticks in their headers are ignored
+     * 
+     * @param other - other snapshot
+     * @return - true - if both snapshots have the same content; else - false
+     */
+    public boolean hasSameContent(SnapshotWriter other) {
+        return this.buffer.duplicate().flip().position(HEADER)
+                .equals(other.buffer.duplicate().flip().position(HEADER));
+    }
+    
+    /**
+     * Method, that starts the snapshot with its header, the tick is 0 until it is set
+     */
+    private void putHeader() {
+        putInt(MAGIC);
+        putInt(VERSION);
+        ensureCapacity(Long.BYTES);
+        this.buffer.putLong(0);
+    }
+    
+    /**
+     * Method, that grows the buffer, if it can't take the amount of bytes
+     * 
+     * @param bytes - amount of bytes to be appended
+     */
+    private void ensureCapacity(int bytes) {
+        if (this.buffer.remaining() >= bytes) {
+            return;
+        }
+        int capacity = this.buffer.capacity();
+        while (capacity - this.buffer.position() < bytes) {
+            capacity *= 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        grown.put(this.buffer.flip());
+        this.buffer = grown;
+    }
+}
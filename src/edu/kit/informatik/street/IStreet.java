@@ -1,9 +1,5 @@
 package edu.kit.informatik.street;
 
-import java.util.List;
-
-import edu.kit.informatik.car.Car;
-
 /**
  * Interface for the class Street.
  * 
@@ -19,25 +15,33 @@ public interface IStreet {
     int getID();
     
     /**
-     * Getter for the street's cars list
+     * Getter for the amount of cars on the street
+     * 
+     * @return - amount of cars on the street
+     */
+    int getCarsAmount();
+    
+    /**
+     * Getter for the slot of the car with the index, where index 0 is the first car (closest to the end)
      * 
-     * @return - street's cars list
+     * @param index - index of the car on the street
+     * @return - slot of the car in the cars' store
      */
-    List<Car> getCars();
+    int getCarSlot(int index);
     
     /**
      * Method, that adds a new car to the street
      * 
-     * @param car - car to be added
+     * @param slot - slot of the car to be added
      */
-    void addCar(Car car);
+    void addCar(int slot);
     
     /**
      * Method, that removes a car from the street after it turned
      * 
-     * @param car - car to be removed
+     * @param slot - slot of the car to be removed
      */
-    void removeCar(Car car);
+    void removeCar(int slot);
     
     /**
      * Getter for the street's length
@@ -67,13 +71,4 @@ public interface IStreet {
      *           else - street's length
      */
     int getLastCarPosition();
-    
-    /**
-     * Method, that gets position of the front car on the street
-     * 
-     * @param observedCarPosition - position of the observed car
-     * @return - position of the front car, if it exists;
-     *           else - street's length + minimal distance between two cars
-     */
-    int getFrontCarPosition(int observedCarPosition);
 }
@@ -0,0 +1,158 @@
+package edu.kit.informatik.street;
+
+/**
+ * Class, that implements the always ordered cars' storage of a street.
+ * Slots of the cars are kept in a ring buffer sorted by position, starting from the end of the street, 
+ * so the front car of the car with index i has index i - 1.
+ * 
+ * @author ubvaa
+ * @version 1.3
+ */
+class Lane {
+    /**
+     * Initial capacity of the lane
+     */
+    private static final int INITIAL_CAPACITY = 8;
+    /**
+     * Ring buffer with the slots of the cars
+     */
+    private int[] elements;
+    /**
+     * Buffer index of the first car (closest to the end of the street)
+     */
+    private int head;
+    /**
+     * Amount of cars in the lane
+     */
+    private int size;
+    
+    /**
+     * Constructor of a new empty lane
+     */
+    Lane() {
+        this.elements = new int[INITIAL_CAPACITY];
+    }
+    
+    /**
+     * Method, that makes sure, that the lane can hold the amount of cars without growing
+     * 
+     * @param capacity - amount of cars
+     */
+    void reserve(int capacity) {
+        int length = this.elements.length;
+        while (length < capacity) {
+            length <<= 1;
+        }
+        if (length != this.elements.length) {
+            resize(length);
+        }
+    }
+    
+    /**
+     * Getter for the slot of the car with the index
+     * 
+     * @param index - index of the car, 0 is the first car
+     * @return - slot of the car
+     */
+    int get(int index) {
+        return this.elements[(this.head + index) & (this.elements.length - 1)];
+    }
+    
+    /**
+     * Setter for the slot of the car with the index
+     * 
+     * @param index - index of the car, 0 is the first car
+     * @param slot - slot of the car
+     */
+    void set(int index, int slot) {
+        this.elements[(this.head + index) & (this.elements.length - 1)] = slot;
+    }
+    
+    /**
+     * Getter for the amount of cars in the lane
+     * 
+     * @return - amount of cars
+     */
+    int size() {
+        return this.size;
+    }
+    
+    /**
+     * Method, that adds a new car behind the last car of the lane
+     * 
+     * @param slot - slot of the car to be added
+     */
+    void add(int slot) {
+        if (this.size == this.elements.length) {
+            grow();
+        }
+        this.elements[(this.head + this.size) & (this.elements.length - 1)] = slot;
+        this.size++;
+    }
+    
+    /**
+     * Method, that removes all cars from the lane
+     */
+    void clear() {
+        this.head = 0;
+        this.size = 0;
+    }
+    
+    /**
+     * Method, that removes the car from the lane. Removing of the first car takes constant time.
+     * 
+     * @param slot - slot of the car to be removed
+     */
+    void remove(int slot) {
+        int mask = this.elements.length - 1;
+        if (this.size > 0 && this.elements[this.head] == slot) {
+            this.head = (this.head + 1) & mask;
+            this.size--;
+            return;
+        }
+        for (int index = 1; index < this.size; index++) {
+            if (get(index) == slot) {
+                for (int i = index; i < this.size - 1; i++) {
+                    this.elements[(this.head + i) & mask] = this.elements[(this.head + i + 1) & mask];
+                }
+                this.size--;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Method, that moves the car with the index in front of its front car after overtaking
+     * 
+     * @param index - index of the car, that has overtaken
+     */
+    void moveAhead(int index) {
+        int mask = this.elements.length - 1;
+        int behind = (this.head + index) & mask;
+        int front = (this.head + index - 1) & mask;
+        int slot = this.elements[behind];
+        this.elements[behind] = this.elements[front];
+        this.elements[front] = slot;
+    }
+    
+    /**
+     * Method, that doubles capacity of the ring buffer
+     */
+    private void grow() {
+        resize(this.elements.length * 2);
+    }
+    
+    /**
+     * Method, that moves the cars into a new ring buffer with the capacity
+     * 
+     * @param capacity - new capacity, a power of two
+     */
+    private void resize(int capacity) {
+        int[] resized = new int[capacity];
+        for (int i = 0; i < this.size; i++) {
+            resized[i] = get(i);
+        }
+        this.elements = resized;
+        this.head = 0;
+    }
+}
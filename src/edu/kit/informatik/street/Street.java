@@ -1,20 +1,23 @@
 package edu.kit.informatik.street;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 
-import edu.kit.informatik.car.Car;
-import edu.kit.informatik.car.CarsComparator;
+import edu.kit.informatik.car.CarStates;
+import edu.kit.informatik.car.CarStore;
 import edu.kit.informatik.crossing.Crossing;
+import edu.kit.informatik.crossing.CrossingNetwork;
 import edu.kit.informatik.main.Main;
 import edu.kit.informatik.main.ReadWrite;
+import edu.kit.informatik.snapshot.SnapshotReader;
+import edu.kit.informatik.snapshot.SnapshotWriter;
 
 /**
  * Class, that implements streets in the program
  * 
  * @author ubvaa
- * @version 1.2
+ * @version 1.9
  */
 public class Street implements IStreet {
     /**
@@ -28,13 +31,9 @@ public class Street implements IStreet {
     }
     
     /**
-     * List of all streets of the latest correct load
+     * Minimal amount of ticks, for which a street is put into free flow
      */
-    private static List<Street> streets;
-    /**
-     * List of inspected streets
-     */
-    private static List<Street> inspectedStreets;
+    private static final int MIN_FREE_FLOW_TICKS = 4;
     /**
      * Minimal distance between two cars on the street
      */
@@ -55,6 +54,10 @@ public class Street implements IStreet {
      * Maximal allowed speed limit of the street
      */
     private static final int MAX_SPEED_LIMIT = 40;
+    /**
+     * Network, to which the street belongs
+     */
+    private final StreetNetwork network;
     /**
      * ID of the street
      */
@@ -76,20 +79,113 @@ public class Street implements IStreet {
      */
     private int endingCrossingID;
     /**
-     * List of all cars of the street
+     * Crossing, to which the street is "directed"
+     */
+    private Crossing endingCrossing;
+    /**
+     * Crossing, from which the street starts
+     */
+    private Crossing startCrossing;
+    /**
+     * All cars of the street, sorted by position, starting from the end of the street
+     */
+    private Lane cars;
+    /**
+     * Attribute, that indicates, if the street has been moved during the parallel part of the tick
+     */
+    private boolean movedInParallel;
+    /**
+     * Attribute, that indicates, if no car of the street could move during its last update, 
+     * so the next update would change nothing, until the street is woken
+     */
+    private boolean stalled;
+    /**
+     * Attribute, that indicates, if the position of the last car has changed during the last update
+     */
+    private boolean tailMoved;
+    /**
+     * Amount of ticks after the last update, during which every car of the street just rides with constant speed
+     */
+    private int freeFlowTicks;
+    /**
+     * Attribute, that indicates, if the street is in free flow: its cars ride without being updated, 
+     * the positions in the car store are those from the end of the tick, in which the free flow has begun
+     */
+    private boolean inFreeFlow;
+    /**
+     * Tick, in which the free flow of the street has begun
+     */
+    private long freeFlowStart;
+    /**
+     * XOR of the old and new keys of the cars, that have changed during the last update, 
+     * if the car store keeps its fingerprint up to date
+     */
+    private long keysChange;
+    /**
+     * Attribute, that indicates, if the street must be seen with its tail from the beginning of a parallel tick
+     */
+    private boolean tailFrozen;
+    /**
+     * Position of the last car from the beginning of a parallel tick
+     */
+    private int frozenTailPosition;
+    /**
+     * Attribute, that indicates, if the street is updated in every tick of a partitioned simulation, 
+     * since streets of other partitions, that could wake it, don't wake it here
+     */
+    private boolean keptActive;
+    /**
+     * Attribute, that indicates, if the street belongs to this partition, but starts at a crossing of another one, 
+     * which turns cars into it: the street never goes into free flow and is reported after every update
+     */
+    private boolean shared;
+    /**
+     * Attribute, that indicates, if the street belongs to another partition, but starts at a crossing of this one: 
+     * its lane holds only the cars, that have turned into it during the tick
+     */
+    private boolean mirrored;
+    /**
+     * Attribute, that indicates, if the report of the shared street is sent at once, 
+     * since a street, that is updated later in the tick, can turn cars into it
+     */
+    private boolean urgent;
+    /**
+     * Partition of the start crossing of a shared street or the partition of a mirrored street
+     */
+    private int partner;
+    /**
+     * Amount of the cars of the mirrored street at the beginning of the tick
+     */
+    private int mirroredAmount;
+    /**
+     * Position of the last of these cars
+     */
+    private int mirroredTailPosition;
+    /**
+     * Attribute, that indicates, if the mirrored street has been reported after its update during the tick
+     */
+    private boolean reported;
+    /**
+     * Amount of the cars of the mirrored street after its update
      */
-    private List<Car> cars;
+    private int reportedAmount;
+    /**
+     * Position of the last of these cars
+     */
+    private int reportedTailPosition;
     
     /**
      * Constructor for a new Street
      * 
+     * @param network - network, to which the street belongs
      * @param id - ID of the street
      * @param endingCrossingID - ID of the crossing, to which the street is "directed" 
      * @param length - length of the street
      * @param type - type of the street
      * @param speedLimit - speed limit of the street
      */
-    public Street(int id, int endingCrossingID, int length, int type, int speedLimit) {
+    public Street(StreetNetwork network, int id, int endingCrossingID, int length, int type, int speedLimit) {
+        this.network = network;
         this.id = id;
         this.endingCrossingID = endingCrossingID;
         this.length = length;
@@ -99,37 +195,7 @@ public class Street implements IStreet {
             this.type = StreetType.FASTLANE;
         }
         this.speedLimit = speedLimit;
-        this.cars = new ArrayList<>();
-    }
-    
-    /**
-     * Getter for the street (by ID)
-     * 
-     * @param id - ID of the street
-     * @return - Street with this ID, if it exists; else - null
-     */
-    public static Street getStreet(int id) {
-        for (Street street : streets) {
-            if (street.id == id) {
-                return street;
-            }
-        }
-        return null;
-    }
-    
-    /**
-     * Getter for the inspected street (by ID)
-     * 
-     * @param id - ID of the inspected street
-     * @return - Street with this ID, if it exists; else - null
-     */
-    public static Street getInspectedStreet(int id) {
-        for (Street street : inspectedStreets) {
-            if (street.id == id) {
-                return street;
-            }
-        }
-        return null;
+        this.cars = new Lane();
     }
     
     /**
@@ -155,18 +221,32 @@ public class Street implements IStreet {
     }
     
     @Override
-    public List<Car> getCars() {
-        return this.cars;
+    public int getCarsAmount() {
+        return this.cars.size();
     }
     
     @Override
-    public void addCar(Car car) {
-        this.cars.add(car);
+    public int getCarSlot(int index) {
+        return this.cars.get(index);
+    }
+    
+    /**
+     * Method, that adds a new car to the street. 
+     * Cars always enter the street behind its last car, so the lane stays sorted. 
+     * A street, that has been moved in parallel during the tick, doesn't go into free flow with the new car.
+     * 
+     * @param slot - slot of the car to be added
+     */
+    @Override
+    public void addCar(int slot) {
+        this.cars.add(slot);
+        this.tailFrozen = false;
+        this.freeFlowTicks = 0;
     }
     
     @Override
-    public void removeCar(Car car) {
-        this.cars.remove(car);
+    public void removeCar(int slot) {
+        this.cars.remove(slot);
     }
     
     @Override
@@ -175,67 +255,181 @@ public class Street implements IStreet {
     }
     
     /**
-     * Method, that checks the input streets' file for correctness.
+     * Setter for the crossing, to which the street is "directed"
      * 
-     * @param streetsList - list of the streets from the file
-     * @return - true - if everything is correct; else - false
-     */
-    public static boolean checkInput(List<String> streetsList) {
-        inspectedStreets = new ArrayList<>();
-        boolean isCorrect = true;
-        int id = 0;
-        for (String line : streetsList) {
-            try {
-                int startCrossingID = Integer.valueOf(line.substring(0, line.indexOf(Main.ARROW)));
-                int endingCrossingID = Integer.valueOf(line.substring(line.indexOf(Main.ARROW) + 3, 
-                                                                      line.indexOf(Main.COLON)));
-                int length = Integer.valueOf(line.substring(line.indexOf(Main.COLON) + 1, 
-                                                            line.indexOf(Main.METER)));
-                int type = Integer.valueOf(line.substring(line.indexOf(Main.COMMA) + 1, 
-                                                          line.indexOf(Main.ART)));
-                int speedLimit = Integer.valueOf(line.substring(line.lastIndexOf(Main.COMMA) + 1, 
-                                                                line.indexOf(Main.MAX)));
-                if (length < MIN_LENGTH || length > MAX_LENGTH) {
-                    ReadWrite.writeError(Main.STREET + id + Main.INVALID_LENGTH);
-                    isCorrect = false;
-                    break;
-                } else if (speedLimit < MIN_SPEED_LIMIT || speedLimit > MAX_SPEED_LIMIT) {
-                    ReadWrite.writeError(Main.STREET + id + Main.INVALID_SPEED_LIMIT);
-                    isCorrect = false;
-                    break;
-                } else if (startCrossingID == endingCrossingID) {
-                    ReadWrite.writeError(Main.STREET + id + Main.INVALID_STARTING_ENDING);
-                    isCorrect = false;
-                    break;
-                } else if (type != 1 && type != 2) {
-                    ReadWrite.writeError(Main.STREET + id + Main.INVALID_TYPE);
-                    isCorrect = false;
-                    break;
-                } else if (Crossing.getInspectedCrossing(startCrossingID) == null 
-                        || Crossing.getInspectedCrossing(endingCrossingID) == null) {
-                    ReadWrite.writeError(Main.INVALID_CROSSING_FOR + id);
-                    isCorrect = false;
-                    break;
-                }
-                
-                Street street = new Street(id, endingCrossingID, length, type, speedLimit);
-                
-                Crossing startCrossing = Crossing.getInspectedCrossing(startCrossingID);
-                Crossing endCrossing = Crossing.getInspectedCrossing(endingCrossingID);
-                
-                startCrossing.addOutgoingStreet(street);
-                endCrossing.addIncomingStreet(street);
-                
-                inspectedStreets.add(street);
-            } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
-                ReadWrite.writeError(Main.INVALID_STREET);
-                isCorrect = false;
-                break;
+     * @param endingCrossing - crossing, to which the street is "directed"
+     */
+    public void setEndingCrossing(Crossing endingCrossing) {
+        this.endingCrossing = endingCrossing;
+    }
+    
+    /**
+     * Getter for the crossing, to which the street is "directed"
+     * 
+     * @return - ending crossing of the street
+     */
+    Crossing getEndingCrossing() {
+        return this.endingCrossing;
+    }
+    
+    /**
+     * Method, that shows, if the street belongs to another partition, but starts at a crossing of this one
+     * 
+     * @return true - if yes; else - false
+     */
+    boolean isMirrored() {
+        return this.mirrored;
+    }
+    
+    /**
+     * Setter for the crossing, from which the street starts
+     * 
+     * @param startCrossing - crossing, from which the street starts
+     */
+    public void setStartCrossing(Crossing startCrossing) {
+        this.startCrossing = startCrossing;
+    }
+    
+    /**
+     * Method, that adds the street to the active streets, so it is updated during the next tick 
+     * or still during the current tick, if its turn in the order of the IDs hasn't come yet. 
+     * A street in free flow stays in it, since its first car doesn't reach the crossing until the end of the free flow.
+     */
+    public void activate() {
+        if (this.inFreeFlow) {
+            return;
+        }
+        this.stalled = false;
+        this.network.setActive(this.id);
+    }
+    
+    /**
+     * Method, that ends the free flow of the street: 
+     * its cars are moved by all rides since the begin of the free flow and the street is activated again.
+     * It must be called, before the car store is read for the cars of the street, 
+     * outside of the ticks this is done by {@link StreetNetwork#settleCar(int)}. 
+     * The fingerprint of the car store is updated with the new positions.
+     */
+    public void leaveFreeFlow() {
+        if (!this.inFreeFlow) {
+            return;
+        }
+        this.inFreeFlow = false;
+        this.network.endFreeFlow(this.id);
+        int rides = getFreeFlowRides();
+        CarStore carStore = this.network.getCarStore();
+        boolean hashing = carStore.isHashing();
+        long keysChange = 0;
+        for (int index = 0; index < this.cars.size(); index++) {
+            int car = this.cars.get(index);
+            long oldKey = hashing ? carStore.getKey(car) : 0;
+            int speed = carStore.getCurrentSpeed(car);
+            carStore.setPosition(car, carStore.getPosition(car) + rides * speed);
+            if (rides > 0) {
+                carStore.setTraveledDistance(car, speed);
+            }
+            if (hashing) {
+                keysChange ^= oldKey ^ carStore.getKey(car);
             }
-            id++;
         }
+        carStore.updateHash(keysChange);
+        this.stalled = false;
+        this.network.setActive(this.id);
+    }
+    
+    /**
+     * Method, that moves the cars of the street in the copy of their state by the rides since the begin 
+     * of the free flow, so the copy holds the state of the current tick, while the street stays in free flow
+     * 
+     * @param states - copy of the state of all cars
+     */
+    void addFreeFlowRides(CarStates states) {
+        if (!this.inFreeFlow) {
+            return;
+        }
+        int rides = getFreeFlowRides();
+        for (int index = 0; index < this.cars.size(); index++) {
+            int car = this.cars.get(index);
+            states.move(car, rides * states.getSpeed(car));
+        }
+    }
+    
+    /**
+     * Method, that gets the amount of rides of the cars since the begin of the free flow: one for each tick, 
+     * including the current tick, if the turn of the street in the order of the IDs has already come
+     * 
+     * @return - amount of rides
+     */
+    private int getFreeFlowRides() {
+        long rides = this.network.getCrossings().getTick() - this.freeFlowStart;
+        if (this.network.getCurrentStreetID() <= this.id) {
+            rides--;
+        }
+        return (int) rides;
+    }
+    
+    /**
+     * Method, that activates the street and all streets, whose cars can turn into it. 
+     * It is called, when the amount of cars or the position of the last car of the street has changed, 
+     * so the street itself leaves the free flow.
+     */
+    public void wake() {
+        leaveFreeFlow();
+        activate();
+        List<Street> incomingStreets = this.startCrossing.getIncomingStreets();
+        for (int index = 0; index < incomingStreets.size(); index++) {
+            incomingStreets.get(index).activate();
+        }
+    }
+    
+    /**
+     * Method, that checks one street of the input file and creates it, if it is correct.
+     * The ID of the street is its line number, starting from 0.
+     * 
+     * @param network - network, to which the street belongs
+     * @param id - ID of the street
+     * @param fields - starting point, ending point, length, type and speed limit of the street; 
+     *                 null - if the line has the wrong format
+     * @return - new street, if it is correct; else - null
+     */
+    static Street checkStreet(StreetNetwork network, int id, int[] fields) {
+        if (fields == null) {
+            ReadWrite.writeError(Main.INVALID_STREET);
+            return null;
+        }
+        int startCrossingID = fields[0];
+        int endingCrossingID = fields[1];
+        int length = fields[2];
+        int type = fields[3];
+        int speedLimit = fields[4];
+        CrossingNetwork crossings = network.getCrossings();
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            ReadWrite.writeError(Main.STREET + id + Main.INVALID_LENGTH);
+            return null;
+        } else if (speedLimit < MIN_SPEED_LIMIT || speedLimit > MAX_SPEED_LIMIT) {
+            ReadWrite.writeError(Main.STREET + id + Main.INVALID_SPEED_LIMIT);
+            return null;
+        } else if (startCrossingID == endingCrossingID) {
+            ReadWrite.writeError(Main.STREET + id + Main.INVALID_STARTING_ENDING);
+            return null;
+        } else if (type != 1 && type != 2) {
+            ReadWrite.writeError(Main.STREET + id + Main.INVALID_TYPE);
+            return null;
+        } else if (crossings.getCrossing(startCrossingID) == null 
+                || crossings.getCrossing(endingCrossingID) == null) {
+            ReadWrite.writeError(Main.INVALID_CROSSING_FOR + id);
+            return null;
+        }
+        
+        Street street = new Street(network, id, endingCrossingID, length, type, speedLimit);
+        
+        Crossing startCrossing = crossings.getCrossing(startCrossingID);
+        Crossing endCrossing = crossings.getCrossing(endingCrossingID);
         
-        return isCorrect;
+        startCrossing.addOutgoingStreet(street);
+        endCrossing.addIncomingStreet(street);
+        
+        return street;
     }
     
     /**
@@ -244,173 +438,561 @@ public class Street implements IStreet {
      * 
      * @return true - if everything is correct; else - false
      */
-    public static boolean checkCars() {
-        boolean isCorrect = true;
-        for (Street street : inspectedStreets) {
-            int carsAmount = street.cars.size();
-            if (carsAmount > street.getCarsLimit()) {
-                ReadWrite.writeError(Main.STREET + street.id + Main.TOO_MANY_CARS);
-                isCorrect = false;
-                break;
-            }
+    boolean checkCars() {
+        if (this.cars.size() > getCarsLimit()) {
+            ReadWrite.writeError(Main.STREET + this.id + Main.TOO_MANY_CARS);
+            return false;
         }
-        
-        return isCorrect;
+        return true;
     }
     
     /**
-     * Method, that copies inspected (temporary) streets to the session's streets' list
+     * Method, that prepares the lane of the street for the simulation: it never grows during the ticks
      */
-    public static void copyInspectedStreets() {
-        streets = new ArrayList<>(inspectedStreets.size());
-        for (Street street : inspectedStreets) {
-            streets.add(street);
-        }
+    void reserveLane() {
+        this.cars.reserve(getCarsLimit());
     }
     
     /**
-     * Method, that positions all cars at the begin of the simulation
+     * Method, that writes the street with the order of its cars to the snapshot
+     *
+     * @param writer - writer of the snapshot
+     */
+    void saveState(SnapshotWriter writer) {
+        writer.putInt(this.endingCrossingID);
+        writer.putInt(this.length);
+        writer.putInt(this.type.equals(StreetType.SINGLELANE) ? 1 : 2);
+        writer.putInt(this.speedLimit);
+        writer.putInt(this.cars.size());
+        for (int index = 0; index < this.cars.size(); index++) {
+            writer.putInt(this.cars.get(index));
+        }
+    }
+
+    /**
+     * Method, that reads the next street of the snapshot
+     *
+     * @param network - network, to which the street belongs
+     * @param reader - reader of the snapshot
+     * @param id - ID of the street
+     * @param carsAmount - amount of cars in the snapshot
+     * @return - read street
+     * @throws IOException if the snapshot is corrupted
      */
-    public static void positionCars() {
-        for (Street street : streets) {
-            int position = street.length;
-            for (Car car : street.cars) {
-                car.setPosition(position);
-                position -= MIN_DISTANCE;
+    static Street restoreState(StreetNetwork network, SnapshotReader reader, int id, int carsAmount) 
+            throws IOException {
+        Street street = new Street(network, id, reader.getInt(), reader.getInt(), reader.getInt(), reader.getInt());
+        int streetCarsAmount = reader.getAmount(street.getCarsLimit());
+        for (int index = 0; index < streetCarsAmount; index++) {
+            street.cars.add(reader.getAmount(carsAmount - 1));
+        }
+        return street;
+    }
+
+    /**
+     * Method, that checks the cars of the street, that has been read from the snapshot: 
+     * every car must belong to this street in the store, be on no other street and have a position on it
+     *
+     * @param carStore - store with the state of all cars
+     * @param placedCars - cars (by slot), that are already on a street; the cars of this street are added
+     * @throws IOException if a car doesn't match the street
+     */
+    void checkRestoredCars(CarStore carStore, boolean[] placedCars) throws IOException {
+        for (int index = 0; index < this.cars.size(); index++) {
+            int car = this.cars.get(index);
+            int position = carStore.getPosition(car);
+            if (placedCars[car] || carStore.getStreetID(car) != this.id || position < 0 || position > this.length) {
+                throw new IOException("snapshot is corrupted");
             }
+            placedCars[car] = true;
+        }
+    }
+
+    /**
+     * Method, that checks the crossings of the street, that has been read from the snapshot: 
+     * it must start at a crossing and end at another one, the one with its ending crossing ID
+     *
+     * @throws IOException if a crossing of the street is missing or wrong
+     */
+    void checkRestoredCrossings() throws IOException {
+        if (this.startCrossing == null || this.endingCrossing == null || this.startCrossing == this.endingCrossing
+                || this.endingCrossing.getID() != this.endingCrossingID) {
+            throw new IOException("snapshot is corrupted");
+        }
+    }
+
+    /**
+     * Method, that positions the cars of the street at the begin of the simulation
+     * 
+     * @param carStore - store with the state of all cars
+     */
+    void positionCars(CarStore carStore) {
+        int position = this.length;
+        for (int index = 0; index < this.cars.size(); index++) {
+            carStore.setPosition(this.cars.get(index), position);
+            position -= MIN_DISTANCE;
         }
     }
     
     @Override
     public boolean isFree() {
-        return this.cars.size() == 0;
+        return getAmount() == 0;
     }
     
     @Override
     public boolean isFull() {
-        return this.cars.size() == this.getCarsLimit();
+        return getAmount() == this.getCarsLimit();
+    }
+    
+    /**
+     * Method, that gets the amount of cars of the street, 
+     * including the cars of a mirrored street, which its partition holds
+     * 
+     * @return - amount of cars
+     */
+    private int getAmount() {
+        if (!this.mirrored) {
+            return this.cars.size();
+        }
+        return (seesReport() ? this.reportedAmount : this.mirroredAmount) + this.cars.size();
     }
         
     @Override
     public int getLastCarPosition() {
-        int position = this.length;
-        for (Car car : this.cars) {
-            int carPosition = car.getPosition();
-            if (carPosition < position) {
-                position = carPosition;
-            }
+        if (this.tailFrozen) {
+            return this.frozenTailPosition;
+        } else if (this.mirrored && this.cars.size() == 0) {
+            boolean afterUpdate = seesReport();
+            int amount = afterUpdate ? this.reportedAmount : this.mirroredAmount;
+            int tailPosition = afterUpdate ? this.reportedTailPosition : this.mirroredTailPosition;
+            return amount > 0 ? tailPosition : this.length;
+        } else if (this.inFreeFlow) {
+            int tail = this.cars.get(this.cars.size() - 1);
+            CarStore carStore = this.network.getCarStore();
+            return carStore.getPosition(tail) + getFreeFlowRides() * carStore.getCurrentSpeed(tail);
+        }
+        return getTailPosition(this.network.getCarStore());
+    }
+    
+    /**
+     * Method, that gets the current position of the last car
+     * 
+     * @param carStore - store with the state of all cars
+     * @return - position of the last car, if the street isn't free; else - length of the street
+     */
+    private int getTailPosition(CarStore carStore) {
+        if (this.cars.size() == 0) {
+            return this.length;
+        }
+        return carStore.getPosition(this.cars.get(this.cars.size() - 1));
+    }
+    
+    /**
+     * Method, that gets position of the front car of the car with the index in the lane
+     * 
+     * @param index - index of the observed car
+     * @return - position of the front car, if it exists;
+     *           else - street's length + minimal distance between two cars
+     */
+    private int getFrontCarPosition(int index) {
+        if (index == 0) {
+            return this.length + MIN_DISTANCE;
+        }
+        return this.network.getCarStore().getPosition(this.cars.get(index - 1));
+    }
+    
+    /**
+     * Method, that updates the street during the tick, when its turn in the order of the IDs has come
+     * 
+     * @param carStore - store with the state of all cars
+     */
+    void move(CarStore carStore) {
+        update(carStore);
+        settle();
+    }
+    
+    /**
+     * Method, that updates the street during the sequential part of a parallel tick, 
+     * if it hasn't been moved in the parallel part
+     * 
+     * @param carStore - store with the state of all cars
+     */
+    void finishParallelMove(CarStore carStore) {
+        this.tailFrozen = false;
+        if (this.movedInParallel) {
+            this.movedInParallel = false;
+        } else {
+            update(carStore);
+        }
+        settle();
+    }
+    
+    /**
+     * Method, that moves the street during the parallel part of the tick, 
+     * if its first car doesn't reach the crossing. Else the street is left for the sequential part.
+     * 
+     * @param carStore - store with the state of all cars
+     * @return - true - if the street has been moved; else - false
+     */
+    boolean moveInParallel(CarStore carStore) {
+        freezeTail();
+        if (this.cars.size() == 0 || !carStore.reachesStreetEnd(this.cars.get(0), this.speedLimit, this.length)) {
+            update(carStore);
+            this.movedInParallel = true;
+        }
+        return this.movedInParallel;
+    }
+    
+    /**
+     * Method, that lets other streets see the tail of the street from the beginning of a parallel tick, 
+     * until its turn in the order of the IDs has come or it gets a new car
+     */
+    void freezeTail() {
+        this.frozenTailPosition = getLastCarPosition();
+        this.tailFrozen = true;
+    }
+    
+    /**
+     * Method, that sets the role of the street in a partitioned simulation. Each street belongs to the partition 
+     * of its ending crossing, which turns its cars, so the lanes of the streets of other partitions are emptied, 
+     * only the amount of cars and the last car of the mirrored ones are kept.
+     * 
+     * @param crossingOwners - partitions of the crossings by their index
+     * @param partition - partition of this replica
+     * @param carStore - store with the state of all cars
+     */
+    void partition(int[] crossingOwners, int partition, CarStore carStore) {
+        int owner = crossingOwners[this.endingCrossing.getIndex()];
+        int startOwner = crossingOwners[this.startCrossing.getIndex()];
+        this.shared = owner == partition && startOwner != partition;
+        this.mirrored = owner != partition && startOwner == partition;
+        this.partner = this.shared ? startOwner : owner;
+        this.keptActive = this.shared;
+        List<Street> outgoingStreets = this.endingCrossing.getOutgoingStreets();
+        for (int index = 0; index < outgoingStreets.size(); index++) {
+            //Streets of other partitions, into which the cars turn, don't wake the street here
+            int outgoingOwner = crossingOwners[outgoingStreets.get(index).endingCrossing.getIndex()];
+            this.keptActive |= owner == partition && outgoingOwner != partition;
+        }
+        this.urgent = false;
+        List<Street> incomingStreets = this.startCrossing.getIncomingStreets();
+        for (int index = 0; index < incomingStreets.size(); index++) {
+            this.urgent |= this.shared && incomingStreets.get(index).id > this.id;
+        }
+        if (this.mirrored) {
+            this.mirroredAmount = this.cars.size();
+            this.mirroredTailPosition = getTailPosition(carStore);
+        }
+        this.reported = false;
+        if (owner != partition) {
+            this.cars.clear();
+        }
+    }
+    
+    /**
+     * Method, that reports the amount of cars and the position of the last one after the update of a shared street 
+     * to the partition of its start crossing
+     */
+    void report() {
+        if (this.shared) {
+            this.network.writeReport(this.partner, this.id, this.cars.size(), 
+                    getTailPosition(this.network.getCarStore()), this.urgent);
         }
-        return position;
     }
     
     /**
-     * Method, that proves, if the observed car is the first (closest to the end) on the street
+     * Method, that takes over the report of the mirrored street after its update in its partition
+     * 
+     * @param amount - amount of the cars of the street
+     * @param tailPosition - position of the last car
+     */
+    void readReport(int amount, int tailPosition) {
+        this.reportedAmount = amount;
+        this.reportedTailPosition = tailPosition;
+        this.reported = true;
+    }
+    
+    /**
+     * Method, that shows, if the mirrored street must be seen after its update in the tick, 
+     * since its turn in the order of the IDs has come. Then its report is awaited, if it hasn't arrived yet.
      * 
-     * @param observedCar - car to be observed
-     * @return - true, if the car is the first; else - false
+     * @return true - if the street is seen after its update; false - if it is seen from the beginning of the tick
      */
-    private boolean isFirst(Car observedCar) {
-        for (Car car : this.cars) {
-            if (observedCar.getPosition() < car.getPosition()) {
-                return false;
+    private boolean seesReport() {
+        if (this.network.getCurrentStreetID() <= this.id) {
+            return false;
+        }
+        if (!this.reported) {
+            this.network.sendRecords();
+            while (!this.reported) {
+                if (!this.network.readRecord(this.partner)) {
+                    throw new IllegalStateException("street " + this.id + " hasn't been reported");
+                }
             }
         }
         return true;
     }
     
-    @Override
-    public int getFrontCarPosition(int observedCarPosition) {
-        int frontCarPosition = this.length + MIN_DISTANCE;
-        for (Car car : this.cars) {
-            int carPosition = car.getPosition();
-            if (carPosition > observedCarPosition && carPosition < frontCarPosition) {
-                frontCarPosition = carPosition;
+    /**
+     * Method, that sends the cars, that have turned into the mirrored street during the tick, to its partition
+     */
+    void sendArrivals() {
+        if (this.cars.size() > 0) {
+            this.network.writeArrivals(this.partner, this);
+        }
+    }
+    
+    /**
+     * Method, that finishes the mirrored street after the tick, when its report has arrived: 
+     * the cars, that have turned into it, have been sent to its partition and are counted as its cars from now on
+     * 
+     * @param carStore - store with the state of all cars
+     */
+    void finishMirror(CarStore carStore) {
+        boolean hashing = carStore.isHashing();
+        for (int index = 0; index < this.cars.size() && hashing; index++) {
+            //The fingerprint holds only the cars of this partition
+            carStore.updateHash(carStore.getKey(this.cars.get(index)));
+        }
+        this.mirroredAmount = this.reportedAmount + this.cars.size();
+        this.mirroredTailPosition = this.cars.size() > 0 ? getTailPosition(carStore) : this.reportedTailPosition;
+        this.cars.clear();
+        this.reported = false;
+    }
+    
+    /**
+     * Method, that writes the street with its cars and their state, 
+     * so another replica of the simulation can take them over
+     * 
+     * @param buffer - buffer for the cars
+     * @param carStore - store with the state of all cars
+     */
+    void writeCars(ByteBuffer buffer, CarStore carStore) {
+        buffer.putInt(this.id);
+        buffer.putInt(this.cars.size());
+        for (int index = 0; index < this.cars.size(); index++) {
+            int car = this.cars.get(index);
+            buffer.putInt(car);
+            carStore.writeState(car, buffer);
+        }
+    }
+    
+    /**
+     * Method, that replaces the cars of the street by the cars, that another replica has written 
+     * with {@link #writeCars(ByteBuffer, CarStore)}. The ID of the street has already been read.
+     * 
+     * @param buffer - buffer with the cars
+     * @param carStore - store with the state of all cars
+     */
+    void readCars(ByteBuffer buffer, CarStore carStore) {
+        this.cars.clear();
+        int amount = buffer.getInt();
+        for (int index = 0; index < amount; index++) {
+            int car = buffer.getInt();
+            this.cars.add(car);
+            carStore.readState(car, this.id, buffer);
+        }
+    }
+    
+    /**
+     * Method, that takes over the cars, that have turned into the shared street at the crossing of another partition 
+     * during the tick. They enter it behind the last car, as they have done there. 
+     * The ID of the street has already been read.
+     * 
+     * @param buffer - buffer with the cars
+     * @param carStore - store with the state of all cars
+     */
+    void readArrivals(ByteBuffer buffer, CarStore carStore) {
+        int amount = buffer.getInt();
+        boolean hashing = carStore.isHashing();
+        for (int index = 0; index < amount; index++) {
+            int car = buffer.getInt();
+            carStore.readState(car, this.id, buffer);
+            addCar(car);
+            if (hashing) {
+                carStore.updateHash(carStore.getKey(car));
             }
         }
-        
-        return frontCarPosition;
     }
     
     /**
-     * Method, that updates streets after every tick
+     * Method, that applies the result of the last update to the fingerprint and the active streets: 
+     * if the last car has moved, the street is woken. If the street is stalled, it is left out 
+     * until the next green light switch of its crossing or until it is woken. 
+     * If all cars will just ride with constant speed for some ticks, the street is put into free flow for them.
+     * In a partitioned simulation shared streets never go into free flow, 
+     * and streets, that are kept active, aren't left out, when they are stalled.
      */
-    public static void updateStreets() {
-        for (Street street : streets) {
-            List<Car> originalCars = new ArrayList<>(street.cars);
-            Collections.sort(originalCars, new CarsComparator());
-            for (Car car : originalCars) {
-                if (car.isAlreadyMoved()) {
-                    continue;
+    private void settle() {
+        if (this.keysChange != 0) {
+            this.network.getCarStore().updateHash(this.keysChange);
+            this.keysChange = 0;
+        }
+        if (this.tailMoved) {
+            this.tailMoved = false;
+            wake();
+        }
+        if (this.freeFlowTicks >= MIN_FREE_FLOW_TICKS && !this.shared) {
+            this.network.setInactive(this.id);
+            this.inFreeFlow = true;
+            this.freeFlowStart = this.network.getCrossings().getTick();
+            this.network.startFreeFlow(this.id, this.freeFlowStart + this.freeFlowTicks + 1);
+        } else if (this.stalled && !this.keptActive) {
+            this.network.setInactive(this.id);
+            if (this.cars.size() > 0) {
+                this.endingCrossing.scheduleWake(this);
+            }
+        }
+    }
+    
+    /**
+     * Method, that moves all cars of the street, that haven't moved yet during the tick. 
+     * It notes, if the last car has moved and if no car could move at all.
+     * 
+     * @param carStore - store with the state of all cars
+     */
+    private void update(CarStore carStore) {
+        Lane lane = this.cars;
+        int tailPosition = getTailPosition(carStore);
+        boolean anyMoved = false;
+        boolean hashing = carStore.isHashing();
+        long keysChange = 0;
+        int freeFlowTicks = Integer.MAX_VALUE;
+        int frontSpeed = 0;
+        int index = 0;
+        while (index < lane.size()) {
+            int car = lane.get(index);
+            if (carStore.isAlreadyMoved(car)) {
+                anyMoved = true;
+                freeFlowTicks = 0;
+                index++;
+                continue;
+            }
+            int carsAmount = lane.size();
+            int oldSpeed = carStore.getCurrentSpeed(car);
+            int oldDirection = carStore.getDesiredDirection(car);
+            carStore.updateSpeed(car, this.speedLimit);
+            
+            int frontCarPosition = this.getFrontCarPosition(index);
+            int speed = carStore.getCurrentSpeed(car);
+            int startingPosition = carStore.getPosition(car);
+            int endingPosition;
+            int streetLength = this.length;
+            boolean isFirst = index == 0;
+            
+            //Car is already close to the front car
+            if (!isFirst && frontCarPosition - MIN_DISTANCE == startingPosition) {
+                endingPosition = startingPosition;
+                carStore.setTraveledDistance(car, endingPosition - startingPosition);
+            }
+            //Car doesn't overtake/turn and just rides to the possible distance
+            else if (!isFirst && startingPosition + speed <= frontCarPosition - MIN_DISTANCE 
+                    || isFirst && startingPosition + speed <= streetLength) {
+                endingPosition = startingPosition + speed;
+                carStore.setTraveledDistance(car, speed);
+                carStore.setPosition(car, endingPosition);
+            }
+            //Car can overtake the front car, if it's allowed. Else car stops at the minimal distance
+            else if (!isFirst && startingPosition + speed > frontCarPosition - MIN_DISTANCE) {
+                endingPosition = frontCarPosition - MIN_DISTANCE;
+                carStore.setPosition(car, endingPosition);
+                int distanceLeft = startingPosition + speed - endingPosition;
+                
+                if (this.overtakeAllowed(index, distanceLeft)) {
+                    carStore.overtake(car, distanceLeft, this.getFrontCarPosition(index - 1));
+                    lane.moveAhead(index);
+                    freeFlowTicks = 0;
                 }
-                car.updateSpeed(street.speedLimit);
                 
-                int frontCarPosition = street.getFrontCarPosition(car.getPosition());
-                int speed = car.getCurrentSpeed();
-                int startingPosition = car.getPosition();
-                int endingPosition;
-                int streetLength = street.length;
-                boolean isFirst = street.isFirst(car);
+                carStore.setTraveledDistance(car, carStore.getPosition(car) - startingPosition);
+            }
+            //Car is first on the street and can turn, if it's allowed. Else car stops at the end of the this.
+            else if (isFirst && startingPosition + speed > streetLength) {
+                Crossing crossing = this.endingCrossing;
                 
-                //Car is already close to the front car
-                if (!isFirst && frontCarPosition - MIN_DISTANCE == startingPosition) {
-                    endingPosition = startingPosition;
-                    car.setTraveledDistance(endingPosition - startingPosition);
-                }
-                //Car doesn't overtake/turn and just rides to the possible distance
-                else if (!isFirst && startingPosition + speed <= frontCarPosition - MIN_DISTANCE 
-                        || isFirst && startingPosition + speed <= streetLength) {
-                    endingPosition = startingPosition + speed;
-                    car.setTraveledDistance(speed);
-                    car.setPosition(endingPosition);
-                }
-                //Car can overtake the front car, if it's allowed. Else car stops at the minimal distance
-                else if (!isFirst && startingPosition + speed > frontCarPosition - MIN_DISTANCE) {
-                    endingPosition = frontCarPosition - MIN_DISTANCE;
-                    car.setPosition(endingPosition);
-                    int distanceLeft = startingPosition + speed - endingPosition;
-                    
-                    if (street.overtakeAllowed(car, distanceLeft)) {
-                        car.overtake(distanceLeft);
-                    }
-                    
-                    car.setTraveledDistance(car.getPosition() - startingPosition);
-                }
-                //Car is first on the street and can turn, if it's allowed. Else car stops at the end of the street.
-                else if (isFirst && startingPosition + speed > streetLength) {
-                    Crossing crossing = Crossing.getCrossing(street.endingCrossingID);
-                    
-                    if (crossing.turnAllowed(car)) {
-                        int distance = startingPosition + speed;
-                        car.turn(crossing, distance);
-                    } else {
-                        car.setPosition(streetLength);
-                        car.setTraveledDistance(streetLength - startingPosition);
-                    }
+                if (crossing.turnAllowed(this.id, carStore.getDesiredDirection(car))) {
+                    int distance = startingPosition + speed;
+                    carStore.turn(car, this, crossing, distance);
+                } else {
+                    carStore.setPosition(car, streetLength);
+                    carStore.setTraveledDistance(car, streetLength - startingPosition);
                 }
-                
-                if (car.getTraveledDistance() == 0) {
-                    car.setCurrentSpeed(0);
+            }
+            
+            if (carStore.getTraveledDistance(car) == 0) {
+                carStore.setCurrentSpeed(car, 0);
+            } else {
+                anyMoved = true;
+            }
+            if (hashing && (lane.size() != carsAmount || carStore.getPosition(car) != startingPosition 
+                    || carStore.getCurrentSpeed(car) != oldSpeed)) {
+                keysChange ^= CarStore.getKey(car, this.id, startingPosition, oldSpeed, oldDirection) 
+                        ^ carStore.getKey(car);
+            }
+            //The car behind takes the index of a car, that has turned
+            if (lane.size() == carsAmount) {
+                if (freeFlowTicks >= MIN_FREE_FLOW_TICKS) {
+                    freeFlowTicks = Math.min(freeFlowTicks, 
+                            getFreeFlowTicks(carStore, car, isFirst, frontCarPosition, frontSpeed));
                 }
+                frontSpeed = carStore.getCurrentSpeed(car);
+                index++;
+            } else {
+                anyMoved = true;
+                freeFlowTicks = 0;
             }
         }
+        this.stalled = !anyMoved;
+        this.keysChange = keysChange;
+        //Turns into the street depend on the movement of its last car, if it is close to the beginning
+        boolean freeFlow = !this.stalled && lane.size() > 0 && getTailPosition(carStore) >= MIN_DISTANCE 
+                && freeFlowTicks >= MIN_FREE_FLOW_TICKS;
+        this.freeFlowTicks = freeFlow ? freeFlowTicks : 0;
+        this.tailMoved = getTailPosition(carStore) != tailPosition;
+    }
+    
+    /**
+     * Method, that computes, for how many next ticks the moved car just rides with its constant speed: 
+     * it has reached its maximal speed, doesn't reach the crossing, if it is the first car, 
+     * and doesn't come closer to its front car than the minimal distance.
+     * 
+     * @param carStore - store with the state of all cars
+     * @param car - slot of the car
+     * @param isFirst - true, if the car is the first car of the street
+     * @param frontPosition - position of the front car
+     * @param frontSpeed - speed of the front car
+     * @return - amount of ticks; 0 - if the car can't ride freely during the next tick
+     */
+    private int getFreeFlowTicks(CarStore carStore, int car, boolean isFirst, int frontPosition, int frontSpeed) {
+        int speed = carStore.getCurrentSpeed(car);
+        int position = carStore.getPosition(car);
+        if (speed != Math.min(carStore.getDesiredSpeed(car), this.speedLimit)) {
+            return 0;
+        } else if (isFirst) {
+            return (this.length - position) / speed;
+        } else if (speed > frontSpeed) {
+            return (frontPosition - position - MIN_DISTANCE) / (speed - frontSpeed);
+        }
+        //The distance to the front car doesn't shrink
+        return position + speed <= frontPosition + frontSpeed - MIN_DISTANCE ? Integer.MAX_VALUE : 0;
     }
     
     /**
      * Method, that proves, if the car is allowed to overtake the front car.
      * 
-     * @param car - observed car, that is proved
+     * @param index - index of the observed car in the lane
      * @param distanceLeft - distance, that is left during the tick
      * @return - true, if the car is allowed to overtake; else - false
      */
-    private boolean overtakeAllowed(Car car, int distanceLeft) {
+    private boolean overtakeAllowed(int index, int distanceLeft) {
         if (this.type.equals(StreetType.SINGLELANE)) {
             return false;
         } else if (distanceLeft < 2 * MIN_DISTANCE) {
             return false;
         }
         
-        int frontCarPosition = this.getFrontCarPosition(car.getPosition());
-        int nextCarPosition = this.getFrontCarPosition(frontCarPosition);
+        int frontCarPosition = this.getFrontCarPosition(index);
+        int nextCarPosition = this.getFrontCarPosition(index - 1);
         
         if (nextCarPosition >= frontCarPosition + 2 * MIN_DISTANCE) {
             return true;
@@ -418,6 +1000,4 @@ public class Street implements IStreet {
 
         return false;
     }
-    
-    
 }
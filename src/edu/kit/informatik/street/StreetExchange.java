@@ -0,0 +1,46 @@
+package edu.kit.informatik.street;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interface, that connects the replica of one partition of a simulation with the replicas of the other partitions,
+ * e.g. over sockets between several processes. During the tick the replicas send each other records
+ * about the streets and the cars at the boundary of their partitions.
+ * 
+ * @author ubvaa
+ * @version 1.1
+ */
+public interface StreetExchange {
+    /**
+     * Getter for the partition, that this replica simulates
+     * 
+     * @return - index of the partition
+     */
+    int getPartitionIndex();
+    
+    /**
+     * Getter for the amount of partitions
+     * 
+     * @return - amount of partitions
+     */
+    int getPartitionsAmount();
+    
+    /**
+     * Method, that sends the records to the replica of another partition,
+     * which receives them in the same order with {@link #receive(int)}
+     * 
+     * @param partition - index of the other partition
+     * @param records - records from the position to the limit, they are sent, before the method returns
+     * @throws java.io.UncheckedIOException if the other replica can't be reached
+     */
+    void send(int partition, ByteBuffer records);
+    
+    /**
+     * Method, that waits for the next records from the replica of another partition
+     * 
+     * @param partition - index of the other partition
+     * @return - records from the position to the limit, as they have been sent
+     * @throws java.io.UncheckedIOException if the other replica can't be reached
+     */
+    ByteBuffer receive(int partition);
+}
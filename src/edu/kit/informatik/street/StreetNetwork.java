@@ -0,0 +1,755 @@
+package edu.kit.informatik.street;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.kit.informatik.car.CarStates;
+import edu.kit.informatik.car.CarStore;
+import edu.kit.informatik.crossing.CrossingNetwork;
+import edu.kit.informatik.snapshot.SnapshotReader;
+import edu.kit.informatik.snapshot.SnapshotWriter;
+import edu.kit.informatik.util.TickQueue;
+import edu.kit.kastel.trafficsimulation.io.SimulationSource;
+
+/**
+ * Class, that holds all streets of one simulation with the streets, that must be updated during the next tick,
+ * and the streets in free flow.
+ * A new network is checked, while the network of the latest correct load is still simulated.
+ * 
+ * @author ubvaa
+ * @version 1.7
+ */
+public class StreetNetwork {
+    /**
+     * Record of a shared street after its update: ID, amount of cars and position of the last car
+     */
+    private static final int REPORT_RECORD = 1;
+    /**
+     * Record of the cars, that have turned into a shared street: ID, amount of cars and each car with its state
+     */
+    private static final int ARRIVALS_RECORD = 2;
+    /**
+     * Record, that ends the records of a partition for the tick
+     */
+    private static final int END_RECORD = 3;
+    /**
+     * List of all streets, the ID of each street is its index
+     */
+    private final List<Street> streets = new ArrayList<>();
+    /**
+     * Crossings of the simulation
+     */
+    private final CrossingNetwork crossings;
+    /**
+     * Store with the state of all cars of the simulation
+     */
+    private final CarStore carStore;
+    /**
+     * IDs of the streets, that must be updated during the next tick.
+     * Empty and stalled streets are left out, until they are woken.
+     */
+    private BitSet activeStreets = new BitSet();
+    /**
+     * IDs of the active streets for the parallel part of the tick
+     */
+    private int[] parallelStreets = new int[0];
+    /**
+     * IDs of the streets in free flow by the tick, in which they must be updated again
+     */
+    private TickQueue freeFlowEnds = new TickQueue(0);
+    /**
+     * Tasks of the parallel part of the tick, that are reused in every tick
+     */
+    private MoveTask[] moveTasks = new MoveTask[0];
+    /**
+     * Task, that runs all move tasks in the pool
+     */
+    private final MoveAllTask moveAllTask = new MoveAllTask(this);
+    /**
+     * Amount of the streets in free flow
+     */
+    private int freeFlowAmount;
+    /**
+     * ID of the street, that is updated at the moment; -1 - between the ticks
+     */
+    private int currentStreetID = -1;
+    /**
+     * Connection to the other partitions of a partitioned simulation, null - if the network is simulated alone
+     */
+    private StreetExchange exchange;
+    /**
+     * IDs of the streets of this partition, null - if the network is simulated alone
+     */
+    private BitSet ownStreets;
+    /**
+     * IDs of the streets of other partitions, that start at crossings of this partition
+     */
+    private int[] mirroredStreets = new int[0];
+    /**
+     * Records for each other partition, that haven't been sent yet
+     */
+    private ByteBuffer[] outputs = new ByteBuffer[0];
+    /**
+     * Records from each other partition, that have been received, but not read yet
+     */
+    private ByteBuffer[] inputs = new ByteBuffer[0];
+    /**
+     * Buffer for the streets of this partition with their cars, that is reused by every call
+     */
+    private ByteBuffer partitionCars = ByteBuffer.allocate(0);
+    
+    /**
+     * Constructor of a new network without streets
+     * 
+     * @param crossings - crossings of the simulation
+     * @param carStore - store with the state of all cars of the simulation
+     */
+    public StreetNetwork(CrossingNetwork crossings, CarStore carStore) {
+        this.crossings = crossings;
+        this.carStore = carStore;
+    }
+    
+    /**
+     * Getter for the street (by ID).
+     * Streets' IDs are their line numbers in the file, so the ID is the index in the list.
+     * 
+     * @param id - ID of the street
+     * @return - Street with this ID, if it exists; else - null
+     */
+    public Street getStreet(int id) {
+        if (id < 0 || id >= this.streets.size()) {
+            return null;
+        }
+        return this.streets.get(id);
+    }
+    
+    /**
+     * Getter for the amount of streets
+     * 
+     * @return - amount of streets
+     */
+    public int size() {
+        return this.streets.size();
+    }
+    
+    /**
+     * Getter for the crossings of the simulation
+     * 
+     * @return - crossings of the simulation
+     */
+    CrossingNetwork getCrossings() {
+        return this.crossings;
+    }
+    
+    /**
+     * Getter for the store with the state of all cars of the simulation
+     * 
+     * @return - store of the cars
+     */
+    CarStore getCarStore() {
+        return this.carStore;
+    }
+    
+    /**
+     * Getter for the ID of the street, that is updated at the moment
+     * 
+     * @return - ID of the street; -1 - between the ticks
+     */
+    int getCurrentStreetID() {
+        return this.currentStreetID;
+    }
+    
+    /**
+     * Method, that checks the input streets' file for correctness.
+     * 
+     * @param source - source of the simulation files' records
+     * @return - true - if everything is correct; else - false
+     * @throws IOException if the file can't be read
+     */
+    public boolean checkInput(SimulationSource source) throws IOException {
+        return source.readStreets(fields -> {
+            Street street = Street.checkStreet(this, this.streets.size(), fields);
+            if (street == null) {
+                return false;
+            }
+            this.streets.add(street);
+            return true;
+        });
+    }
+    
+    /**
+     * Method, that checks, if amount of cars on each street isn't bigger,
+     * than maximal allowed amount of cars on this street
+     * 
+     * @return true - if everything is correct; else - false
+     */
+    public boolean checkCars() {
+        for (Street street : this.streets) {
+            if (!street.checkCars()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Method, that prepares the checked streets to be simulated: all streets are active and none is in free flow
+     */
+    public void compile() {
+        for (Street street : this.streets) {
+            street.reserveLane();
+        }
+        this.activeStreets = new BitSet(this.streets.size());
+        this.activeStreets.set(0, this.streets.size());
+        this.freeFlowEnds = new TickQueue(this.streets.size());
+        this.freeFlowAmount = 0;
+    }
+    
+    /**
+     * Method, that makes this replica simulate one partition of the network together with the replicas 
+     * of the other partitions. The crossings are split into ranges of IDs with about the same total length 
+     * of their incoming streets, and each street belongs to the partition of its ending crossing, 
+     * which turns its cars. The cars must be positioned before.
+     * 
+     * @param exchange - connection to the other partitions
+     */
+    public void partition(StreetExchange exchange) {
+        int index = exchange.getPartitionIndex();
+        int amount = exchange.getPartitionsAmount();
+        long[] incomingLengths = new long[this.crossings.size()];
+        long totalLength = 0;
+        for (Street street : this.streets) {
+            incomingLengths[street.getEndingCrossing().getIndex()] += street.getLength();
+            totalLength += street.getLength();
+        }
+        int[] crossingOwners = new int[incomingLengths.length];
+        long prefixLength = 0;
+        for (int crossing = 0; crossing < crossingOwners.length; crossing++) {
+            crossingOwners[crossing] = (int) (prefixLength * amount / totalLength);
+            prefixLength += incomingLengths[crossing];
+        }
+        
+        //The fingerprint holds only the cars of this partition, so the fingerprints of all partitions are combined
+        this.carStore.startHashing();
+        long ownKeys = 0;
+        this.ownStreets = new BitSet(this.streets.size());
+        int mirroredAmount = 0;
+        for (Street street : this.streets) {
+            if (crossingOwners[street.getEndingCrossing().getIndex()] == index) {
+                this.ownStreets.set(street.getID());
+                for (int car = 0; car < street.getCarsAmount(); car++) {
+                    ownKeys ^= this.carStore.getKey(street.getCarSlot(car));
+                }
+            }
+            street.partition(crossingOwners, index, this.carStore);
+            mirroredAmount += street.isMirrored() ? 1 : 0;
+        }
+        this.carStore.updateHash(this.carStore.getStateHash() ^ ownKeys);
+        this.activeStreets.and(this.ownStreets);
+        this.mirroredStreets = new int[mirroredAmount];
+        mirroredAmount = 0;
+        for (Street street : this.streets) {
+            if (street.isMirrored()) {
+                this.mirroredStreets[mirroredAmount++] = street.getID();
+            }
+        }
+        
+        this.exchange = exchange;
+        this.outputs = new ByteBuffer[amount];
+        this.inputs = new ByteBuffer[amount];
+        for (int partition = 0; partition < amount; partition++) {
+            this.outputs[partition] = ByteBuffer.allocate(0);
+            this.inputs[partition] = ByteBuffer.allocate(0);
+        }
+        //Each street is written with its ID and amount of cars, each car with its slot and its state
+        this.partitionCars = ByteBuffer.allocate((2 * this.streets.size() 
+                + (1 + CarStore.STATE_FIELDS) * this.carStore.size()) * Integer.BYTES);
+    }
+    
+    /**
+     * Method, that writes all streets with the order of their cars to the snapshot
+     * 
+     * @param writer - writer of the snapshot
+     */
+    public void saveState(SnapshotWriter writer) {
+        writer.putInt(this.streets.size());
+        for (Street street : this.streets) {
+            street.saveState(writer);
+        }
+    }
+    
+    /**
+     * Method, that reads all streets of the snapshot into the network. 
+     * Every car must be on exactly one street, which is the street of the car in the store, 
+     * and its position must be on the street.
+     * 
+     * @param reader - reader of the snapshot
+     * @throws IOException if the snapshot is corrupted
+     */
+    public void restoreState(SnapshotReader reader) throws IOException {
+        int amount = reader.getAmount(reader.remaining());
+        boolean[] placedCars = new boolean[this.carStore.size()];
+        for (int id = 0; id < amount; id++) {
+            Street street = Street.restoreState(this, reader, id, this.carStore.size());
+            street.checkRestoredCars(this.carStore, placedCars);
+            this.streets.add(street);
+        }
+        for (boolean placed : placedCars) {
+            //The street of the car doesn't exist or doesn't hold the car
+            if (!placed) {
+                throw new IOException("snapshot is corrupted");
+            }
+        }
+    }
+    
+    /**
+     * Method, that checks the crossings of the streets, that have been read from the snapshot
+     * 
+     * @throws IOException if a street doesn't start at a crossing or doesn't end at its ending crossing
+     */
+    public void checkRestoredCrossings() throws IOException {
+        for (Street street : this.streets) {
+            street.checkRestoredCrossings();
+        }
+    }
+    
+    /**
+     * Method, that positions all cars at the begin of the simulation
+     */
+    public void positionCars() {
+        for (Street street : this.streets) {
+            street.positionCars(this.carStore);
+        }
+    }
+    
+    /**
+     * Method, that adds all streets to the active streets
+     */
+    public void activateAll() {
+        leaveFreeFlowAll();
+        for (Street street : this.streets) {
+            street.activate();
+        }
+    }
+    
+    /**
+     * Method, that adds the street to the active streets
+     * 
+     * @param id - ID of the street
+     */
+    void setActive(int id) {
+        //Streets of other partitions aren't updated by this replica
+        if (this.ownStreets == null || this.ownStreets.get(id)) {
+            this.activeStreets.set(id);
+        }
+    }
+    
+    /**
+     * Method, that removes the street from the active streets
+     * 
+     * @param id - ID of the street
+     */
+    void setInactive(int id) {
+        this.activeStreets.clear(id);
+    }
+    
+    /**
+     * Method, that ends the free flow of the street of the car, so the car store holds the current state of the car. 
+     * Every read of the car store outside of the ticks must be preceded by this method or by {@link #leaveFreeFlowAll()}.
+     * 
+     * @param slot - slot of the car
+     */
+    public void settleCar(int slot) {
+        this.streets.get(this.carStore.getStreetID(slot)).leaveFreeFlow();
+    }
+    
+    /**
+     * Method, that ends the free flow of all streets, so the car store holds the current state of all cars
+     */
+    public void leaveFreeFlowAll() {
+        for (Street street : this.streets) {
+            street.leaveFreeFlow();
+        }
+    }
+    
+    /**
+     * Method, that moves the cars of all streets in free flow in the copy of their state, 
+     * so the copy holds the current state of all cars without ending the free flow
+     * 
+     * @param states - copy of the state of all cars
+     */
+    public void addFreeFlowRides(CarStates states) {
+        if (this.freeFlowAmount == 0) {
+            return;
+        }
+        for (Street street : this.streets) {
+            street.addFreeFlowRides(states);
+        }
+    }
+    
+    /**
+     * Method, that notes, that the street has gone into free flow
+     * 
+     * @param id - ID of the street
+     * @param endTick - tick, in which the street must be updated again
+     */
+    void startFreeFlow(int id, long endTick) {
+        this.freeFlowAmount++;
+        this.freeFlowEnds.add(id, endTick);
+    }
+    
+    /**
+     * Method, that notes, that the street has left the free flow
+     * 
+     * @param id - ID of the street
+     */
+    void endFreeFlow(int id) {
+        this.freeFlowAmount--;
+        this.freeFlowEnds.remove(id);
+    }
+    
+    /**
+     * Method, that shows, if any street is in free flow, so the car store and its fingerprint
+     * don't hold the current state of all cars
+     * 
+     * @return true - if yes; else - false
+     */
+    public boolean isAnyInFreeFlow() {
+        return this.freeFlowAmount > 0;
+    }
+    
+    /**
+     * Method, that updates streets after every tick.
+     * Only active streets are updated in the order of their IDs, the others would stay unchanged.
+     */
+    public void updateStreets() {
+        endFreeFlows();
+        BitSet active = this.activeStreets;
+        for (int id = active.nextSetBit(0); id >= 0; id = active.nextSetBit(id + 1)) {
+            this.currentStreetID = id;
+            this.streets.get(id).move(this.carStore);
+        }
+        this.currentStreetID = -1;
+    }
+    
+    /**
+     * Method, that ends the free flow of the streets, whose cars can meet other cars or the crossing in this tick
+     */
+    private void endFreeFlows() {
+        long tick = this.crossings.getTick();
+        while (!this.freeFlowEnds.isEmpty() && this.freeFlowEnds.peekTick() <= tick) {
+            this.streets.get(this.freeFlowEnds.poll()).leaveFreeFlow();
+        }
+    }
+    
+    /**
+     * Method, that updates streets after every tick on the worker threads of the pool.
+     * 
+     * Streets, whose first car doesn't reach the crossing, depend on no other street and are moved in parallel.
+     * Then the remaining streets are updated one after another in the order of their IDs,
+     * so all turns take place in the same order and the result is identical to {@link #updateStreets()}.
+     * Until a street is reached in this order or gets a new car, other streets see its tail
+     * from the beginning of the tick, as they would in the sequential update.
+     * Only active streets are updated; streets, that are woken during the tick, join the sequential part.
+     * 
+     * @param pool - pool of the worker threads
+     */
+    public void updateStreets(ForkJoinPool pool) {
+        endFreeFlows();
+        BitSet active = this.activeStreets;
+        int amount = active.cardinality();
+        if (this.parallelStreets.length < amount) {
+            this.parallelStreets = new int[this.streets.size()];
+        }
+        int index = 0;
+        for (int id = active.nextSetBit(0); id >= 0; id = active.nextSetBit(id + 1)) {
+            this.parallelStreets[index++] = id;
+        }
+        moveInParallel(pool, amount);
+        for (int id = active.nextSetBit(0); id >= 0; id = active.nextSetBit(id + 1)) {
+            this.currentStreetID = id;
+            this.streets.get(id).finishParallelMove(this.carStore);
+        }
+        this.currentStreetID = -1;
+    }
+    
+    /**
+     * Method, that updates the streets of this partition after every tick together with the other partitions.
+     * 
+     * The active streets of the partition are updated in the order of their IDs as in {@link #updateStreets()}, 
+     * and the cars turn at the crossings of the partition. A street of another partition, that starts at one 
+     * of them, is seen with the amount of its cars and its last car from the beginning of the tick, 
+     * until its turn in the order of the IDs has come. From then on it is seen, as its partition reports it 
+     * after its update, so this replica waits for the report, if it hasn't arrived yet. 
+     * The cars, that have turned into the street, are sent to its partition at the end of the tick, 
+     * where they enter the street behind its last car, so the result is identical to {@link #updateStreets()}.
+     * Only the reports of the streets at the partition boundary and the cars, that cross it, are exchanged.
+     */
+    public void updatePartition() {
+        endFreeFlows();
+        BitSet active = this.activeStreets;
+        for (int id = active.nextSetBit(0); id >= 0; id = active.nextSetBit(id + 1)) {
+            this.currentStreetID = id;
+            Street street = this.streets.get(id);
+            street.move(this.carStore);
+            street.report();
+        }
+        this.currentStreetID = -1;
+        for (int id : this.mirroredStreets) {
+            this.streets.get(id).sendArrivals();
+        }
+        int index = this.exchange.getPartitionIndex();
+        for (int partition = 0; partition < this.outputs.length; partition++) {
+            if (partition != index) {
+                getOutput(partition, Integer.BYTES).putInt(END_RECORD);
+            }
+        }
+        sendRecords();
+        for (int partition = 0; partition < this.inputs.length; partition++) {
+            while (partition != index && readRecord(partition)) {
+                //The arrived cars and reports are taken over by the streets
+            }
+        }
+        for (int id : this.mirroredStreets) {
+            this.streets.get(id).finishMirror(this.carStore);
+        }
+    }
+    
+    /**
+     * Method, that writes the report of a shared street after its update to the partition of its start crossing
+     * 
+     * @param partition - partition of the start crossing
+     * @param id - ID of the street
+     * @param amount - amount of the cars of the street
+     * @param tailPosition - position of the last car
+     * @param urgent - true, if the report is sent at once; false - if it may wait for the next records
+     */
+    void writeReport(int partition, int id, int amount, int tailPosition, boolean urgent) {
+        getOutput(partition, 4 * Integer.BYTES).putInt(REPORT_RECORD).putInt(id).putInt(amount).putInt(tailPosition);
+        if (urgent) {
+            sendRecords(partition);
+        }
+    }
+    
+    /**
+     * Method, that writes the cars, that have turned into the street of another partition, to this partition
+     * 
+     * @param partition - partition of the street
+     * @param street - street with the cars
+     */
+    void writeArrivals(int partition, Street street) {
+        int size = (3 + street.getCarsAmount() * (1 + CarStore.STATE_FIELDS)) * Integer.BYTES;
+        getOutput(partition, size).putInt(ARRIVALS_RECORD);
+        street.writeCars(this.outputs[partition], this.carStore);
+    }
+    
+    /**
+     * Helping method, that gets the records for the partition with space for more bytes
+     * 
+     * @param partition - partition of the records
+     * @param bytes - amount of bytes, that are written
+     * @return - records of the partition
+     */
+    private ByteBuffer getOutput(int partition, int bytes) {
+        ByteBuffer output = this.outputs[partition];
+        if (output.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(2 * (output.position() + bytes));
+            grown.put(output.flip());
+            this.outputs[partition] = grown;
+            output = grown;
+        }
+        return output;
+    }
+    
+    /**
+     * Method, that sends the written records to all other partitions
+     */
+    void sendRecords() {
+        for (int partition = 0; partition < this.outputs.length; partition++) {
+            sendRecords(partition);
+        }
+    }
+    
+    /**
+     * Helping method, that sends the written records to the partition
+     * 
+     * @param partition - partition of the records
+     */
+    private void sendRecords(int partition) {
+        ByteBuffer output = this.outputs[partition];
+        if (output.position() > 0) {
+            this.exchange.send(partition, output.flip());
+            output.clear();
+        }
+    }
+    
+    /**
+     * Method, that reads the next record of the partition and waits for it, if it hasn't been received yet
+     * 
+     * @param partition - partition of the record
+     * @return true - if a report or cars have been read; false - if the partition has ended its records of the tick
+     */
+    boolean readRecord(int partition) {
+        ByteBuffer input = this.inputs[partition];
+        if (!input.hasRemaining()) {
+            input = this.exchange.receive(partition);
+            this.inputs[partition] = input;
+        }
+        int record = input.getInt();
+        if (record == REPORT_RECORD) {
+            this.streets.get(input.getInt()).readReport(input.getInt(), input.getInt());
+        } else if (record == ARRIVALS_RECORD) {
+            this.streets.get(input.getInt()).readArrivals(input, this.carStore);
+        }
+        return record != END_RECORD;
+    }
+    
+    /**
+     * Method, that writes the streets of this partition with their cars and the state of the cars 
+     * of the current tick, so they can be read into another replica with {@link #readPartition(ByteBuffer)}. 
+     * The streets leave the free flow before.
+     * 
+     * @return - buffer with the streets from the position to the limit, it is reused by the next call
+     */
+    public ByteBuffer writePartition() {
+        leaveFreeFlowAll();
+        ByteBuffer buffer = this.partitionCars;
+        buffer.clear();
+        for (int id = this.ownStreets.nextSetBit(0); id >= 0; id = this.ownStreets.nextSetBit(id + 1)) {
+            this.streets.get(id).writeCars(buffer, this.carStore);
+        }
+        return buffer.flip();
+    }
+    
+    /**
+     * Method, that takes over the streets of a partition with their cars, that another replica has written 
+     * with {@link #writePartition()}. The cars of the other streets stay unchanged.
+     * 
+     * @param buffer - buffer with the streets from the position to the limit
+     */
+    public void readPartition(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            this.streets.get(buffer.getInt()).readCars(buffer, this.carStore);
+        }
+    }
+    
+    /**
+     * Helping method, that moves the first active streets on the worker threads of the pool.
+     * The streets are split into equal ranges for a fixed amount of tasks, which are reused in every tick.
+     * 
+     * @param pool - pool of the worker threads
+     * @param amount - amount of the active streets in {@link #parallelStreets}
+     */
+    private void moveInParallel(ForkJoinPool pool, int amount) {
+        int tasksAmount = pool.getParallelism() * MoveTask.TASKS_PER_WORKER;
+        if (this.moveTasks.length != tasksAmount) {
+            this.moveTasks = new MoveTask[tasksAmount];
+            for (int index = 0; index < tasksAmount; index++) {
+                this.moveTasks[index] = new MoveTask(this);
+            }
+        }
+        for (int index = 0; index < tasksAmount; index++) {
+            this.moveTasks[index].reset((int) ((long) amount * index / tasksAmount),
+                    (int) ((long) amount * (index + 1) / tasksAmount));
+        }
+        this.moveAllTask.reinitialize();
+        pool.invoke(this.moveAllTask);
+    }
+    
+    /**
+     * Task, that moves a range of streets during the parallel part of the tick.
+     * It is reused in every tick, so the parallel part doesn't allocate.
+     * 
+     * @author ubvaa
+     * @version 1.2
+     */
+    private static final class MoveTask extends RecursiveAction {
+        /**
+         * Amount of tasks for each worker thread, so the workers can balance streets with many cars
+         */
+        private static final int TASKS_PER_WORKER = 8;
+        /**
+         * Serial version UID
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Network of the moved streets
+         */
+        private final transient StreetNetwork network;
+        /**
+         * Index of the first street of the range in the active streets
+         */
+        private int from;
+        /**
+         * Index after the last street of the range in the active streets
+         */
+        private int to;
+        
+        /**
+         * Constructor of a new task
+         * 
+         * @param network - network of the moved streets
+         */
+        MoveTask(StreetNetwork network) {
+            this.network = network;
+        }
+        
+        /**
+         * Method, that prepares the task for the next tick
+         * 
+         * @param from - index of the first street of the range
+         * @param to - index after the last street of the range
+         */
+        void reset(int from, int to) {
+            reinitialize();
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            List<Street> streets = this.network.streets;
+            int[] ids = this.network.parallelStreets;
+            CarStore carStore = this.network.carStore;
+            for (int index = this.from; index < this.to; index++) {
+                streets.get(ids[index]).moveInParallel(carStore);
+            }
+        }
+    }
+    
+    /**
+     * Task, that runs all move tasks of the tick
+     * 
+     * @author ubvaa
+     * @version 1.1
+     */
+    private static final class MoveAllTask extends RecursiveAction {
+        /**
+         * Serial version UID
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Network of the moved streets
+         */
+        private final transient StreetNetwork network;
+        
+        /**
+         * Constructor of a new task
+         * 
+         * @param network - network of the moved streets
+         */
+        MoveAllTask(StreetNetwork network) {
+            this.network = network;
+        }
+        
+        @Override
+        protected void compute() {
+            invokeAll(this.network.moveTasks);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package edu.kit.informatik.sweep;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.kit.informatik.main.ReadWrite;
+import edu.kit.informatik.main.Simulation;
+import edu.kit.kastel.trafficsimulation.io.SimulationFileLoader;
+import edu.kit.kastel.trafficsimulation.io.SimulationRecords;
+
+/**
+ * Tool, that simulates many variants of one street network concurrently.
+ * 
+ * The simulation files are parsed and checked once, each variant of the sweep spec derives its records 
+ * from them and is simulated by its own {@link Simulation} on a fixed pool of worker threads. 
+ * The final positions of each variant are written to {@code <output folder>/<name>.csv} 
+ * as lines {@code carID,streetID,speed,position}, the summary line 
+ * {@code name,cars,averageSpeed,stopped} of each variant is output in the order of the spec.
+ * 
+ * Usage: {@code SweepRunner <network folder> <spec file> <ticks> <output folder> [--workers <amount>]}
+ * 
+ * @author ubvaa
+ * @version 1.0
+ */
+public final class SweepRunner {
+    /**
+     * Usage of the tool
+     */
+    private static final String USAGE = "usage: SweepRunner <network folder> <spec file> <ticks> <output folder> "
+            + "[--workers <amount>]";
+    /**
+     * Start of the comment lines of the sweep spec
+     */
+    private static final String COMMENT = "#";
+    /**
+     * Amount of fields of a position record
+     */
+    private static final int POSITION_FIELDS = 4;
+    /**
+     * Index of the speed in the position record
+     */
+    private static final int SPEED_FIELD = 2;
+    
+    /**
+     * Records of the base network
+     */
+    private final SimulationRecords base;
+    /**
+     * Amount of ticks, that each variant is simulated
+     */
+    private final long ticksAmount;
+    /**
+     * Folder for the positions of the variants
+     */
+    private final Path outputFolder;
+    
+    /**
+     * Constructor of a new runner
+     * 
+     * @param base - records of the base network, that have been checked
+     * @param ticksAmount - amount of ticks, that each variant is simulated
+     * @param outputFolder - folder for the positions of the variants
+     */
+    public SweepRunner(SimulationRecords base, long ticksAmount, Path outputFolder) {
+        if (ticksAmount < 0) {
+            throw new IllegalArgumentException("amount of ticks must be >= 0");
+        }
+        this.base = base;
+        this.ticksAmount = ticksAmount;
+        this.outputFolder = outputFolder;
+    }
+    
+    /**
+     * Method, that reads the variants of the sweep spec. Empty lines and lines starting with # are skipped.
+     * 
+     * @param file - path of the spec file
+     * @return - variants in the order of the file
+     * @throws IOException if the file can't be read
+     */
+    public static List<SweepVariant> readSpec(Path file) throws IOException {
+        List<SweepVariant> variants = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        List<String> lines = Files.readAllLines(file);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith(COMMENT)) {
+                continue;
+            }
+            SweepVariant variant;
+            try {
+                variant = SweepVariant.parse(line);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("line " + (i + 1) + ": " + e.getMessage());
+            }
+            if (!names.add(variant.getName())) {
+                throw new IllegalArgumentException("line " + (i + 1) + ": repeated variant " + variant.getName());
+            }
+            variants.add(variant);
+        }
+        return variants;
+    }
+    
+    /**
+     * Method, that simulates all variants on the worker threads
+     * 
+     * @param variants - variants of the sweep
+     * @param workersAmount - amount of worker threads
+     * @return - summary lines of the variants in the order of the variants
+     * @throws IOException if the positions of a variant can't be written
+     * @throws InterruptedException if the waiting for the workers is interrupted
+     */
+    public List<String> run(List<SweepVariant> variants, int workersAmount) throws IOException, InterruptedException {
+        Files.createDirectories(this.outputFolder);
+        ExecutorService pool = Executors.newFixedThreadPool(workersAmount);
+        try {
+            List<Future<String>> summaries = new ArrayList<>(variants.size());
+            for (SweepVariant variant : variants) {
+                summaries.add(pool.submit(() -> runVariant(variant)));
+            }
+            List<String> lines = new ArrayList<>(variants.size());
+            for (Future<String> summary : summaries) {
+                lines.add(summary.get());
+            }
+            return lines;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Method, that simulates one variant and writes its final positions
+     * 
+     * @param variant - variant to be simulated
+     * @return - summary line {@code name,cars,averageSpeed,stopped}; {@code name,invalid} - if it can't be loaded
+     * @throws IOException if the positions can't be written
+     */
+    private String runVariant(SweepVariant variant) throws IOException {
+        Simulation simulation = new Simulation();
+        if (!simulation.load(variant.apply(this.base))) {
+            return variant.getName() + ",invalid";
+        }
+        simulation.simulate(this.ticksAmount);
+        
+        int[] record = new int[POSITION_FIELDS];
+        long speedsSum = 0;
+        int stoppedAmount = 0;
+        int carsAmount = simulation.getCarsAmount();
+        try (BufferedWriter writer = Files.newBufferedWriter(this.outputFolder.resolve(variant.getName() + ".csv"))) {
+            for (int slot = 0; slot < carsAmount; slot++) {
+                simulation.readPosition(slot, record);
+                writer.write(record[0] + "," + record[1] + "," + record[SPEED_FIELD] + "," + record[3]);
+                writer.newLine();
+                speedsSum += record[SPEED_FIELD];
+                if (record[SPEED_FIELD] == 0) {
+                    stoppedAmount++;
+                }
+            }
+        }
+        double averageSpeed = carsAmount == 0 ? 0 : (double) speedsSum / carsAmount;
+        return variant.getName() + "," + carsAmount + "," + String.format(Locale.ROOT, "%.2f", averageSpeed) + "," 
+                + stoppedAmount;
+    }
+    
+    /**
+     * Entry point of the tool
+     * 
+     * @param args - network folder, spec file, amount of ticks, output folder and options of the sweep
+     */
+    public static void main(String[] args) {
+        if (args.length != 4 && !(args.length == 6 && args[4].equals("--workers"))) {
+            ReadWrite.writeError(USAGE);
+            return;
+        }
+        try {
+            int workersAmount = args.length == 6 ? Integer.parseInt(args[5]) 
+                    : Runtime.getRuntime().availableProcessors();
+            if (workersAmount < 1) {
+                throw new IllegalArgumentException("amount of workers must be >= 1");
+            }
+            long ticksAmount = Long.parseLong(args[2]);
+            List<SweepVariant> variants = readSpec(Path.of(args[1]));
+            SimulationFileLoader fileLoader = new SimulationFileLoader(args[0]);
+            fileLoader.checkFiles();
+            SimulationRecords base = SimulationRecords.read(fileLoader);
+            //The errors of the base network are output once, not for every variant
+            if (!new Simulation().load(base)) {
+                return;
+            }
+            SweepRunner runner = new SweepRunner(base, ticksAmount, Path.of(args[3]));
+            for (String summary : runner.run(variants, workersAmount)) {
+                ReadWrite.writeLine(summary);
+            }
+        } catch (IllegalArgumentException e) {
+            ReadWrite.writeError(e.getMessage() + ", " + USAGE);
+        } catch (IOException e) {
+            ReadWrite.writeError(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
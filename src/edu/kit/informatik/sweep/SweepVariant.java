@@ -0,0 +1,230 @@
+package edu.kit.informatik.sweep;
+
+import java.util.regex.Pattern;
+
+import edu.kit.kastel.trafficsimulation.io.SimulationRecords;
+import edu.kit.kastel.trafficsimulation.io.SimulationRecords.Table;
+
+/**
+ * Class, that implements one variant of a parameter sweep: it derives changed records from the base network.
+ * 
+ * A variant is given by one line of the sweep spec: {@code <name> [green=<t>] [speed=<m/t>] 
+ * [acceleration=<m/t^2>] [seed=<seed>]}. Every value may be a range {@code <min>..<max>}, 
+ * from which each crossing or car gets its own value. The values only depend on the seed and the ID, 
+ * so a variant always derives the same records. Green light times are only changed on crossroads, 
+ * roundabouts stay roundabouts. Attributes without a value keep the values of the base network.
+ * 
+ * @author ubvaa
+ * @version 1.0
+ */
+public final class SweepVariant {
+    /**
+     * Minimal green time of the crossroad (in ticks)
+     */
+    private static final int MIN_GREEN_TIME = 3;
+    /**
+     * Maximal green time of the crossroad (in ticks)
+     */
+    private static final int MAX_GREEN_TIME = 10;
+    /**
+     * Minimal allowed desired speed
+     */
+    private static final int MIN_DESIRED_SPEED = 20;
+    /**
+     * Maximal allowed desired speed
+     */
+    private static final int MAX_DESIRED_SPEED = 40;
+    /**
+     * Minimal allowed acceleration
+     */
+    private static final int MIN_ACCELERATION = 1;
+    /**
+     * Maximal allowed acceleration
+     */
+    private static final int MAX_ACCELERATION = 10;
+    /**
+     * Index of the ID in the crossing and car records
+     */
+    private static final int ID_FIELD = 0;
+    /**
+     * Index of the green light time in the crossing records
+     */
+    private static final int GREEN_TIME_FIELD = 1;
+    /**
+     * Index of the desired speed in the car records
+     */
+    private static final int DESIRED_SPEED_FIELD = 2;
+    /**
+     * Index of the acceleration in the car records
+     */
+    private static final int ACCELERATION_FIELD = 3;
+    /**
+     * Allowed names of the variants, they are used as file names
+     */
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_.-]+");
+    /**
+     * Separator between the minimum and the maximum of a range
+     */
+    private static final String RANGE_SEPARATOR = "..";
+    
+    /**
+     * Name of the variant
+     */
+    private final String name;
+    /**
+     * Minimal and maximal green light time of the crossroads, null - if they aren't changed
+     */
+    private int[] greenTimes;
+    /**
+     * Minimal and maximal desired speed of the cars, null - if they aren't changed
+     */
+    private int[] desiredSpeeds;
+    /**
+     * Minimal and maximal acceleration of the cars, null - if they aren't changed
+     */
+    private int[] accelerations;
+    /**
+     * Seed, from which the values of the ranges are derived
+     */
+    private long seed;
+    
+    /**
+     * Constructor of a variant, that keeps all values of the base network
+     * 
+     * @param name - name of the variant
+     */
+    private SweepVariant(String name) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("invalid variant name " + name);
+        }
+        this.name = name;
+    }
+    
+    /**
+     * Method, that parses one line of the sweep spec
+     * 
+     * @param line - line with the name and the values of the variant, separated by spaces
+     * @return - parsed variant
+     */
+    public static SweepVariant parse(String line) {
+        String[] parts = line.trim().split("\\s+");
+        SweepVariant variant = new SweepVariant(parts[0]);
+        for (int i = 1; i < parts.length; i++) {
+            String[] option = parts[i].split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("invalid value " + parts[i]);
+            }
+            switch (option[0]) {
+                case "green":
+                    variant.greenTimes = parseRange(option[1], MIN_GREEN_TIME, MAX_GREEN_TIME, "green times");
+                    break;
+                case "speed":
+                    variant.desiredSpeeds = parseRange(option[1], MIN_DESIRED_SPEED, MAX_DESIRED_SPEED, 
+                            "desired speeds");
+                    break;
+                case "acceleration":
+                    variant.accelerations = parseRange(option[1], MIN_ACCELERATION, MAX_ACCELERATION, 
+                            "accelerations");
+                    break;
+                case "seed":
+                    variant.seed = Long.parseLong(option[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown value " + option[0]);
+            }
+        }
+        return variant;
+    }
+    
+    /**
+     * Method, that parses a single value or a range of values
+     * 
+     * @param text - value or range {@code <min>..<max>}
+     * @param min - minimal allowed value
+     * @param max - maximal allowed value
+     * @param what - name of the values in the error message
+     * @return - minimal and maximal value of the range
+     */
+    private static int[] parseRange(String text, int min, int max, String what) {
+        int separator = text.indexOf(RANGE_SEPARATOR);
+        int[] range = new int[2];
+        if (separator < 0) {
+            range[0] = Integer.parseInt(text);
+            range[1] = range[0];
+        } else {
+            range[0] = Integer.parseInt(text.substring(0, separator));
+            range[1] = Integer.parseInt(text.substring(separator + RANGE_SEPARATOR.length()));
+        }
+        if (range[0] < min || range[1] > max || range[0] > range[1]) {
+            throw new IllegalArgumentException(what + " must be between " + min + " and " + max);
+        }
+        return range;
+    }
+    
+    /**
+     * Getter for the name
+     * 
+     * @return - name of the variant
+     */
+    public String getName() {
+        return this.name;
+    }
+    
+    /**
+     * Method, that derives the records of the variant. The base records stay unchanged, 
+     * tables without changes are shared with them.
+     * 
+     * @param base - records of the base network
+     * @return - records of the variant
+     */
+    public SimulationRecords apply(SimulationRecords base) {
+        Table crossings = base.getCrossings();
+        if (this.greenTimes != null) {
+            crossings = crossings.copy();
+            for (int record = 0; record < crossings.size(); record++) {
+                //Roundabouts have no traffic lights
+                if (crossings.get(record, GREEN_TIME_FIELD) != 0) {
+                    setValue(crossings, record, GREEN_TIME_FIELD, this.greenTimes);
+                }
+            }
+        }
+        Table cars = base.getCars();
+        if (this.desiredSpeeds != null || this.accelerations != null) {
+            cars = cars.copy();
+            for (int record = 0; record < cars.size(); record++) {
+                setValue(cars, record, DESIRED_SPEED_FIELD, this.desiredSpeeds);
+                setValue(cars, record, ACCELERATION_FIELD, this.accelerations);
+            }
+        }
+        return new SimulationRecords(crossings, base.getStreets(), cars);
+    }
+    
+    /**
+     * Helping method, that sets a field of the record to the value of the range, that belongs to its ID
+     * 
+     * @param table - table of the record
+     * @param record - index of the record
+     * @param field - index of the field
+     * @param range - minimal and maximal value, null - if the field isn't changed
+     */
+    private void setValue(Table table, int record, int field, int[] range) {
+        if (range == null) {
+            return;
+        }
+        long hash = mix(this.seed ^ mix(((long) field << 32) | (table.get(record, ID_FIELD) & 0xFFFFFFFFL)));
+        table.set(record, field, range[0] + (int) Math.floorMod(hash, (long) range[1] - range[0] + 1));
+    }
+    
+    /**
+     * Helping method, that mixes the bits of the value, so close seeds and IDs give independent hashes
+     * 
+     * @param value - value to be mixed
+     * @return - hash of the value
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
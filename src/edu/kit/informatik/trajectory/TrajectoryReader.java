@@ -0,0 +1,549 @@
+package edu.kit.informatik.trajectory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import edu.kit.informatik.main.ReadWrite;
+import edu.kit.informatik.util.IntMap;
+
+/**
+ * Class, that reads a trajectory log of {@link TrajectoryWriter} through memory-mapped regions of the file.
+ * The ticks are read one after another or from any recorded tick on: a seek starts at the latest keyframe
+ * before the tick, so it decodes at most {@link TrajectoryWriter#KEYFRAME_INTERVAL} ticks.
+ * 
+ * The keyframes are found in the index at the end of the log. If the log hasn't been closed,
+ * e.g. because the program has been killed, the index is rebuilt from the block headers
+ * and a block, that has been cut off at the end, is ignored.
+ * A tick, that has been recorded for several networks, is read from the latest one.
+ * 
+ * As a tool it outputs the whole log as lines {@code tick,carID,streetID,speed,position}.
+ * 
+ * Usage: {@code TrajectoryReader <log file>}
+ * 
+ * @author ubvaa
+ * @version 1.1
+ */
+public final class TrajectoryReader {
+    /**
+     * Usage of the tool
+     */
+    private static final String USAGE = "usage: TrajectoryReader <log file>";
+    /**
+     * Maximal size of a mapped region of the file in bytes
+     */
+    private static final long MAPPED_REGION_SIZE = 1L << 28;
+    /**
+     * Amount of bytes of the header of the log
+     */
+    private static final int HEADER = 2 * Integer.BYTES;
+    /**
+     * Maximal amount of bytes of a varint of a long
+     */
+    private static final int MAX_VARLONG_BYTES = 10;
+    /**
+     * Amount of fields of a keyframe in the index
+     */
+    private static final int KEYFRAME_FIELDS = 3;
+    /**
+     * Path of the log file
+     */
+    private final Path file;
+    /**
+     * Amount of bytes of the log, that are read
+     */
+    private final long size;
+    /**
+     * Index of the keyframes: tick, offset of the keyframe block and offset of its network block for each one
+     */
+    private long[] keyframes;
+    /**
+     * Amount of keyframes in the index
+     */
+    private int keyframesAmount;
+    /**
+     * Currently mapped region of the file, null - if nothing is mapped
+     */
+    private MappedByteBuffer region;
+    /**
+     * Offset of the mapped region in the file
+     */
+    private long regionOffset;
+    /**
+     * Offset of the next byte in the file
+     */
+    private long offset;
+    /**
+     * Offset of the next block in the file
+     */
+    private long nextBlock = HEADER;
+    /**
+     * Offset of the block of the current network, -1 - if no network has been read
+     */
+    private long networkOffset = -1;
+    /**
+     * Slots of the cars of the current network (by ID)
+     */
+    private IntMap<Integer> slots = new IntMap<>();
+    /**
+     * IDs of the cars of the current network (by slot)
+     */
+    private int[] ids = new int[0];
+    /**
+     * Street IDs of the cars after the current tick (by slot)
+     */
+    private int[] streetIDs = new int[0];
+    /**
+     * Speeds of the cars after the current tick (by slot)
+     */
+    private int[] speeds = new int[0];
+    /**
+     * Positions of the cars after the current tick (by slot)
+     */
+    private int[] positions = new int[0];
+    /**
+     * Current tick, -1 - if no tick has been read
+     */
+    private long tick = -1;
+    /**
+     * Amount of values of the current column, that are still part of a run of zeros
+     */
+    private int zeroRun;
+    
+    /**
+     * Constructor of a reader, that checks the header of the log and reads its index
+     * 
+     * @param file - path of the log file
+     * @throws IOException if the file can't be read or isn't a trajectory log of the supported version
+     */
+    public TrajectoryReader(Path file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.size = channel.size();
+        }
+        if (this.size < HEADER) {
+            throw new IOException("not a trajectory log");
+        }
+        this.offset = 0;
+        if (getFixedInt() != TrajectoryWriter.MAGIC || getFixedInt() != TrajectoryWriter.VERSION) {
+            throw new IOException("not a trajectory log of version " + TrajectoryWriter.VERSION);
+        }
+        if (!readIndex()) {
+            rebuildIndex();
+        }
+    }
+    
+    /**
+     * Method, that reads the index, to which the trailer at the end of the log points
+     * 
+     * @return - true - if the index has been read; false - if the log hasn't been closed
+     * @throws IOException if the file can't be read or the index is corrupted
+     */
+    private boolean readIndex() throws IOException {
+        if (this.size < HEADER + TrajectoryWriter.TRAILER) {
+            return false;
+        }
+        this.offset = this.size - TrajectoryWriter.TRAILER;
+        long indexOffset = (long) getFixedInt() << Integer.SIZE | getFixedInt() & 0xFFFFFFFFL;
+        if (getFixedInt() != TrajectoryWriter.INDEX_MAGIC) {
+            return false;
+        }
+        long indexEnd = this.size - TrajectoryWriter.TRAILER;
+        if (indexOffset < HEADER || indexOffset > indexEnd - TrajectoryWriter.BLOCK_HEADER) {
+            throw new IOException("trajectory log is corrupted");
+        }
+        this.offset = indexOffset;
+        if (getByte() != TrajectoryWriter.INDEX_BLOCK) {
+            throw new IOException("trajectory log is corrupted");
+        }
+        long end = (getFixedInt() & 0xFFFFFFFFL) + this.offset;
+        if (end != indexEnd) {
+            throw new IOException("trajectory log is corrupted");
+        }
+        int amount = (int) getVarlong(end);
+        if (amount < 0 || (long) amount * KEYFRAME_FIELDS > end - this.offset) {
+            throw new IOException("trajectory log is corrupted");
+        }
+        this.keyframes = new long[amount * KEYFRAME_FIELDS];
+        for (int field = 0; field < this.keyframes.length; field++) {
+            this.keyframes[field] = getVarlong(end);
+        }
+        this.keyframesAmount = amount;
+        return true;
+    }
+    
+    /**
+     * Method, that rebuilds the index from the headers of all complete blocks
+     * 
+     * @throws IOException if the file can't be read
+     */
+    private void rebuildIndex() throws IOException {
+        this.keyframes = new long[KEYFRAME_FIELDS * TrajectoryWriter.KEYFRAME_INTERVAL];
+        long network = -1;
+        long blockOffset = HEADER;
+        while (blockOffset + TrajectoryWriter.BLOCK_HEADER <= this.size) {
+            this.offset = blockOffset;
+            byte type = getByte();
+            long end = (getFixedInt() & 0xFFFFFFFFL) + this.offset;
+            if (end > this.size) {
+                break;
+            } else if (type == TrajectoryWriter.NETWORK_BLOCK) {
+                network = blockOffset;
+            } else if (type == TrajectoryWriter.KEYFRAME_BLOCK && network >= 0) {
+                if ((this.keyframesAmount + 1) * KEYFRAME_FIELDS > this.keyframes.length) {
+                    this.keyframes = Arrays.copyOf(this.keyframes, 2 * this.keyframes.length);
+                }
+                int field = this.keyframesAmount * KEYFRAME_FIELDS;
+                this.keyframes[field] = getVarlong(end);
+                this.keyframes[field + 1] = blockOffset;
+                this.keyframes[field + 2] = network;
+                this.keyframesAmount++;
+            }
+            blockOffset = end;
+        }
+    }
+    
+    /**
+     * Method, that reads the next tick of the log
+     * 
+     * @return - true - if a tick has been read; false - if the log ends
+     * @throws IOException if the file can't be read or the log is corrupted
+     */
+    public boolean next() throws IOException {
+        while (this.nextBlock + TrajectoryWriter.BLOCK_HEADER <= this.size) {
+            long blockOffset = this.nextBlock;
+            this.offset = blockOffset;
+            byte type = getByte();
+            long end = (getFixedInt() & 0xFFFFFFFFL) + this.offset;
+            if (end > this.size) {
+                return false;
+            }
+            this.nextBlock = end;
+            if (type == TrajectoryWriter.NETWORK_BLOCK) {
+                readNetwork(blockOffset, end);
+            } else if (type == TrajectoryWriter.KEYFRAME_BLOCK || type == TrajectoryWriter.TICK_BLOCK) {
+                if (this.networkOffset < 0) {
+                    throw new IOException("trajectory log is corrupted");
+                }
+                readTick(type == TrajectoryWriter.KEYFRAME_BLOCK, end);
+                return true;
+            } else if (type == TrajectoryWriter.INDEX_BLOCK) {
+                //The index ends the log, the trailer after it isn't a block
+                this.nextBlock = blockOffset;
+                return false;
+            } else {
+                throw new IOException("trajectory log is corrupted");
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Method, that reads the next tick of the current network
+     * 
+     * @return - true - if a tick has been read; false - if the log or the recording of the network ends
+     * @throws IOException if the file can't be read or the log is corrupted
+     */
+    public boolean nextInNetwork() throws IOException {
+        long network = this.networkOffset;
+        return next() && this.networkOffset == network;
+    }
+    
+    /**
+     * Method, that reads the log from the latest keyframe before the tick on, until the tick has been read.
+     * If the next tick of the current network is not after it, the log is read on from there instead.
+     * 
+     * @param wantedTick - tick, that is read
+     * @return - true - if the tick has been read; false - if it hasn't been recorded
+     * @throws IOException if the file can't be read or the log is corrupted
+     */
+    public boolean seek(long wantedTick) throws IOException {
+        int keyframe = this.keyframesAmount - 1;
+        while (keyframe >= 0) {
+            int field = keyframe * KEYFRAME_FIELDS;
+            long network = this.keyframes[field + 2];
+            if (this.keyframes[field] > wantedTick) {
+                keyframe--;
+                continue;
+            }
+            boolean continued = network == this.networkOffset && this.tick >= this.keyframes[field]
+                    && this.tick <= wantedTick;
+            if (!continued) {
+                if (network != this.networkOffset) {
+                    this.offset = network;
+                    getByte();
+                    long end = (getFixedInt() & 0xFFFFFFFFL) + this.offset;
+                    readNetwork(network, end);
+                }
+                this.nextBlock = this.keyframes[field + 1];
+                this.tick = -1;
+            }
+            if (this.tick == wantedTick) {
+                return true;
+            }
+            while (next() && this.networkOffset == network && this.tick < wantedTick) {
+                continue;
+            }
+            if (this.networkOffset == network && this.tick == wantedTick) {
+                return true;
+            }
+            //The tick isn't recorded for this network, so the earlier networks are searched
+            while (keyframe >= 0 && this.keyframes[keyframe * KEYFRAME_FIELDS + 2] == network) {
+                keyframe--;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Method, that reads the IDs of the cars of a network block, the states of the cars are read by the ticks
+     * 
+     * @param blockOffset - offset of the network block
+     * @param end - offset of the end of the block
+     * @throws IOException if the block is corrupted
+     */
+    private void readNetwork(long blockOffset, long end) throws IOException {
+        int amount = (int) getVarlong(end);
+        if (amount < 0 || amount > end - this.offset) {
+            throw new IOException("trajectory log is corrupted");
+        }
+        this.networkOffset = blockOffset;
+        this.slots = new IntMap<>(amount);
+        this.ids = new int[amount];
+        this.streetIDs = new int[amount];
+        this.speeds = new int[amount];
+        this.positions = new int[amount];
+        this.tick = -1;
+        int id = 0;
+        for (int slot = 0; slot < amount; slot++) {
+            id += unzigzag((int) getVarlong(end));
+            this.ids[slot] = id;
+            this.slots.put(id, slot);
+        }
+    }
+    
+    /**
+     * Method, that reads a tick block and adds its changes to the state of the cars
+     * 
+     * @param keyframe - true - if the block holds the whole state; else - false
+     * @param end - offset of the end of the block
+     * @throws IOException if the block is corrupted or doesn't follow a tick of the same network
+     */
+    private void readTick(boolean keyframe, long end) throws IOException {
+        if (keyframe) {
+            Arrays.fill(this.streetIDs, 0);
+            Arrays.fill(this.speeds, 0);
+            Arrays.fill(this.positions, 0);
+        } else if (this.tick < 0) {
+            throw new IOException("trajectory log is corrupted");
+        }
+        this.tick = getVarlong(end);
+        this.zeroRun = 0;
+        for (int slot = 0; slot < this.ids.length; slot++) {
+            this.streetIDs[slot] += getValue(end);
+        }
+        this.zeroRun = 0;
+        for (int slot = 0; slot < this.ids.length; slot++) {
+            this.speeds[slot] += getValue(end);
+        }
+        this.zeroRun = 0;
+        for (int slot = 0; slot < this.ids.length; slot++) {
+            this.positions[slot] += this.speeds[slot] + getValue(end);
+        }
+    }
+    
+    /**
+     * Getter for the current tick
+     * 
+     * @return - tick, after which the cars are in the read state
+     */
+    public long getTick() {
+        return this.tick;
+    }
+    
+    /**
+     * Getter for the amount of cars of the current network
+     * 
+     * @return - amount of cars
+     */
+    public int getCarsAmount() {
+        return this.ids.length;
+    }
+    
+    /**
+     * Getter for the slot of the car of the current network (by ID)
+     * 
+     * @param id - ID of the car
+     * @return - slot of the car; -1 - if the network has no car with this ID
+     */
+    public int getSlot(int id) {
+        Integer slot = this.slots.get(id);
+        return slot == null ? -1 : slot;
+    }
+    
+    /**
+     * Getter for the ID of the car
+     * 
+     * @param slot - slot of the car
+     * @return - ID of the car
+     */
+    public int getID(int slot) {
+        return this.ids[slot];
+    }
+    
+    /**
+     * Getter for the street ID of the car after the current tick
+     * 
+     * @param slot - slot of the car
+     * @return - ID of the street of the car
+     */
+    public int getStreetID(int slot) {
+        return this.streetIDs[slot];
+    }
+    
+    /**
+     * Getter for the speed of the car after the current tick
+     * 
+     * @param slot - slot of the car
+     * @return - speed of the car
+     */
+    public int getSpeed(int slot) {
+        return this.speeds[slot];
+    }
+    
+    /**
+     * Getter for the position of the car after the current tick
+     * 
+     * @param slot - slot of the car
+     * @return - position of the car on its street
+     */
+    public int getPosition(int slot) {
+        return this.positions[slot];
+    }
+    
+    /**
+     * Method, that reads the next value of a column, runs of zeros are expanded
+     * 
+     * @param end - offset of the end of the block
+     * @return - value of the column
+     * @throws IOException if the block ends before
+     */
+    private int getValue(long end) throws IOException {
+        if (this.zeroRun > 0) {
+            this.zeroRun--;
+            return 0;
+        }
+        int value = (int) getVarlong(end);
+        if (value == 0) {
+            this.zeroRun = (int) getVarlong(end);
+            return 0;
+        }
+        return unzigzag(value);
+    }
+    
+    /**
+     * Method, that reads a varint, seven bits per byte, lowest bits first
+     * 
+     * @param end - offset of the end of the block
+     * @return - value, that is read as unsigned
+     * @throws IOException if the block ends before or the varint is too long
+     */
+    private long getVarlong(long end) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < MAX_VARLONG_BYTES * 7; shift += 7) {
+            if (this.offset >= end) {
+                throw new IOException("trajectory log is corrupted");
+            }
+            byte next = getByte();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("trajectory log is corrupted");
+    }
+    
+    /**
+     * Method, that reads four bytes as value, highest bits first
+     * 
+     * @return - read value
+     * @throws IOException if the file ends before
+     */
+    private int getFixedInt() throws IOException {
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            value = value << Byte.SIZE | getByte() & 0xFF;
+        }
+        return value;
+    }
+    
+    /**
+     * Method, that reads the next byte of the file. If it isn't in the mapped region,
+     * the next region of the file is mapped from it on. The file is only open, while a region is mapped.
+     * 
+     * @return - the byte
+     * @throws IOException if the file can't be mapped
+     */
+    private byte getByte() throws IOException {
+        long index = this.offset - this.regionOffset;
+        if (this.region == null || index < 0 || index >= this.region.limit()) {
+            if (this.offset >= this.size) {
+                throw new IOException("trajectory log is corrupted");
+            }
+            try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+                this.region = channel.map(FileChannel.MapMode.READ_ONLY, this.offset, 
+                        Math.min(this.size - this.offset, MAPPED_REGION_SIZE));
+            }
+            this.regionOffset = this.offset;
+            index = 0;
+        }
+        this.offset++;
+        return this.region.get((int) index);
+    }
+    
+    /**
+     * Method, that maps an unsigned value back to the signed one of the trajectory writer
+     * 
+     * @param value - 0, 1, 2, 3, ...
+     * @return - 0, -1, 1, -2, ...
+     */
+    private static int unzigzag(int value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+    
+    /**
+     * Entry point of the tool
+     * 
+     * @param args - command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            ReadWrite.writeError(USAGE);
+            return;
+        }
+        Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        try {
+            TrajectoryReader reader = new TrajectoryReader(Path.of(args[0]));
+            StringBuilder line = new StringBuilder();
+            while (reader.next()) {
+                for (int slot = 0; slot < reader.getCarsAmount(); slot++) {
+                    line.setLength(0);
+                    line.append(reader.getTick()).append(',').append(reader.getID(slot)).append(',')
+                            .append(reader.getStreetID(slot)).append(',').append(reader.getSpeed(slot))
+                            .append(',').append(reader.getPosition(slot)).append('\n');
+                    output.append(line);
+                }
+            }
+            output.flush();
+        } catch (IOException e) {
+            ReadWrite.writeError(e.getMessage());
+        }
+    }
+}
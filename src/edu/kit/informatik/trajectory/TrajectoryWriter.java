@@ -0,0 +1,515 @@
+package edu.kit.informatik.trajectory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import edu.kit.informatik.car.CarStore;
+
+/**
+ * Class, that appends the state of all cars after every tick to a trajectory log.
+ * 
+ * The log starts with the magic number "TTRJ" and the format version, followed by blocks:
+ * a block type byte, the length of the block content (big-endian int) and the content.
+ * A network block holds the amount of cars and their IDs in the order of the car slots,
+ * all following tick blocks belong to it. A tick block holds the tick and three columns over all car slots:
+ * the change of the street ID, the change of the speed and the difference of the position
+ * to the previous position plus the new speed, so a car, that keeps its street and its speed, has only zeros.
+ * Every value is zigzag- and varint-encoded, a run of zeros is written as 0 and the length of the run - 1.
+ * The first tick of a network and every {@link #KEYFRAME_INTERVAL}-th tick after it are keyframes,
+ * which are encoded against a state, in which all values are 0, so they can be decoded without the ticks before.
+ * 
+ * When the log is closed, an index block with the tick and the offsets of each keyframe and of its network block
+ * is appended, followed by the offset of the index block (big-endian long) and the magic number "TIDX".
+ * 
+ * The blocks are encoded into one of two buffers, while the other one is written to the file by a background
+ * thread, so a tick waits only, if the file is written slower than the ticks fill the buffers.
+ * 
+ * @author ubvaa
+ * @version 1.1
+ */
+public final class TrajectoryWriter implements Closeable {
+    /**
+     * Magic number at the beginning of every trajectory log ("TTRJ")
+     */
+    static final int MAGIC = 0x5454524A;
+    /**
+     * Version of the trajectory log format
+     */
+    static final int VERSION = 2;
+    /**
+     * Type of a network block
+     */
+    static final byte NETWORK_BLOCK = 1;
+    /**
+     * Type of a tick block
+     */
+    static final byte TICK_BLOCK = 2;
+    /**
+     * Type of a keyframe block
+     */
+    static final byte KEYFRAME_BLOCK = 3;
+    /**
+     * Type of the index block
+     */
+    static final byte INDEX_BLOCK = 4;
+    /**
+     * Magic number at the end of a completely written log ("TIDX")
+     */
+    static final int INDEX_MAGIC = 0x54494458;
+    /**
+     * Amount of bytes after the index block: its offset and the magic number
+     */
+    static final int TRAILER = Long.BYTES + Integer.BYTES;
+    /**
+     * Amount of ticks from one keyframe to the next one
+     */
+    static final int KEYFRAME_INTERVAL = 64;
+    /**
+     * Amount of bytes of the block header: type and length
+     */
+    static final int BLOCK_HEADER = 1 + Integer.BYTES;
+    /**
+     * Minimal size of each buffer in bytes
+     */
+    private static final int MIN_BUFFER_SIZE = 1 << 20;
+    /**
+     * Maximal amount of bytes of a varint
+     */
+    private static final int MAX_VARINT_BYTES = 5;
+    /**
+     * Maximal amount of bytes of a varint of a long
+     */
+    private static final int MAX_VARLONG_BYTES = 10;
+    /**
+     * Amount of columns of a tick block
+     */
+    private static final int COLUMNS = 3;
+    /**
+     * Mask of the lowest seven bits of a varint byte
+     */
+    private static final int VARINT_BITS = 0x7F;
+    /**
+     * Bit of a varint byte, that shows, that more bytes follow
+     */
+    private static final int VARINT_MORE = 0x80;
+    /**
+     * Amount of fields of a keyframe in the index
+     */
+    private static final int KEYFRAME_FIELDS = 3;
+    /**
+     * Output stream of the log file, it is only used by the writer thread after the header
+     */
+    private final OutputStream output;
+    /**
+     * Background thread, that writes the filled buffers
+     */
+    private final Thread writerThread;
+    /**
+     * Both buffers, one is filled by the ticks, the other one is written
+     */
+    private final byte[][] buffers = new byte[2][];
+    /**
+     * Index of the buffer, that is filled by the ticks
+     */
+    private int filling;
+    /**
+     * Amount of bytes in the filled buffer
+     */
+    private int length;
+    /**
+     * Offset of the filled buffer in the file
+     */
+    private long bufferOffset;
+    /**
+     * Amount of bytes of the buffer, that the writer thread must write, -1 - if it has nothing to write
+     */
+    private int handedLength = -1;
+    /**
+     * Attribute, that shows, if the log is closed and the writer thread must stop
+     */
+    private boolean closing;
+    /**
+     * First error of the writer thread, null - if the file has been written without errors
+     */
+    private IOException failure;
+    /**
+     * Street IDs of the cars in the previous tick block (by slot)
+     */
+    private int[] streetIDs = new int[0];
+    /**
+     * Speeds of the cars in the previous tick block (by slot)
+     */
+    private int[] speeds = new int[0];
+    /**
+     * Positions of the cars in the previous tick block (by slot)
+     */
+    private int[] positions = new int[0];
+    /**
+     * Amount of zeros of the current column, that aren't written yet
+     */
+    private int zeroRun;
+    /**
+     * Offset of the latest network block in the file
+     */
+    private long networkOffset;
+    /**
+     * Amount of ticks of the latest network since its latest keyframe, -1 - if the next tick is the first one
+     */
+    private int ticksSinceKeyframe = -1;
+    /**
+     * Index of the keyframes: tick, offset of the keyframe block and offset of its network block for each one
+     */
+    private long[] keyframes = new long[KEYFRAME_FIELDS * KEYFRAME_INTERVAL];
+    /**
+     * Amount of keyframes in the index
+     */
+    private int keyframesAmount;
+    
+    /**
+     * Constructor of a new log, that replaces the file and starts the writer thread
+     * 
+     * @param file - path of the log file
+     * @throws IOException if the file can't be created
+     */
+    public TrajectoryWriter(Path file) throws IOException {
+        this.output = Files.newOutputStream(file);
+        this.buffers[0] = new byte[MIN_BUFFER_SIZE];
+        this.buffers[1] = new byte[MIN_BUFFER_SIZE];
+        putFixedInt(MAGIC);
+        putFixedInt(VERSION);
+        this.writerThread = new Thread(this::writeBuffers, "trajectory-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+    
+    /**
+     * Method, that starts a new network in the log. The following ticks are encoded against a state,
+     * in which all values are 0.
+     * 
+     * @param carStore - store with the cars of the network
+     */
+    public void writeNetwork(CarStore carStore) {
+        int amount = carStore.size();
+        ensureBufferSize(BLOCK_HEADER + getMaxTickContent(amount));
+        this.streetIDs = new int[amount];
+        this.speeds = new int[amount];
+        this.positions = new int[amount];
+        this.ticksSinceKeyframe = -1;
+        int start = beginBlock(NETWORK_BLOCK, (amount + 1) * MAX_VARINT_BYTES);
+        this.networkOffset = this.bufferOffset + start;
+        putVarint(amount);
+        int previousID = 0;
+        for (int slot = 0; slot < amount; slot++) {
+            int id = carStore.getID(slot);
+            putVarint(zigzag(id - previousID));
+            previousID = id;
+        }
+        endBlock(start);
+    }
+    
+    /**
+     * Method, that appends the state of all cars after the tick. The cars must hold the state of the tick,
+     * i.e. no street may be in free flow.
+     * 
+     * @param tick - tick, after which the cars are in this state
+     * @param carStore - store with the cars of the latest network
+     */
+    public void writeTick(long tick, CarStore carStore) {
+        int amount = this.streetIDs.length;
+        boolean keyframe = this.ticksSinceKeyframe < 0 || this.ticksSinceKeyframe + 1 >= KEYFRAME_INTERVAL;
+        int start = beginBlock(keyframe ? KEYFRAME_BLOCK : TICK_BLOCK, getMaxTickContent(amount));
+        if (keyframe) {
+            Arrays.fill(this.streetIDs, 0);
+            Arrays.fill(this.speeds, 0);
+            Arrays.fill(this.positions, 0);
+            addKeyframe(tick, this.bufferOffset + start);
+            this.ticksSinceKeyframe = 0;
+        } else {
+            this.ticksSinceKeyframe++;
+        }
+        putVarlong(tick);
+        for (int slot = 0; slot < amount; slot++) {
+            int streetID = carStore.getStreetID(slot);
+            putValue(streetID - this.streetIDs[slot]);
+            this.streetIDs[slot] = streetID;
+        }
+        endColumn();
+        for (int slot = 0; slot < amount; slot++) {
+            int speed = carStore.getCurrentSpeed(slot);
+            putValue(speed - this.speeds[slot]);
+            this.speeds[slot] = speed;
+        }
+        endColumn();
+        for (int slot = 0; slot < amount; slot++) {
+            int position = carStore.getPosition(slot);
+            putValue(position - this.positions[slot] - this.speeds[slot]);
+            this.positions[slot] = position;
+        }
+        endColumn();
+        endBlock(start);
+    }
+    
+    /**
+     * Method, that appends the keyframe to the index
+     * 
+     * @param tick - tick of the keyframe
+     * @param offset - offset of the keyframe block in the file
+     */
+    private void addKeyframe(long tick, long offset) {
+        int field = this.keyframesAmount * KEYFRAME_FIELDS;
+        if (field == this.keyframes.length) {
+            this.keyframes = Arrays.copyOf(this.keyframes, 2 * this.keyframes.length);
+        }
+        this.keyframes[field] = tick;
+        this.keyframes[field + 1] = offset;
+        this.keyframes[field + 2] = this.networkOffset;
+        this.keyframesAmount++;
+    }
+    
+    /**
+     * Method, that writes the index block with all keyframes and the trailer, that points to it
+     */
+    private void writeIndex() {
+        int maxContent = MAX_VARINT_BYTES + this.keyframesAmount * KEYFRAME_FIELDS * MAX_VARLONG_BYTES;
+        ensureBufferSize(BLOCK_HEADER + maxContent + TRAILER);
+        int start = beginBlock(INDEX_BLOCK, maxContent + TRAILER);
+        long indexOffset = this.bufferOffset + start;
+        putVarint(this.keyframesAmount);
+        for (int field = 0; field < this.keyframesAmount * KEYFRAME_FIELDS; field++) {
+            putVarlong(this.keyframes[field]);
+        }
+        endBlock(start);
+        putFixedInt((int) (indexOffset >>> Integer.SIZE));
+        putFixedInt((int) indexOffset);
+        putFixedInt(INDEX_MAGIC);
+    }
+    
+    /**
+     * Method, that writes the index and all buffered blocks to the file and closes it
+     * 
+     * @throws IOException if the log couldn't be written completely
+     */
+    @Override
+    public void close() throws IOException {
+        writeIndex();
+        handOff();
+        synchronized (this) {
+            this.closing = true;
+            notifyAll();
+        }
+        try {
+            this.writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            this.output.close();
+        } catch (IOException e) {
+            if (this.failure == null) {
+                this.failure = e;
+            }
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+    
+    /**
+     * Method of the writer thread, that writes the handed buffers, until the log is closed
+     */
+    private void writeBuffers() {
+        while (true) {
+            byte[] buffer;
+            int bufferLength;
+            synchronized (this) {
+                while (this.handedLength < 0 && !this.closing) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (this.handedLength < 0) {
+                    return;
+                }
+                buffer = this.buffers[1 - this.filling];
+                bufferLength = this.handedLength;
+            }
+            try {
+                if (this.failure == null) {
+                    this.output.write(buffer, 0, bufferLength);
+                }
+            } catch (IOException e) {
+                this.failure = e;
+            }
+            synchronized (this) {
+                this.handedLength = -1;
+                notifyAll();
+            }
+        }
+    }
+    
+    /**
+     * Method, that hands the filled buffer to the writer thread and continues with the other one.
+     * It waits only, if the writer thread hasn't written the other buffer yet.
+     */
+    private synchronized void handOff() {
+        awaitWriter();
+        this.handedLength = this.length;
+        this.filling = 1 - this.filling;
+        this.bufferOffset += this.length;
+        this.length = 0;
+        notifyAll();
+    }
+    
+    /**
+     * Method, that replaces both buffers by larger ones, if a block of the size may not fit into them
+     * 
+     * @param blockSize - maximal size of the block in bytes
+     */
+    private void ensureBufferSize(int blockSize) {
+        if (this.buffers[this.filling].length >= blockSize) {
+            return;
+        }
+        handOff();
+        //The buffer of the writer thread is replaced, when it has been written
+        synchronized (this) {
+            awaitWriter();
+            this.buffers[0] = new byte[blockSize];
+            this.buffers[1] = new byte[blockSize];
+        }
+    }
+    
+    /**
+     * Method, that waits, until the writer thread has written the handed buffer.
+     * The monitor of the log must be held.
+     */
+    private void awaitWriter() {
+        boolean interrupted = false;
+        while (this.handedLength >= 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Method, that starts a block in the filled buffer and hands the buffer off before, if the block may not fit
+     * 
+     * @param type - type of the block
+     * @param maxContent - maximal amount of bytes of the block content
+     * @return - position of the block header in the buffer
+     */
+    private int beginBlock(byte type, int maxContent) {
+        if (this.length + BLOCK_HEADER + maxContent > this.buffers[this.filling].length) {
+            handOff();
+        }
+        int start = this.length;
+        this.buffers[this.filling][this.length] = type;
+        this.length += BLOCK_HEADER;
+        this.zeroRun = 0;
+        return start;
+    }
+    
+    /**
+     * Method, that writes the length of the content into the header of the finished block
+     * 
+     * @param start - position of the block header in the buffer
+     */
+    private void endBlock(int start) {
+        int end = this.length;
+        this.length = start + 1;
+        putFixedInt(end - start - BLOCK_HEADER);
+        this.length = end;
+    }
+    
+    /**
+     * Method, that appends a value of a column, zeros are collected to runs
+     * 
+     * @param value - value of the column
+     */
+    private void putValue(int value) {
+        if (value == 0) {
+            this.zeroRun++;
+            return;
+        }
+        endColumn();
+        putVarint(zigzag(value));
+    }
+    
+    /**
+     * Method, that writes the collected run of zeros
+     */
+    private void endColumn() {
+        if (this.zeroRun > 0) {
+            putVarint(0);
+            putVarint(this.zeroRun - 1);
+            this.zeroRun = 0;
+        }
+    }
+    
+    /**
+     * Method, that appends a value as varint, seven bits per byte, lowest bits first
+     * 
+     * @param value - value, that is read as unsigned
+     */
+    private void putVarint(int value) {
+        putVarlong(value & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Method, that appends a long value as varint, seven bits per byte, lowest bits first
+     * 
+     * @param value - value, that is read as unsigned
+     */
+    private void putVarlong(long value) {
+        byte[] buffer = this.buffers[this.filling];
+        long remaining = value;
+        while ((remaining & ~VARINT_BITS) != 0) {
+            buffer[this.length++] = (byte) (remaining & VARINT_BITS | VARINT_MORE);
+            remaining >>>= 7;
+        }
+        buffer[this.length++] = (byte) remaining;
+    }
+    
+    /**
+     * Method, that gets the maximal size of the content of one tick block
+     * 
+     * @param carsAmount - amount of cars
+     * @return - maximal size in bytes
+     */
+    private static int getMaxTickContent(int carsAmount) {
+        return COLUMNS * carsAmount * MAX_VARINT_BYTES + MAX_VARLONG_BYTES;
+    }
+    
+    /**
+     * Method, that appends a value as four bytes, highest bits first
+     * 
+     * @param value - appended value
+     */
+    private void putFixedInt(int value) {
+        byte[] buffer = this.buffers[this.filling];
+        for (int shift = Integer.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            buffer[this.length++] = (byte) (value >>> shift);
+        }
+    }
+    
+    /**
+     * Method, that maps a signed value to an unsigned one, so small negative values stay small
+     * 
+     * @param value - signed value
+     * @return - 0, -1, 1, -2, ... as 0, 1, 2, 3, ...
+     */
+    private static int zigzag(int value) {
+        return value << 1 ^ value >> (Integer.SIZE - 1);
+    }
+}
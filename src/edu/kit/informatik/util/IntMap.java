@@ -0,0 +1,147 @@
+package edu.kit.informatik.util;
+
+/**
+ * Open-addressing hash map with primitive int keys, that is used as an ID index for the simulation objects.
+ * Lookups are constant-time on average and don't box the keys.
+ * 
+ * @author ubvaa
+ * @version 1.0
+ * @param <V> - type of the indexed objects
+ */
+public class IntMap<V> {
+    /**
+     * Default initial capacity of the map
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+    /**
+     * Multiplier, that spreads the keys over the table (golden ratio)
+     */
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+    /**
+     * Keys of the map
+     */
+    private int[] keys;
+    /**
+     * Values of the map, null marks a free slot
+     */
+    private Object[] values;
+    /**
+     * Bit mask for the table index
+     */
+    private int mask;
+    /**
+     * Amount of entries in the map
+     */
+    private int size;
+    
+    /**
+     * Constructor of a new empty map
+     */
+    public IntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructor of a new empty map, that can hold expected amount of entries without resizing
+     * 
+     * @param expectedSize - expected amount of entries
+     */
+    public IntMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < 2 * expectedSize) {
+            capacity <<= 1;
+        }
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+    
+    /**
+     * Getter for the value (by key)
+     * 
+     * @param key - key of the value
+     * @return - value with this key, if it exists; else - null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = slot(key);
+        while (this.values[index] != null) {
+            if (this.keys[index] == key) {
+                return (V) this.values[index];
+            }
+            index = (index + 1) & this.mask;
+        }
+        return null;
+    }
+    
+    /**
+     * Method, that proves, if the map contains the key
+     * 
+     * @param key - key to be proved
+     * @return - true, if the key exists; else - false
+     */
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+    
+    /**
+     * Method, that puts a new value to the map or replaces the old value with the same key
+     * 
+     * @param key - key of the value
+     * @param value - value to be put, must not be null
+     */
+    public void put(int key, V value) {
+        if (2 * (this.size + 1) > this.values.length) {
+            resize();
+        }
+        int index = slot(key);
+        while (this.values[index] != null) {
+            if (this.keys[index] == key) {
+                this.values[index] = value;
+                return;
+            }
+            index = (index + 1) & this.mask;
+        }
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.size++;
+    }
+    
+    /**
+     * Getter for the amount of entries
+     * 
+     * @return - amount of entries in the map
+     */
+    public int size() {
+        return this.size;
+    }
+    
+    /**
+     * Method, that calculates the first table slot for the key
+     * 
+     * @param key - key to be hashed
+     * @return - index of the first slot
+     */
+    private int slot(int key) {
+        int hash = key * HASH_MULTIPLIER;
+        return (hash ^ (hash >>> 16)) & this.mask;
+    }
+    
+    /**
+     * Method, that doubles the table size and rehashes all entries
+     */
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        int[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        this.keys = new int[oldKeys.length * 2];
+        this.values = new Object[oldValues.length * 2];
+        this.mask = this.keys.length - 1;
+        this.size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+}
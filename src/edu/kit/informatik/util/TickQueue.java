@@ -0,0 +1,146 @@
+package edu.kit.informatik.util;
+
+import java.util.Arrays;
+
+/**
+ * Priority queue of IDs, that are ordered by the tick, in which they are due. Every ID is queued at most once.
+ * It is an indexed binary min-heap on primitive arrays, that are allocated for all IDs at once,
+ * so adding, removing and polling never allocate.
+ * 
+ * @author ubvaa
+ * @version 1.0
+ */
+public class TickQueue {
+    /**
+     * Ticks of the entries in heap order
+     */
+    private final long[] ticks;
+    /**
+     * IDs of the entries in heap order
+     */
+    private final int[] ids;
+    /**
+     * Heap index of each ID, -1 - if the ID isn't queued
+     */
+    private final int[] indices;
+    /**
+     * Amount of entries in the queue
+     */
+    private int size;
+    
+    /**
+     * Constructor of a new empty queue for the IDs from 0 to idsAmount - 1
+     * 
+     * @param idsAmount - amount of the IDs
+     */
+    public TickQueue(int idsAmount) {
+        this.ticks = new long[idsAmount];
+        this.ids = new int[idsAmount];
+        this.indices = new int[idsAmount];
+        Arrays.fill(this.indices, -1);
+    }
+    
+    /**
+     * Method, that shows, if the queue is empty
+     * 
+     * @return true - if yes; else - false
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+    
+    /**
+     * Getter for the earliest tick in the queue. The queue must not be empty.
+     * 
+     * @return - tick of the first entry
+     */
+    public long peekTick() {
+        return this.ticks[0];
+    }
+    
+    /**
+     * Method, that queues the ID for the tick. If the ID is already queued, only its tick is changed.
+     * 
+     * @param id - ID to be queued
+     * @param tick - tick, in which the ID is due
+     */
+    public void add(int id, long tick) {
+        int index = this.indices[id];
+        if (index < 0) {
+            index = this.size++;
+        }
+        place(id, tick, index);
+    }
+    
+    /**
+     * Method, that removes the ID from the queue, if it is queued
+     * 
+     * @param id - ID to be removed
+     */
+    public void remove(int id) {
+        int index = this.indices[id];
+        if (index < 0) {
+            return;
+        }
+        this.indices[id] = -1;
+        this.size--;
+        if (index < this.size) {
+            place(this.ids[this.size], this.ticks[this.size], index);
+        }
+    }
+    
+    /**
+     * Method, that removes the entry with the earliest tick. The queue must not be empty.
+     * 
+     * @return - ID of the removed entry
+     */
+    public int poll() {
+        int first = this.ids[0];
+        remove(first);
+        return first;
+    }
+    
+    /**
+     * Helping method, that puts the entry to the free heap index and moves it up or down to its place
+     * 
+     * @param id - ID of the entry
+     * @param tick - tick of the entry
+     * @param index - free heap index
+     */
+    private void place(int id, long tick, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (this.ticks[parent] <= tick) {
+                break;
+            }
+            move(parent, index);
+            index = parent;
+        }
+        while (2 * index + 1 < this.size) {
+            int child = 2 * index + 1;
+            if (child + 1 < this.size && this.ticks[child + 1] < this.ticks[child]) {
+                child++;
+            }
+            if (tick <= this.ticks[child]) {
+                break;
+            }
+            move(child, index);
+            index = child;
+        }
+        this.ticks[index] = tick;
+        this.ids[index] = id;
+        this.indices[id] = index;
+    }
+    
+    /**
+     * Helping method, that moves the entry to another heap index
+     * 
+     * @param from - heap index of the entry
+     * @param to - new heap index of the entry
+     */
+    private void move(int from, int to) {
+        this.ticks[to] = this.ticks[from];
+        this.ids[to] = this.ids[from];
+        this.indices[this.ids[to]] = to;
+    }
+}
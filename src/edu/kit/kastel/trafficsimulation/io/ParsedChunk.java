@@ -0,0 +1,73 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import edu.kit.kastel.trafficsimulation.io.SimulationFileParser.LineParser;
+
+/**
+ * Records of one chunk of a simulation file, that is parsed independently of the other chunks.
+ *
+ * Parsing stops at the first line with the wrong format, because the reading of the file stops there as well.
+ *
+ * @author ubvaa
+ * @version 1.0
+ */
+final class ParsedChunk implements RecordHandler {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int STRIDE = SimulationFileParser.MAX_FIELDS;
+
+    private int[] records = new int[INITIAL_CAPACITY * STRIDE];
+    private int size;
+    private boolean malformed;
+
+
+    private ParsedChunk() { }
+
+
+    /**
+     * Parses all lines of the chunk {@code [0, limit)} of the buffer, which must end with a complete line.
+     *
+     * @param      buffer  the buffer with the chunk.
+     * @param      parser  parser for the lines.
+     * @return     the parsed chunk.
+     */
+    static ParsedChunk parse(ByteBuffer buffer, LineParser parser) {
+        ParsedChunk chunk = new ParsedChunk();
+        SimulationFileParser.parseLines(buffer, 0, buffer.limit(), true, parser, chunk, 
+                                        new int[SimulationFileParser.MAX_FIELDS]);
+        return chunk;
+    }
+
+    @Override
+    public boolean handle(int[] fields) {
+        if (fields == null) {
+            this.malformed = true;
+            return false;
+        }
+        if ((this.size + 1) * STRIDE > this.records.length) {
+            this.records = Arrays.copyOf(this.records, 2 * this.records.length);
+        }
+        System.arraycopy(fields, 0, this.records, this.size * STRIDE, STRIDE);
+        this.size++;
+        return true;
+    }
+
+    /**
+     * Passes the records of the chunk in file order to the handler.
+     *
+     * @param      handler  the handler for the records.
+     * @return     {@code true} if all records are handled, {@code false} if the handler stopped the reading.
+     */
+    boolean replay(RecordHandler handler) {
+        int[] fields = new int[STRIDE];
+        for (int record = 0; record < this.size; record++) {
+            System.arraycopy(this.records, record * STRIDE, fields, 0, STRIDE);
+            if (!handler.handle(fields)) {
+                return false;
+            }
+        }
+        return !this.malformed || handler.handle(null);
+    }
+}
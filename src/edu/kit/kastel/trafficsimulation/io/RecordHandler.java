@@ -0,0 +1,21 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+/**
+ * Handler for the records of a simulation file, that are read by the {@link SimulationFileLoader}.
+ *
+ * @author ubvaa
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface RecordHandler {
+
+    /**
+     * Handles the next record of the file.
+     *
+     * The fields array is reused for all records of a file and must not be stored.
+     *
+     * @param      fields  the integer fields of the record, or {@code null} if the line doesn't follow the format.
+     * @return     {@code true} to continue reading, {@code false} to stop.
+     */
+    boolean handle(int[] fields);
+}
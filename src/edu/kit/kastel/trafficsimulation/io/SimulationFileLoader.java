@@ -2,9 +2,20 @@ package edu.kit.kastel.trafficsimulation.io;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import edu.kit.kastel.trafficsimulation.io.SimulationFileParser.LineParser;
 
 /**
  * File loader for simulation files.
@@ -12,7 +23,7 @@ import java.util.List;
  * @author Lucas Alber
  * @version 1.0
  */
-public final class SimulationFileLoader {
+public final class SimulationFileLoader implements SimulationSource {
 
     /**
      * The filename for the simulation data representing streets.
@@ -27,8 +38,12 @@ public final class SimulationFileLoader {
      */
     public static final String FILENAME_CARS = "cars.sim";
 
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int CHUNK_SIZE = 1 << 23;
+    private static final byte LINE_FEED = '\n';
 
     private final Path folderPath;
+    private final boolean memoryMapped;
 
 
     /**
@@ -38,6 +53,22 @@ public final class SimulationFileLoader {
      * @throws     IOException if the folder does not exist or the path is pointing to a normal file.
      */
     public SimulationFileLoader(final String folderPath) throws IOException {
+        this(folderPath, false);
+    }
+
+    /**
+     * Creates a new {@link SimulationFileLoader}, that optionally reads the files memory-mapped.
+     *
+     * In memory-mapped mode the files are mapped with {@link FileChannel#map} in chunks of about 8 MiB, 
+     * which are parsed in parallel and handled in file order, so the handlers see the same records 
+     * in the same order as in streaming mode. This mode is meant for files in the gigabyte range.
+     *
+     * @param      folderPath    a path to a folder containing the three simulation files.
+     * @param      memoryMapped  {@code true} if the read methods use memory-mapped, parallel parsing.
+     * @throws     IOException   if the folder does not exist or the path is pointing to a normal file.
+     */
+    public SimulationFileLoader(final String folderPath, final boolean memoryMapped) throws IOException {
+        this.memoryMapped = memoryMapped;
         this.folderPath = Path.of(folderPath).normalize().toAbsolutePath();
         final File folder = this.folderPath.toFile();
 
@@ -90,7 +121,143 @@ public final class SimulationFileLoader {
     }
 
 
+    /**
+     * Checks, that all three simulation files exist and are normal files.
+     *
+     * @throws     IOException  if one of the files does not exist or points to a directory.
+     */
+    public void checkFiles() throws IOException {
+        resolveSimulationFile(FILENAME_CARS);
+        resolveSimulationFile(FILENAME_STREETS);
+        resolveSimulationFile(FILENAME_CROSSINGS);
+    }
+
+    /**
+     * Reads the simulation file {@value FILENAME_CROSSINGS} line by line and passes each record 
+     * with the fields ID and green light time to the handler.
+     *
+     * The file is streamed through a small buffer and parsed without creating Strings.
+     *
+     * @param      handler  the handler for the records.
+     * @return     {@code true} if all records are handled, {@code false} if the handler stopped the reading.
+     *
+     * @throws     IOException  if the file does not exist, points to a directory or can't be read.
+     */
+    @Override
+    public boolean readCrossings(RecordHandler handler) throws IOException {
+        return readSimulationFile(FILENAME_CROSSINGS, SimulationFileParser::parseCrossing, handler);
+    }
+
+    /**
+     * Reads the simulation file {@value FILENAME_STREETS} line by line and passes each record with the fields 
+     * starting point, ending point, length, type and speed limit to the handler.
+     *
+     * The file is streamed through a small buffer and parsed without creating Strings.
+     *
+     * @param      handler  the handler for the records.
+     * @return     {@code true} if all records are handled, {@code false} if the handler stopped the reading.
+     *
+     * @throws     IOException  if the file does not exist, points to a directory or can't be read.
+     */
+    @Override
+    public boolean readStreets(RecordHandler handler) throws IOException {
+        return readSimulationFile(FILENAME_STREETS, SimulationFileParser::parseStreet, handler);
+    }
+
+    /**
+     * Reads the simulation file {@value FILENAME_CARS} line by line and passes each record with the fields 
+     * ID, street, desired speed and acceleration to the handler.
+     *
+     * The file is streamed through a small buffer and parsed without creating Strings.
+     *
+     * @param      handler  the handler for the records.
+     * @return     {@code true} if all records are handled, {@code false} if the handler stopped the reading.
+     *
+     * @throws     IOException  if the file does not exist, points to a directory or can't be read.
+     */
+    @Override
+    public boolean readCars(RecordHandler handler) throws IOException {
+        return readSimulationFile(FILENAME_CARS, SimulationFileParser::parseCar, handler);
+    }
+
+
     private List<String> loadSimulationFile(String fileName) throws IOException {
+        return Files.readAllLines(resolveSimulationFile(fileName));
+    }
+
+    private boolean readSimulationFile(String fileName, LineParser parser, RecordHandler handler) 
+            throws IOException {
+        if (this.memoryMapped) {
+            return mapSimulationFile(fileName, parser, handler);
+        }
+        final Path filePath = resolveSimulationFile(fileName);
+        final int[] fields = new int[SimulationFileParser.MAX_FIELDS];
+
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                endOfInput = channel.read(buffer) < 0;
+                int consumed = SimulationFileParser.parseLines(buffer, 0, buffer.position(), endOfInput, parser, 
+                                                               handler, fields);
+                if (consumed < 0) {
+                    return false;
+                }
+                buffer.flip().position(consumed);
+                if (consumed == 0 && buffer.limit() == buffer.capacity()) {
+                    // a single line is longer than the buffer
+                    buffer = ByteBuffer.allocate(2 * buffer.capacity()).put(buffer);
+                } else {
+                    buffer.compact();
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean mapSimulationFile(String fileName, LineParser parser, RecordHandler handler) 
+            throws IOException {
+        final Path filePath = resolveSimulationFile(fileName);
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        final int chunksInFlight = 2 * pool.getParallelism();
+        final Queue<ForkJoinTask<ParsedChunk>> chunks = new ArrayDeque<>();
+
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long position = 0;
+            while (position < size || !chunks.isEmpty()) {
+                while (position < size && chunks.size() < chunksInFlight) {
+                    long end = findChunkEnd(channel, position + CHUNK_SIZE, size);
+                    MappedByteBuffer region = channel.map(MapMode.READ_ONLY, position, end - position);
+                    chunks.add(pool.submit(() -> ParsedChunk.parse(region, parser)));
+                    position = end;
+                }
+                if (!chunks.poll().join().replay(handler)) {
+                    chunks.forEach(chunk -> chunk.cancel(false));
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static long findChunkEnd(FileChannel channel, long from, long size) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == LINE_FEED) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private Path resolveSimulationFile(String fileName) throws IOException {
         final Path filePath = this.folderPath.resolve(Path.of(fileName));
         final File file = filePath.toFile();
 
@@ -101,7 +268,7 @@ public final class SimulationFileLoader {
             throw new IOException(String.format("file %s is not a normal file.", filePath.toString()));
         }
 
-        return Files.readAllLines(filePath);
+        return filePath;
     }
 
 }
@@ -0,0 +1,253 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser for the lines of the simulation files, that works directly on the bytes of a buffer.
+ *
+ * Lines are split as by {@link java.io.BufferedReader#readLine()}, and each line is parsed with the same rules 
+ * as the previous String based parsing ({@code indexOf}, {@code substring} and {@code Integer.valueOf}), 
+ * so exactly the same lines are accepted, but no Strings are created for well-formed ASCII lines.
+ *
+ * @author ubvaa
+ * @version 1.0
+ */
+public final class SimulationFileParser {
+
+    /**
+     * Maximal amount of fields of a record.
+     */
+    public static final int MAX_FIELDS = 5;
+
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte COLON = ':';
+    private static final byte COMMA = ',';
+    private static final byte TICK = 't';
+    private static final byte METER = 'm';
+    private static final byte ART = 'x';
+    private static final byte[] ARROW = {'-', '-', '>'};
+    private static final byte[] MAX = {'m', 'a', 'x'};
+    private static final int CAR_FIELDS = 4;
+    private static final int RADIX = 10;
+
+
+    /**
+     * Parser for one line of a simulation file.
+     */
+    @FunctionalInterface
+    public interface LineParser {
+
+        /**
+         * Parses the line {@code [from, to)} of the buffer into the fields.
+         *
+         * @param      buffer  the buffer with the line.
+         * @param      from    index of the first byte of the line.
+         * @param      to      index after the last byte of the line.
+         * @param      fields  array for the parsed fields.
+         * @return     {@code true} if the line follows the format, else {@code false}.
+         */
+        boolean parse(ByteBuffer buffer, int from, int to, int[] fields);
+    }
+
+
+    private SimulationFileParser() { }
+
+
+    /**
+     * Parses and handles all complete lines of the buffer region {@code [from, to)}.
+     *
+     * @param      buffer      the buffer with the lines.
+     * @param      from        index of the first byte of the region.
+     * @param      to          index after the last byte of the region.
+     * @param      endOfInput  {@code true} if the region ends the file, so its last line is complete.
+     * @param      parser      parser for the lines.
+     * @param      handler     handler for the parsed records.
+     * @param      fields      array for the parsed fields.
+     * @return     index of the first byte, that isn't handled yet, or -1 if the handler stopped the reading.
+     */
+    public static int parseLines(ByteBuffer buffer, int from, int to, boolean endOfInput, LineParser parser, 
+            RecordHandler handler, int[] fields) {
+        int lineStart = from;
+        for (int i = from; i < to; i++) {
+            byte symbol = buffer.get(i);
+            if (symbol != LINE_FEED && symbol != CARRIAGE_RETURN) {
+                continue;
+            }
+            if (symbol == CARRIAGE_RETURN && i + 1 == to && !endOfInput) {
+                // a following line feed belongs to the same line break
+                return lineStart;
+            }
+            if (!handler.handle(parser.parse(buffer, lineStart, i, fields) ? fields : null)) {
+                return -1;
+            }
+            if (symbol == CARRIAGE_RETURN && i + 1 < to && buffer.get(i + 1) == LINE_FEED) {
+                i++;
+            }
+            lineStart = i + 1;
+        }
+        if (endOfInput && lineStart < to) {
+            if (!handler.handle(parser.parse(buffer, lineStart, to, fields) ? fields : null)) {
+                return -1;
+            }
+            lineStart = to;
+        }
+        return lineStart;
+    }
+
+    /**
+     * Parses a crossing line {@code [ID]:[GreenLightTime]t} into the fields ID and green light time.
+     *
+     * @param      buffer  the buffer with the line.
+     * @param      from    index of the first byte of the line.
+     * @param      to      index after the last byte of the line.
+     * @param      fields  array for the parsed fields.
+     * @return     {@code true} if the line follows the format, else {@code false}.
+     */
+    public static boolean parseCrossing(ByteBuffer buffer, int from, int to, int[] fields) {
+        int colon = indexOf(buffer, from, to, COLON);
+        int tick = indexOf(buffer, from, to, TICK);
+        return parseField(buffer, from, colon, fields, 0)
+                && parseField(buffer, colon + 1, tick, fields, 1);
+    }
+
+    /**
+     * Parses a street line {@code [StartingPoint]-->[EndingPoint]:[Length]m,[Type]x,[SpeedLimit]max} 
+     * into the fields starting point, ending point, length, type and speed limit.
+     *
+     * @param      buffer  the buffer with the line.
+     * @param      from    index of the first byte of the line.
+     * @param      to      index after the last byte of the line.
+     * @param      fields  array for the parsed fields.
+     * @return     {@code true} if the line follows the format, else {@code false}.
+     */
+    public static boolean parseStreet(ByteBuffer buffer, int from, int to, int[] fields) {
+        int arrow = indexOf(buffer, from, to, ARROW);
+        int colon = indexOf(buffer, from, to, COLON);
+        int meter = indexOf(buffer, from, to, METER);
+        int comma = indexOf(buffer, from, to, COMMA);
+        int art = indexOf(buffer, from, to, ART);
+        int lastComma = lastIndexOf(buffer, from, to, COMMA);
+        int max = indexOf(buffer, from, to, MAX);
+        return parseField(buffer, from, arrow, fields, 0)
+                && parseField(buffer, arrow + ARROW.length, colon, fields, 1)
+                && parseField(buffer, colon + 1, meter, fields, 2)
+                && parseField(buffer, (comma < 0 ? from : comma + 1), art, fields, 3)
+                && parseField(buffer, (lastComma < 0 ? from : lastComma + 1), max, fields, 4);
+    }
+
+    /**
+     * Parses a car line {@code [ID],[Street],[DesiredSpeed],[Acceleration]} 
+     * into the fields ID, street, desired speed and acceleration.
+     *
+     * @param      buffer  the buffer with the line.
+     * @param      from    index of the first byte of the line.
+     * @param      to      index after the last byte of the line.
+     * @param      fields  array for the parsed fields.
+     * @return     {@code true} if the line follows the format, else {@code false}.
+     */
+    public static boolean parseCar(ByteBuffer buffer, int from, int to, int[] fields) {
+        if (from == to || buffer.get(from) == COMMA || buffer.get(to - 1) == COMMA) {
+            return false;
+        }
+        int fieldStart = from;
+        int field = 0;
+        for (int i = from; i <= to; i++) {
+            if (i == to || buffer.get(i) == COMMA) {
+                if (field == CAR_FIELDS || !parseField(buffer, fieldStart, i, fields, field)) {
+                    return false;
+                }
+                field++;
+                fieldStart = i + 1;
+            }
+        }
+        return field == CAR_FIELDS;
+    }
+
+    /**
+     * Parses the integer {@code [from, to)} into the field, with the rules of {@link Integer#parseInt(String)}.
+     * An end before the start (a missing separator) isn't a valid integer.
+     */
+    private static boolean parseField(ByteBuffer buffer, int from, int to, int[] fields, int field) {
+        if (from < 0 || to < from || from == to) {
+            return false;
+        }
+        int i = from;
+        boolean negative = false;
+        byte first = buffer.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (i == to) {
+                return false;
+            }
+        }
+        // accumulate negatively to reach Integer.MIN_VALUE as Integer.parseInt does
+        long value = 0;
+        for (; i < to; i++) {
+            byte symbol = buffer.get(i);
+            if (symbol < 0) {
+                return parseDecoded(buffer, from, to, fields, field);
+            } else if (symbol < '0' || symbol > '9') {
+                return false;
+            }
+            value = value * RADIX - (symbol - '0');
+            if (value < Integer.MIN_VALUE) {
+                return false;
+            }
+        }
+        if (!negative && value == Integer.MIN_VALUE) {
+            return false;
+        }
+        fields[field] = (int) (negative ? value : -value);
+        return true;
+    }
+
+    /**
+     * Parses a field with non-ASCII bytes, which may still be Unicode digits, through a decoded String.
+     */
+    private static boolean parseDecoded(ByteBuffer buffer, int from, int to, int[] fields, int field) {
+        byte[] bytes = new byte[to - from];
+        for (int i = from; i < to; i++) {
+            bytes[i - from] = buffer.get(i);
+        }
+        try {
+            fields[field] = Integer.parseInt(new String(bytes, StandardCharsets.UTF_8));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to, byte symbol) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == symbol) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, int from, int to, byte symbol) {
+        for (int i = to - 1; i >= from; i--) {
+            if (buffer.get(i) == symbol) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to, byte[] sequence) {
+        for (int i = from; i <= to - sequence.length; i++) {
+            int matched = 0;
+            while (matched < sequence.length && buffer.get(i + matched) == sequence[matched]) {
+                matched++;
+            }
+            if (matched == sequence.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,202 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Records of the three simulation files, that are held in memory.
+ *
+ * The files are parsed once, after that the records can be changed and handed to any number of simulations 
+ * as a {@link SimulationSource}. As in the files, the reading stops at the first line with the wrong format, 
+ * which is remembered and passed as {@code null} again.
+ *
+ * @author ubvaa
+ * @version 1.0
+ */
+public final class SimulationRecords implements SimulationSource {
+
+    /**
+     * Amount of fields of a crossing record.
+     */
+    public static final int CROSSING_FIELDS = 2;
+    /**
+     * Amount of fields of a street record.
+     */
+    public static final int STREET_FIELDS = 5;
+    /**
+     * Amount of fields of a car record.
+     */
+    public static final int CAR_FIELDS = 4;
+
+    private final Table crossings;
+    private final Table streets;
+    private final Table cars;
+
+
+    /**
+     * Creates new records from the three tables, which may be shared with other records, as long as 
+     * none of them is changed.
+     *
+     * @param      crossings  the crossing records.
+     * @param      streets    the street records.
+     * @param      cars       the car records.
+     */
+    public SimulationRecords(Table crossings, Table streets, Table cars) {
+        this.crossings = crossings;
+        this.streets = streets;
+        this.cars = cars;
+    }
+
+
+    /**
+     * Reads all records of the source into memory.
+     *
+     * @param      source  the source of the records, e.g. a {@link SimulationFileLoader}.
+     * @return     the records of the source.
+     *
+     * @throws     IOException  if the source can't be read.
+     */
+    public static SimulationRecords read(SimulationSource source) throws IOException {
+        Table crossings = new Table(CROSSING_FIELDS);
+        Table streets = new Table(STREET_FIELDS);
+        Table cars = new Table(CAR_FIELDS);
+        source.readCrossings(crossings::add);
+        source.readStreets(streets::add);
+        source.readCars(cars::add);
+        return new SimulationRecords(crossings, streets, cars);
+    }
+
+    /**
+     * Returns the crossing records with the fields ID and green light time.
+     *
+     * @return     the crossing records.
+     */
+    public Table getCrossings() {
+        return this.crossings;
+    }
+
+    /**
+     * Returns the street records with the fields starting point, ending point, length, type and speed limit.
+     *
+     * @return     the street records.
+     */
+    public Table getStreets() {
+        return this.streets;
+    }
+
+    /**
+     * Returns the car records with the fields ID, street, desired speed and acceleration.
+     *
+     * @return     the car records.
+     */
+    public Table getCars() {
+        return this.cars;
+    }
+
+    @Override
+    public boolean readCrossings(RecordHandler handler) {
+        return this.crossings.replay(handler);
+    }
+
+    @Override
+    public boolean readStreets(RecordHandler handler) {
+        return this.streets.replay(handler);
+    }
+
+    @Override
+    public boolean readCars(RecordHandler handler) {
+        return this.cars.replay(handler);
+    }
+
+
+    /**
+     * Records of one simulation file with a fixed amount of fields, stored in one flat array.
+     *
+     * @author ubvaa
+     * @version 1.0
+     */
+    public static final class Table {
+
+        private static final int INITIAL_CAPACITY = 1 << 6;
+
+        private final int width;
+        private int[] values;
+        private int size;
+        private boolean malformed;
+
+
+        private Table(int width) {
+            this.width = width;
+            this.values = new int[INITIAL_CAPACITY * width];
+        }
+
+
+        /**
+         * Returns the amount of records.
+         *
+         * @return     the amount of records, without a line with the wrong format.
+         */
+        public int size() {
+            return this.size;
+        }
+
+        /**
+         * Returns a field of a record.
+         *
+         * @param      record  the index of the record in file order.
+         * @param      field   the index of the field.
+         * @return     the value of the field.
+         */
+        public int get(int record, int field) {
+            return this.values[record * this.width + field];
+        }
+
+        /**
+         * Changes a field of a record.
+         *
+         * @param      record  the index of the record in file order.
+         * @param      field   the index of the field.
+         * @param      value   the new value of the field.
+         */
+        public void set(int record, int field, int value) {
+            this.values[record * this.width + field] = value;
+        }
+
+        /**
+         * Returns an independent copy of the table, that can be changed without changing this table.
+         *
+         * @return     the copy of the table.
+         */
+        public Table copy() {
+            Table copy = new Table(this.width);
+            copy.values = Arrays.copyOf(this.values, this.size * this.width);
+            copy.size = this.size;
+            copy.malformed = this.malformed;
+            return copy;
+        }
+
+        private boolean add(int[] fields) {
+            if (fields == null) {
+                this.malformed = true;
+                return false;
+            }
+            if ((this.size + 1) * this.width > this.values.length) {
+                this.values = Arrays.copyOf(this.values, 2 * this.values.length);
+            }
+            System.arraycopy(fields, 0, this.values, this.size * this.width, this.width);
+            this.size++;
+            return true;
+        }
+
+        private boolean replay(RecordHandler handler) {
+            int[] fields = new int[SimulationFileParser.MAX_FIELDS];
+            for (int record = 0; record < this.size; record++) {
+                System.arraycopy(this.values, record * this.width, fields, 0, this.width);
+                if (!handler.handle(fields)) {
+                    return false;
+                }
+            }
+            return !this.malformed || handler.handle(null);
+        }
+    }
+}
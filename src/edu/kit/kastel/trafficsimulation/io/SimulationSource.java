@@ -0,0 +1,45 @@
+package edu.kit.kastel.trafficsimulation.io;
+
+import java.io.IOException;
+
+/**
+ * Source of the records of the three simulation files.
+ *
+ * The records are passed in file order to the handler, a line with the wrong format is passed as {@code null}.
+ *
+ * @author ubvaa
+ * @version 1.0
+ */
+public interface SimulationSource {
+
+    /**
+     * Passes each crossing record with the fields ID and green light time to the handler.
+     *
+     * @param      handler  the handler for the records.
+     * @return     {@code true} if all records are handled, {@code false} if the handler stopped the reading.
+     *
+     * @throws     IOException  if the records can't be read.
+     */
+    boolean readCrossings(RecordHandler handler) throws IOException;
+
+    /**
+     * Passes each street record with the fields starting point, ending point, length, type and speed limit 
+     * to the handler.
+     *
+     * @param      handler  the handler for the records.
+     * @return     {@code true} if all records are handled, {@code false} if the handler stopped the reading.
+     *
+     * @throws     IOException  if the records can't be read.
+     */
+    boolean readStreets(RecordHandler handler) throws IOException;
+
+    /**
+     * Passes each car record with the fields ID, street, desired speed and acceleration to the handler.
+     *
+     * @param      handler  the handler for the records.
+     * @return     {@code true} if all records are handled, {@code false} if the handler stopped the reading.
+     *
+     * @throws     IOException  if the records can't be read.
+     */
+    boolean readCars(RecordHandler handler) throws IOException;
+}